@@ -0,0 +1,246 @@
+package org.si.news.parser.service.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+
+/**
+ * Turns every GET request into a conditional one, so a feed that did not change since the last poll is neither
+ * downloaded nor parsed.
+ * <p>
+ * The validators of the last successful response of every URL are kept in a bounded cache shared by all parsers.
+ * The ETag is sent back as {@code If-None-Match} and the Last-Modified date as {@code If-Modified-Since}; the
+ * server then answers {@code 304 Not Modified} with an empty body, which parsers read as no articles.
+ * For servers that send neither validator, the body is hashed instead, and a body identical to the last one is
+ * turned into a {@code 304 Not Modified} response before it reaches the parser. A body larger than
+ * {@code parser.conditional.max-hashed-body-size} is not hashed and always reaches the parser.
+ * <p>
+ * Validators are only learned for requests made on behalf of a {@link ValidatorBatch} bound to the Reactor
+ * context, and only take effect once the batch is committed, i.e. once the articles of the link were sent.
+ * The cached validators thus always describe a delivered response, and requests made outside of a batch, such
+ * as a parse preview, never change them. This does not recover the articles of a failed poll: the next poll is
+ * unconditional, but only looks for articles newer than the failed dispatch.
+ */
+@Slf4j
+@Component
+public class ConditionalRequestFilter implements ExchangeFilterFunction {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Whether requests are made conditional.
+     */
+    @Value("${parser.conditional.enabled}")
+    private boolean enabled;
+
+    /**
+     * The maximum number of URLs whose validators are kept.
+     */
+    @Value("${parser.conditional.max-entries}")
+    private long maxEntries;
+
+    /**
+     * How long the validators of a URL are kept after it was last fetched.
+     */
+    @Value("${parser.conditional.ttl}")
+    private Duration ttl;
+
+    /**
+     * The maximum size of a body hashed when the server sends no validators.
+     */
+    @Value("${parser.conditional.max-hashed-body-size}")
+    private DataSize maxHashedBodySize;
+
+    private Cache<String, Validators> validators;
+
+    /**
+     * Creates the validator cache.
+     */
+    @PostConstruct
+    public void init() {
+        validators = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterAccess(ttl)
+            .build();
+    }
+
+    /**
+     * Starts a batch collecting the validators learned while a link is processed.
+     *
+     * @return the batch, to be bound to the context of the requests and committed once the link is processed
+     */
+    public ValidatorBatch newBatch() {
+        return new ValidatorBatch(validators);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled || !HttpMethod.GET.equals(request.method())) {
+            return next.exchange(request);
+        }
+        String url = request.url().toString();
+        Validators cached = validators.getIfPresent(url);
+        ClientRequest conditional = cached == null ? request : ClientRequest.from(request)
+            .headers(cached::addTo)
+            .build();
+        return Mono.deferContextual(context -> next.exchange(conditional)
+            .flatMap(response -> onResponse(url, cached, response,
+                context.getOrDefault(ValidatorBatch.class, null))));
+    }
+
+    private Mono<ClientResponse> onResponse(String url, Validators cached, ClientResponse response,
+                                            ValidatorBatch batch) {
+        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            log.debug("Not modified since the last poll: {}", url);
+            return Mono.just(response);
+        }
+        if (!response.statusCode().is2xxSuccessful()) {
+            return Mono.just(response);
+        }
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        String etag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        if (etag != null || lastModified != null) {
+            learn(batch, url, new Validators(etag, lastModified, null));
+            return Mono.just(response);
+        }
+        long maxBytes = maxHashedBodySize.toBytes();
+        AtomicLong bytes = new AtomicLong();
+        return response.body(BodyExtractors.toDataBuffers())
+            .bufferUntil(buffer -> bytes.addAndGet(buffer.readableByteCount()) > maxBytes)
+            .switchOnFirst((first, chunks) -> {
+                if (!first.hasValue()) {
+                    return first.isOnError() ? Flux.error(first.getThrowable()) : Flux.just(response);
+                }
+                if (bytes.get() > maxBytes) {
+                    log.debug("Body too large to be compared with the last poll: {}", url);
+                    return Flux.just(response.mutate()
+                        .body(chunks.concatMapIterable(Function.identity()))
+                        .build());
+                }
+                return DataBufferUtils.join(Flux.fromIterable(first.get()))
+                    .map(body -> compareBody(url, cached, response, body, batch));
+            }, false)
+            .single();
+    }
+
+    /**
+     * Records the hash of a body received without validators, and replaces the response with an empty
+     * {@code 304 Not Modified} one if the body did not change since the last poll.
+     */
+    private ClientResponse compareBody(String url, Validators cached, ClientResponse response, DataBuffer body,
+                                       ValidatorBatch batch) {
+        byte[] hash = hash(body);
+        if (cached != null && Arrays.equals(hash, cached.bodyHash())) {
+            DataBufferUtils.release(body);
+            log.debug("Body unchanged since the last poll: {}", url);
+            return response.mutate()
+                .statusCode(HttpStatus.NOT_MODIFIED)
+                .body(Flux.empty())
+                .build();
+        }
+        learn(batch, url, new Validators(null, null, hash));
+        return response.mutate()
+            .body(Flux.just(body))
+            .build();
+    }
+
+    private static void learn(ValidatorBatch batch, String url, Validators learned) {
+        if (batch != null) {
+            batch.learned.put(url, learned);
+        }
+    }
+
+    private static byte[] hash(DataBuffer body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            try (DataBuffer.ByteBufferIterator iterator = body.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer buffer = iterator.next();
+                    digest.update(buffer);
+                }
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * The validators of the last successful response of a URL.
+     *
+     * @param etag the entity tag, or {@code null}
+     * @param lastModified the Last-Modified date as sent by the server, or {@code null}
+     * @param bodyHash the hash of the body if the server sent neither validator, or {@code null}
+     */
+    private record Validators(String etag, String lastModified, byte[] bodyHash) {
+
+        void addTo(HttpHeaders headers) {
+            if (etag != null && headers.getIfNoneMatch().isEmpty()) {
+                headers.setIfNoneMatch(etag);
+            }
+            if (lastModified != null && !headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+
+    /**
+     * The validators learned while a link is processed. They are only used for the next requests once committed,
+     * so the validators of a link whose articles were not sent are dropped with the batch.
+     */
+    public static final class ValidatorBatch {
+
+        private final Cache<String, Validators> committed;
+        private final Map<String, Validators> learned = new ConcurrentHashMap<>();
+
+        private ValidatorBatch(Cache<String, Validators> committed) {
+            this.committed = committed;
+        }
+
+        /**
+         * Binds the batch to a Reactor context, so the requests made within it learn their validators into it.
+         *
+         * @param context the context
+         * @return the context with the batch
+         */
+        public Context bind(Context context) {
+            return context.put(ValidatorBatch.class, this);
+        }
+
+        /**
+         * Makes the learned validators effective for the next requests.
+         */
+        public void commit() {
+            committed.putAll(learned);
+            learned.clear();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.si.news.parser.service.client;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+
+
+/**
+ * Token bucket limiting the requests to a single host. The bucket is either kept in the memory of this instance
+ * or shared by the whole fleet through a distributed store.
+ */
+public interface HostBucket {
+
+    /**
+     * Takes a token, waiting for the refill if the bucket is empty. The token is reserved right away,
+     * so the requests waiting for a host are served in the order they arrived.
+     *
+     * @param maxWait how long the request may wait for a token
+     * @param scheduler the scheduler completing the future once the reserved token is refilled
+     * @return a future completing with {@code true} once the token is taken, or with {@code false} right away
+     *         if the token would not be refilled within {@code maxWait}
+     */
+    CompletableFuture<Boolean> tryConsume(Duration maxWait, ScheduledExecutorService scheduler);
+
+    /**
+     * Takes every token left, so the next requests to the host wait for the refill.
+     */
+    void drain();
+
+    /**
+     * Wraps a bucket kept in the memory of this instance.
+     *
+     * @param bucket the bucket
+     * @return the host bucket
+     */
+    static HostBucket local(Bucket bucket) {
+        return new HostBucket() {
+            @Override
+            public CompletableFuture<Boolean> tryConsume(Duration maxWait, ScheduledExecutorService scheduler) {
+                return bucket.asScheduler().tryConsume(1, maxWait, scheduler);
+            }
+
+            @Override
+            public void drain() {
+                bucket.tryConsumeAsMuchAsPossible();
+            }
+        };
+    }
+
+    /**
+     * Wraps a bucket shared through a distributed store.
+     *
+     * @param bucket the proxy of the shared bucket
+     * @return the host bucket
+     */
+    static HostBucket distributed(AsyncBucketProxy bucket) {
+        return new HostBucket() {
+            @Override
+            public CompletableFuture<Boolean> tryConsume(Duration maxWait, ScheduledExecutorService scheduler) {
+                return bucket.asScheduler().tryConsume(1, maxWait, scheduler);
+            }
+
+            @Override
+            public void drain() {
+                bucket.tryConsumeAsMuchAsPossible();
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package org.si.news.parser.service.client;
+
+
+/**
+ * Thrown when a request is rejected because its host already has the maximum number of requests in flight
+ * and waiting.
+ */
+public class HostBusyException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param host the host the request was sent to
+     * @param maxInFlight the maximum number of requests in flight to the host
+     * @param maxPending the maximum number of requests waiting for the host
+     */
+    public HostBusyException(String host, int maxInFlight, int maxPending) {
+        super("Too many requests to " + host + ": " + maxInFlight + " in flight and " + maxPending + " waiting");
+    }
+}
@@ -0,0 +1,89 @@
+package org.si.news.parser.service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Bounds the requests in flight to every host, so a slow source cannot hold every connection and every parsing
+ * slot while the other sources wait. A request holds its slot until its response body is consumed.
+ * <p>
+ * The requests in flight and waiting are exposed per host as the {@code parser.http.host.in-flight} and
+ * {@code parser.http.host.pending} gauges, and the rejected ones as the {@code parser.http.host.rejected} counter.
+ */
+public class HostConcurrencyFilter implements ExchangeFilterFunction {
+
+    private static final String HOST_TAG = "host";
+    private static final String REJECTED_METER = "parser.http.host.rejected";
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultMaxInFlight;
+    private final Map<String, Integer> hostMaxInFlight;
+    private final int maxPending;
+    private final Map<String, HostGate> gates = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the filter.
+     *
+     * @param meterRegistry the registry the per-host meters are registered in
+     * @param defaultMaxInFlight the maximum number of requests in flight to a host without its own limit
+     * @param hostMaxInFlight the maximum number of requests in flight to specific hosts
+     * @param maxPending the maximum number of requests waiting for a host
+     */
+    public HostConcurrencyFilter(MeterRegistry meterRegistry, int defaultMaxInFlight,
+                                 Map<String, Integer> hostMaxInFlight, int maxPending) {
+        this.meterRegistry = meterRegistry;
+        this.defaultMaxInFlight = defaultMaxInFlight;
+        this.hostMaxInFlight = Map.copyOf(hostMaxInFlight);
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String host = request.url().getHost();
+        HostGate gate = gates.computeIfAbsent(host, this::createGate);
+        return gate.acquire()
+            .doOnError(HostBusyException.class,
+                error -> meterRegistry.counter(REJECTED_METER, HOST_TAG, host).increment())
+            .then(Mono.defer(() -> {
+                AtomicBoolean released = new AtomicBoolean();
+                Runnable release = () -> {
+                    if (released.compareAndSet(false, true)) {
+                        gate.release();
+                    }
+                };
+                return next.exchange(request)
+                    .map(response -> response.mutate()
+                        .body(body -> body.doFinally(signal -> release.run()))
+                        .build())
+                    .doOnError(error -> release.run())
+                    .doOnCancel(release);
+            }));
+    }
+
+    private HostGate createGate(String host) {
+        HostGate gate = new HostGate(host, hostMaxInFlight.getOrDefault(host, defaultMaxInFlight), maxPending);
+        Gauge.builder("parser.http.host.in-flight", gate, HostGate::inFlight)
+            .description("Requests in flight to the host")
+            .tag(HOST_TAG, host)
+            .register(meterRegistry);
+        Gauge.builder("parser.http.host.pending", gate, HostGate::pending)
+            .description("Requests waiting for a slot of the host")
+            .tag(HOST_TAG, host)
+            .register(meterRegistry);
+        Counter.builder(REJECTED_METER)
+            .description("Requests rejected because too many requests to the host were waiting")
+            .tag(HOST_TAG, host)
+            .register(meterRegistry);
+        return gate;
+    }
+}
@@ -0,0 +1,135 @@
+package org.si.news.parser.service.client;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+
+/**
+ * Non-blocking semaphore bounding the requests in flight to a single host. Requests over the limit wait in
+ * a bounded FIFO queue; requests arriving while the queue is full are rejected with a {@link HostBusyException}.
+ */
+class HostGate {
+
+    private final String host;
+    private final int maxInFlight;
+    private final int maxPending;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates the gate of a host.
+     *
+     * @param host the host the gate bounds the requests to
+     * @param maxInFlight the maximum number of requests in flight
+     * @param maxPending the maximum number of requests waiting for a slot
+     */
+    HostGate(String host, int maxInFlight, int maxPending) {
+        this.host = host;
+        this.maxInFlight = maxInFlight;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Waits for a slot. The slot must be given back with {@link #release()} once the request is done.
+     *
+     * @return a {@link Mono} completing once a slot is taken, or failing with a {@link HostBusyException}
+     *         if too many requests are already waiting
+     */
+    Mono<Void> acquire() {
+        return Mono.create(sink -> {
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                sink.error(new HostBusyException(host, maxInFlight, maxPending));
+            } else {
+                Waiter waiter = new Waiter(sink);
+                waiters.add(waiter);
+                sink.onCancel(() -> cancel(waiter));
+                drain();
+            }
+        });
+    }
+
+    /**
+     * Gives back a slot taken with {@link #acquire()}.
+     */
+    void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Hands free slots to the waiting requests. Every change of the slots or of the queue is followed by a drain,
+     * so a free slot never stays unused while a request waits.
+     */
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null) {
+                inFlight.decrementAndGet();
+            } else {
+                pending.decrementAndGet();
+                if (!waiter.grant()) {
+                    inFlight.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        int current = inFlight.get();
+        while (current < maxInFlight) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = inFlight.get();
+        }
+        return false;
+    }
+
+    private void cancel(Waiter waiter) {
+        if (waiter.cancel() && waiters.remove(waiter)) {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * A request waiting for a slot. It is either granted a slot or cancelled, whichever happens first.
+     */
+    private static final class Waiter {
+
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final MonoSink<Void> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+
+        private boolean grant() {
+            boolean granted = state.compareAndSet(WAITING, GRANTED);
+            if (granted) {
+                sink.success();
+            }
+            return granted;
+        }
+
+        private boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+    }
+}
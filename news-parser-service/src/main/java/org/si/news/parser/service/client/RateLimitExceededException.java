@@ -0,0 +1,20 @@
+package org.si.news.parser.service.client;
+
+import java.time.Duration;
+
+
+/**
+ * Thrown when a request is rejected because the rate limit of its host would not let it through in time.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param host the host the request was sent to
+     * @param maxWait how long the request was allowed to wait for the rate limit
+     */
+    public RateLimitExceededException(String host, Duration maxWait) {
+        super("Rate limit of " + host + " does not allow a request within " + maxWait);
+    }
+}
@@ -0,0 +1,87 @@
+package org.si.news.parser.service.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Limits the rate of requests to every host with a token bucket, so a burst of links from the scheduler does not
+ * exceed the throttling thresholds of the sources. A request waits for a token of its host without blocking
+ * a thread; if the token would not be refilled within the allowed wait, the request fails with
+ * a {@link RateLimitExceededException} and the link is fetched again on the next poll.
+ * <p>
+ * A {@code 429 Too Many Requests} response empties the bucket of its host, so the following requests wait for
+ * the refill instead of retrying into the throttle. If the bucket itself is unavailable, for example because
+ * the shared store is down, requests are let through.
+ * <p>
+ * The rejected requests are counted per host as {@code parser.http.host.rate-limited}, the throttled responses
+ * as {@code parser.http.host.too-many-requests}.
+ */
+@Slf4j
+public class RateLimitFilter implements ExchangeFilterFunction {
+
+    private static final String HOST_TAG = "host";
+
+    private final MeterRegistry meterRegistry;
+    private final Function<String, HostBucket> bucketFactory;
+    private final Duration maxWait;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, HostBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the filter.
+     *
+     * @param meterRegistry the registry the per-host meters are registered in
+     * @param bucketFactory creates the bucket of a host
+     * @param maxWait how long a request may wait for a token of its host
+     * @param scheduler the scheduler completing the waits for tokens
+     */
+    public RateLimitFilter(MeterRegistry meterRegistry, Function<String, HostBucket> bucketFactory,
+                           Duration maxWait, ScheduledExecutorService scheduler) {
+        this.meterRegistry = meterRegistry;
+        this.bucketFactory = bucketFactory;
+        this.maxWait = maxWait;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String host = request.url().getHost();
+        HostBucket bucket = buckets.computeIfAbsent(host, bucketFactory);
+        return Mono.fromFuture(() -> bucket.tryConsume(maxWait, scheduler))
+            .onErrorResume(error -> {
+                log.warn("Rate limit of {} is unavailable, letting the request through: {}", host,
+                    error.getMessage());
+                return Mono.just(true);
+            })
+            .flatMap(consumed -> {
+                if (!consumed) {
+                    meterRegistry.counter("parser.http.host.rate-limited", HOST_TAG, host).increment();
+                    return Mono.error(new RateLimitExceededException(host, maxWait));
+                }
+                return next.exchange(request);
+            })
+            .doOnNext(response -> {
+                if (response.statusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+                    log.warn("{} is throttling the requests, waiting for the refill of its rate limit", host);
+                    meterRegistry.counter("parser.http.host.too-many-requests", HOST_TAG, host).increment();
+                    try {
+                        bucket.drain();
+                    } catch (RuntimeException e) {
+                        log.warn("Rate limit of {} is unavailable, cannot drain it: {}", host, e.getMessage());
+                    }
+                }
+            });
+    }
+}
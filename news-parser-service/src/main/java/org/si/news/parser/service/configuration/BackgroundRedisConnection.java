@@ -0,0 +1,120 @@
+package org.si.news.parser.service.configuration;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.ProxyFactory;
+
+
+/**
+ * Connection to Redis established in the background, so the parser starts and keeps working while Redis is down.
+ * <p>
+ * The commands are exposed through a proxy: until the connection is established, every command fails at once
+ * with a {@link RedisConnectionException} instead of blocking the caller, and the callers fall back to their
+ * behavior without Redis. A failed attempt is retried on the next command after {@code reconnectDelay}.
+ * Once established, the connection reconnects by itself, as every Lettuce connection does.
+ */
+@Slf4j
+class BackgroundRedisConnection implements TargetSource {
+
+    private final RedisClient redisClient;
+    private final RedisURI redisUri;
+    private final Duration reconnectDelay;
+    private final Clock clock;
+
+    private volatile CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connection;
+    private volatile long reconnectAt;
+    private volatile boolean closed;
+
+    /**
+     * Creates the connection and starts the first attempt to establish it.
+     *
+     * @param redisClient the Redis client
+     * @param redisUri the URI of the Redis instance
+     * @param reconnectDelay how long to wait after a failed attempt before the next one
+     * @param clock the clock the attempts are timed with
+     */
+    BackgroundRedisConnection(RedisClient redisClient, RedisURI redisUri, Duration reconnectDelay, Clock clock) {
+        this.redisClient = redisClient;
+        this.redisUri = redisUri;
+        this.reconnectDelay = reconnectDelay;
+        this.clock = clock;
+        this.connection = connect();
+    }
+
+    /**
+     * Returns the commands of the connection, failing fast while it is not established.
+     *
+     * @return the proxy of the commands
+     */
+    @SuppressWarnings("unchecked")
+    RedisAsyncCommands<byte[], byte[]> commands() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addInterface(RedisAsyncCommands.class);
+        proxyFactory.setTargetSource(this);
+        return (RedisAsyncCommands<byte[], byte[]>) proxyFactory.getProxy(getClass().getClassLoader());
+    }
+
+    @Override
+    public Class<?> getTargetClass() {
+        return RedisAsyncCommands.class;
+    }
+
+    @Override
+    public boolean isStatic() {
+        return false;
+    }
+
+    @Override
+    public Object getTarget() {
+        CompletableFuture<StatefulRedisConnection<byte[], byte[]>> current = connection;
+        if (current.isDone() && !current.isCompletedExceptionally()) {
+            return current.join().async();
+        }
+        if (current.isCompletedExceptionally()) {
+            reconnectIfDue(current);
+        }
+        throw new RedisConnectionException("Not connected to Redis at " + redisUri);
+    }
+
+    @Override
+    public void releaseTarget(Object target) {
+        // The commands are shared, nothing to release
+    }
+
+    /**
+     * Closes the connection, once established if an attempt is in progress.
+     */
+    void close() {
+        closed = true;
+        connection.thenAccept(StatefulRedisConnection::close);
+    }
+
+    private synchronized void reconnectIfDue(CompletableFuture<StatefulRedisConnection<byte[], byte[]>> failed) {
+        if (connection == failed && !closed && clock.millis() >= reconnectAt) {
+            connection = connect();
+        }
+    }
+
+    private CompletableFuture<StatefulRedisConnection<byte[], byte[]>> connect() {
+        return redisClient.connectAsync(ByteArrayCodec.INSTANCE, redisUri)
+            .toCompletableFuture()
+            .whenComplete((established, error) -> {
+                if (error == null) {
+                    log.info("Connected to Redis at {}", redisUri);
+                } else {
+                    reconnectAt = clock.millis() + reconnectDelay.toMillis();
+                    log.warn("Cannot connect to Redis at {}, retrying after {}: {}", redisUri, reconnectDelay,
+                        error.getMessage());
+                }
+            });
+    }
+}
@@ -0,0 +1,99 @@
+package org.si.news.parser.service.configuration;
+
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.si.news.parser.service.dedup.ArticleDeduplicator;
+import org.si.news.parser.service.dedup.BloomFilterSpec;
+import org.si.news.parser.service.dedup.BloomFilterStore;
+import org.si.news.parser.service.dedup.LocalBloomFilterStore;
+import org.si.news.parser.service.dedup.RedisBloomFilterStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Configuration class for the deduplication of sent articles, see {@link ArticleDeduplicator}.
+ * <p>
+ * In the {@code local} mode every instance keeps its own filter. In the {@code redis} mode the filter is shared
+ * through Redis, see {@link RedisConfig}, so an article sent by one instance is dropped by all of them.
+ */
+@Slf4j
+@Configuration
+public class DedupConfig {
+
+    private static final String REDIS_MODE = "redis";
+
+    /**
+     * Whether articles already sent are dropped.
+     */
+    @Value("${parser.dedup.enabled}")
+    private boolean enabled;
+
+    /**
+     * Where the filter is kept: {@code local} or {@code redis}.
+     */
+    @Value("${parser.dedup.mode}")
+    private String mode;
+
+    /**
+     * The number of articles a generation of the filter holds at the target false-positive rate.
+     */
+    @Value("${parser.dedup.expected-articles}")
+    private long expectedArticles;
+
+    /**
+     * The target probability that a new article is dropped as a duplicate.
+     */
+    @Value("${parser.dedup.false-positive-rate}")
+    private double falsePositiveRate;
+
+    /**
+     * How long a generation of the filter takes articles. Articles are remembered for one to two intervals.
+     */
+    @Value("${parser.dedup.rotation-interval}")
+    private Duration rotationInterval;
+
+    /**
+     * Creates the deduplicator of sent articles.
+     *
+     * @param meterRegistry the registry the meters of the filter are registered in
+     * @param redisCommands the commands of the connection to Redis, available in the {@code redis} mode
+     * @return the deduplicator
+     */
+    @Bean
+    public ArticleDeduplicator articleDeduplicator(MeterRegistry meterRegistry,
+                                                   ObjectProvider<RedisAsyncCommands<byte[], byte[]>>
+                                                       redisCommands) {
+        BloomFilterSpec spec = BloomFilterSpec.of(expectedArticles, falsePositiveRate);
+        BloomFilterStore store;
+        if (!enabled) {
+            log.info("Deduplication of articles is disabled");
+            store = new BloomFilterStore() {
+                @Override
+                public Mono<Boolean> mightContain(long[] positions) {
+                    return Mono.just(false);
+                }
+
+                @Override
+                public Mono<Long> put(long[] positions) {
+                    return Mono.empty();
+                }
+            };
+        } else if (REDIS_MODE.equals(mode)) {
+            log.info("Deduplicating articles across the fleet through Redis with {} bits and {} hashes",
+                spec.bits(), spec.hashes());
+            store = new RedisBloomFilterStore(redisCommands.getObject(), spec, rotationInterval,
+                Clock.systemUTC());
+        } else {
+            log.info("Deduplicating articles locally with {} bits and {} hashes", spec.bits(), spec.hashes());
+            store = new LocalBloomFilterStore(spec, rotationInterval, Clock.systemUTC());
+        }
+        return new ArticleDeduplicator(store, spec, meterRegistry);
+    }
+}
@@ -0,0 +1,39 @@
+package org.si.news.parser.service.configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Parses the per-host overrides of a limit, given as {@code host=limit} entries.
+ */
+final class HostLimits {
+
+    private static final String SEPARATOR = "=";
+
+    private HostLimits() {
+    }
+
+    /**
+     * Parses the entries of a property. Blank entries are skipped.
+     *
+     * @param entries the {@code host=limit} entries
+     * @param property the name of the property, reported if an entry is malformed
+     * @return the limits by host
+     */
+    static Map<String, Integer> parse(List<String> entries, String property) {
+        Map<String, Integer> limits = new HashMap<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected host=limit in " + property + ": " + entry);
+            }
+            limits.put(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+        return limits;
+    }
+}
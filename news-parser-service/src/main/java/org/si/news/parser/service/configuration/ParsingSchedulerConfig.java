@@ -0,0 +1,40 @@
+package org.si.news.parser.service.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+
+/**
+ * Configuration class for the scheduler that runs CPU-bound parsing work, such as building the DOM of a fetched
+ * HTML page. Keeping this work on its own bounded pool leaves the Netty and Kafka threads free for I/O.
+ */
+@Configuration
+public class ParsingSchedulerConfig {
+
+    private static final String THREAD_NAME_PREFIX = "html-parsing";
+
+    /**
+     * The maximum number of threads parsing documents at the same time.
+     */
+    @Value("${parser.html.parsing-threads}")
+    private int parsingThreads;
+
+    /**
+     * The maximum number of documents waiting for a parsing thread. Further documents are rejected.
+     */
+    @Value("${parser.html.parsing-queue-size}")
+    private int parsingQueueSize;
+
+    /**
+     * Creates the bounded scheduler documents are parsed on.
+     *
+     * @return the parsing scheduler, disposed with the application context
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler parsingScheduler() {
+        return Schedulers.newBoundedElastic(parsingThreads, parsingQueueSize, THREAD_NAME_PREFIX);
+    }
+}
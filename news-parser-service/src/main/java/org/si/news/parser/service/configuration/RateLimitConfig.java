@@ -0,0 +1,134 @@
+package org.si.news.parser.service.configuration;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.si.news.parser.service.client.HostBucket;
+import org.si.news.parser.service.client.RateLimitFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * Configuration class for the per-host rate limit of the requests, see {@link RateLimitFilter}.
+ * <p>
+ * In the {@code local} mode every instance keeps its own buckets, so the fleet as a whole may send
+ * as many requests to a host as there are instances times the limit. In the {@code redis} mode the buckets
+ * are shared through Redis, see {@link RedisConfig}, and the limit holds across the whole fleet.
+ */
+@Slf4j
+@Configuration
+public class RateLimitConfig {
+
+    private static final String KEY_PREFIX = "parser:rate-limit:";
+    private static final String THREAD_NAME = "rate-limit";
+
+    /**
+     * The number of requests a host without its own limit may receive per refill period.
+     */
+    @Value("${parser.rate-limit.capacity}")
+    private int capacity;
+
+    /**
+     * Hosts with their own limit of requests per refill period, as {@code host=limit} entries.
+     */
+    @Value("${parser.rate-limit.host-capacity}")
+    private List<String> hostCapacity;
+
+    /**
+     * The period over which the tokens of a bucket are refilled.
+     */
+    @Value("${parser.rate-limit.refill-period}")
+    private Duration refillPeriod;
+
+    /**
+     * How long a request may wait for a token of its host before failing.
+     */
+    @Value("${parser.rate-limit.max-wait}")
+    private Duration maxWait;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates the filter limiting the rate of requests to every host.
+     *
+     * @param meterRegistry the registry the per-host meters are registered in
+     * @param proxyManager the manager of the buckets shared through Redis, available in the {@code redis} mode
+     * @return the filter
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter(MeterRegistry meterRegistry,
+                                           ObjectProvider<LettuceBasedProxyManager> proxyManager) {
+        Map<String, Integer> hostLimits = HostLimits.parse(hostCapacity, "parser.rate-limit.host-capacity");
+        Function<String, Bandwidth> bandwidth = host -> {
+            int limit = hostLimits.getOrDefault(host, capacity);
+            return Bandwidth.classic(limit, Refill.greedy(limit, refillPeriod));
+        };
+        LettuceBasedProxyManager sharedBuckets = proxyManager.getIfAvailable();
+        Function<String, HostBucket> bucketFactory;
+        if (sharedBuckets == null) {
+            log.info("Rate limiting requests per host locally");
+            bucketFactory = host -> HostBucket.local(Bucket.builder().addLimit(bandwidth.apply(host)).build());
+        } else {
+            log.info("Rate limiting requests per host across the fleet through Redis");
+            bucketFactory = host -> HostBucket.distributed(sharedBuckets.asAsync().builder().build(
+                (KEY_PREFIX + host).getBytes(StandardCharsets.UTF_8),
+                BucketConfiguration.builder().addLimit(bandwidth.apply(host)).build()));
+        }
+        return new RateLimitFilter(meterRegistry, bucketFactory, maxWait, scheduler);
+    }
+
+    /**
+     * Stops the scheduler completing the waits for tokens.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Configuration of the buckets shared through Redis, active in the {@code redis} mode.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "parser.rate-limit.mode", havingValue = "redis")
+    public static class RedisRateLimitConfig {
+
+        /**
+         * Creates the manager of the shared buckets. A bucket is removed from Redis once it stays full
+         * for a refill period.
+         *
+         * @param redisCommands the commands of the connection to Redis
+         * @param refillPeriod the period over which the tokens of a bucket are refilled
+         * @return the manager of the shared buckets
+         */
+        @Bean
+        public LettuceBasedProxyManager rateLimitProxyManager(
+            RedisAsyncCommands<byte[], byte[]> redisCommands,
+            @Value("${parser.rate-limit.refill-period}") Duration refillPeriod) {
+            return LettuceBasedProxyManager.builderFor(redisCommands)
+                .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(refillPeriod))
+                .build();
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package org.si.news.parser.service.configuration;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -10,6 +12,7 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import reactor.kafka.receiver.KafkaReceiver;
 import reactor.kafka.receiver.ReceiverOptions;
 import reactor.kafka.sender.KafkaSender;
@@ -23,9 +26,17 @@ import reactor.kafka.sender.SenderOptions;
  * It includes the necessary properties for consuming and producing messages
  * to Kafka topics, as well as creating the required KafkaReceiver and KafkaSender beans.
  */
+@Slf4j
 @Configuration
 public class ReactiveKafkaConfig {
 
+    private static final String ACKS_ALL = "all";
+
+    /**
+     * The most requests per connection an idempotent producer keeps in flight while preserving order.
+     */
+    private static final int IDEMPOTENT_MAX_IN_FLIGHT_REQUESTS = 5;
+
     @Value("${spring.kafka.pss.bootstrap-servers}")
     private String pssBootstrapServers;
 
@@ -35,14 +46,71 @@ public class ReactiveKafkaConfig {
     @Value("${spring.kafka.pss.news-links.consumer-group}")
     private String pssGroupId;
 
+    @Value("${spring.kafka.pss.link-status.topic}")
+    private String pssLinkStatusTopic;
+
+    /**
+     * The maximum number of links returned by a poll, which bounds the links buffered ahead of processing.
+     */
+    @Value("${spring.kafka.pss.consumer.max-poll-records}")
+    private int pssMaxPollRecords;
+
+    /**
+     * How often the offsets of the processed links are committed.
+     */
+    @Value("${spring.kafka.pss.consumer.commit-interval}")
+    private Duration pssCommitInterval;
+
+    /**
+     * The number of processed links after which their offsets are committed before the commit interval elapses.
+     */
+    @Value("${spring.kafka.pss.consumer.commit-batch-size}")
+    private int pssCommitBatchSize;
+
+    /**
+     * How long a rebalance is delayed for the links already received to be processed and committed.
+     */
+    @Value("${spring.kafka.pss.consumer.drain-timeout}")
+    private Duration pssDrainTimeout;
+
     @Value("${spring.kafka.nps.bootstrap-servers}")
     private String npsBootstrapServers;
 
     @Value("${spring.kafka.nps.raw-news.topic}")
     private String npsTopic;
 
+    /**
+     * How long the producer waits for more raw news to fill a batch before sending it.
+     */
+    @Value("${spring.kafka.nps.producer.linger-ms}")
+    private int npsLingerMs;
+
+    /**
+     * The maximum size of a batch of raw news per partition, in bytes.
+     */
+    @Value("${spring.kafka.nps.producer.batch-size}")
+    private int npsBatchSize;
+
+    /**
+     * The compression of the batches of raw news: {@code zstd}, {@code lz4}, {@code snappy}, {@code gzip}
+     * or {@code none}.
+     */
+    @Value("${spring.kafka.nps.producer.compression-type}")
+    private String npsCompressionType;
+
+    /**
+     * The maximum number of raw news sent and not yet acknowledged by the sender.
+     */
+    @Value("${spring.kafka.nps.producer.max-in-flight}")
+    private int npsMaxInFlight;
+
     /**
      * Configures the ReceiverOptions bean for Kafka consumer.
+     * <p>
+     * Offsets of the processed links are committed in batches, every commit interval or commit batch size links,
+     * rather than one by one. When partitions are revoked, the rebalance waits up to the drain timeout for the
+     * links already received to be processed, committing their offsets meanwhile, so the next owner of
+     * the partitions does not fetch them again.
      *
      * @return ReceiverOptions instance with Kafka consumer configurations.
      */
@@ -54,9 +122,16 @@ public class ReactiveKafkaConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, pssGroupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, pssMaxPollRecords);
 
         return ReceiverOptions.<String, String>create(props)
-                .subscription(Collections.singleton(pssTopic));
+                .subscription(Collections.singleton(pssTopic))
+                .commitInterval(pssCommitInterval)
+                .commitBatchSize(pssCommitBatchSize)
+                .maxDelayRebalance(pssDrainTimeout)
+                .addAssignListener(partitions -> log.info("Assigned news links partitions: {}", partitions))
+                .addRevokeListener(partitions -> log.info("Revoked news links partitions: {}", partitions));
     }
 
     /**
@@ -72,6 +147,10 @@ public class ReactiveKafkaConfig {
 
     /**
      * Configures the SenderOptions bean for Kafka producer.
+     * <p>
+     * The producer is idempotent, so retries after a lost acknowledgement neither duplicate nor reorder raw news,
+     * and batches the records of all parsers with a configurable linger, batch size and compression.
+     * A record that cannot be sent does not stop the sender; its failure is reported in its result.
      *
      * @return SenderOptions instance with Kafka producer configurations.
      */
@@ -81,9 +160,16 @@ public class ReactiveKafkaConfig {
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, npsBootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ACKS_CONFIG, ACKS_ALL);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, IDEMPOTENT_MAX_IN_FLIGHT_REQUESTS);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, npsLingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, npsBatchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, npsCompressionType);
 
-        return SenderOptions.create(props);
+        return SenderOptions.<String, String>create(props)
+            .maxInFlight(npsMaxInFlight)
+            .stopOnError(false);
     }
 
     /**
@@ -93,7 +179,24 @@ public class ReactiveKafkaConfig {
      * @return KafkaSender instance for producing messages.
      */
     @Bean
+    @Primary
     public KafkaSender<String, String> kafkaSender(SenderOptions<String, String> senderOptions) {
         return KafkaSender.create(senderOptions);
     }
+
+    /**
+     * Creates a KafkaSender bean for reporting link statuses to the scheduler's Kafka cluster.
+     *
+     * @return KafkaSender instance for producing messages to the link status topic.
+     */
+    @Bean
+    public KafkaSender<String, String> linkStatusKafkaSender() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, pssBootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, ACKS_ALL);
+
+        return KafkaSender.create(SenderOptions.create(props));
+    }
 }
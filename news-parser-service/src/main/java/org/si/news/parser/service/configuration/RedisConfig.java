@@ -0,0 +1,85 @@
+package org.si.news.parser.service.configuration;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * Configuration class for the connection to the Redis instance shared by the parser instances. It is active
+ * only if the rate limits or the deduplication filter are shared through Redis.
+ * <p>
+ * The parser keeps its keys in a database of its own: the Redis instance may be the one of the scheduler,
+ * and the scheduler must not find the rate limit buckets or the deduplication filter among its links.
+ */
+@Configuration
+@ConditionalOnExpression("'${parser.rate-limit.mode}' == 'redis' or '${parser.dedup.mode}' == 'redis'")
+public class RedisConfig {
+
+    /**
+     * How long to wait after a failed attempt to connect before the next one.
+     */
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    /**
+     * The host of the Redis instance.
+     */
+    @Value("${parser.redis.host}")
+    private String redisHost;
+
+    /**
+     * The port of the Redis instance.
+     */
+    @Value("${parser.redis.port}")
+    private int redisPort;
+
+    /**
+     * The database the keys of the parser are kept in.
+     */
+    @Value("${parser.redis.database}")
+    private int redisDatabase;
+
+    /**
+     * Creates the Redis client.
+     *
+     * @return the client, shut down with the application context
+     */
+    @Bean(destroyMethod = "shutdown")
+    public RedisClient redisClient() {
+        return RedisClient.create();
+    }
+
+    /**
+     * Starts connecting to Redis in the background, so the parser starts even if Redis is down. Lettuce
+     * connections are thread-safe and pipeline the commands of all callers.
+     *
+     * @param redisClient the Redis client
+     * @return the connection, closed with the application context
+     */
+    @Bean(destroyMethod = "close")
+    public BackgroundRedisConnection redisConnection(RedisClient redisClient) {
+        return new BackgroundRedisConnection(redisClient, RedisURI.builder()
+            .withHost(redisHost)
+            .withPort(redisPort)
+            .withDatabase(redisDatabase)
+            .build(), RECONNECT_DELAY, Clock.systemUTC());
+    }
+
+    /**
+     * Returns the commands shared state is read and updated through. While Redis cannot be reached, they fail
+     * at once and the rate limits and the deduplication fall back to letting requests and articles through.
+     *
+     * @param redisConnection the connection to Redis
+     * @return the commands
+     */
+    @Bean
+    public RedisAsyncCommands<byte[], byte[]> redisCommands(BackgroundRedisConnection redisConnection) {
+        return redisConnection.commands();
+    }
+}
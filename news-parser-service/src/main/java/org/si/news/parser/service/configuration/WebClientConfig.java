@@ -1,32 +1,177 @@
 package org.si.news.parser.service.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.si.news.parser.service.client.ConditionalRequestFilter;
+import org.si.news.parser.service.client.HostConcurrencyFilter;
+import org.si.news.parser.service.client.RateLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 
 /**
  * Configuration class for setting up a WebClient bean.
  * The WebClient is used for making HTTP requests in a reactive way.
- * This configuration also adds logging for the requests made through WebClient.
+ * This configuration also adds logging for the requests made through WebClient
+ * and makes GET requests conditional, see {@link ConditionalRequestFilter}.
+ * <p>
+ * Every host gets its own connection pool with bounded connections and pending acquisitions, and its own cap on
+ * the requests in flight, see {@link HostConcurrencyFilter}, so a slow source cannot starve the others.
+ * HTTP/2 is negotiated with the hosts that support it. The rate of requests to every host is limited as well,
+ * see {@link RateLimitFilter}.
  */
 @Slf4j
 @Configuration
 public class WebClientConfig {
 
+    private static final String POOL_NAME = "parsers";
+    private static final int HTTP_PORT = 80;
+    private static final int HTTPS_PORT = 443;
+
+    /**
+     * The maximum number of connections to, and requests in flight to, a host without its own limit.
+     */
+    @Value("${parser.http.max-connections-per-host}")
+    private int maxConnectionsPerHost;
+
+    /**
+     * Hosts with their own limit of connections and requests in flight, as {@code host=limit} entries.
+     */
+    @Value("${parser.http.host-max-connections}")
+    private List<String> hostMaxConnections;
+
+    /**
+     * The maximum number of requests waiting for a connection or a slot of a host.
+     */
+    @Value("${parser.http.max-pending-per-host}")
+    private int maxPendingPerHost;
+
+    /**
+     * How long a request waits for a connection of a host before failing.
+     */
+    @Value("${parser.http.pending-acquire-timeout}")
+    private Duration pendingAcquireTimeout;
+
+    /**
+     * How long an idle connection is kept.
+     */
+    @Value("${parser.http.max-idle-time}")
+    private Duration maxIdleTime;
+
+    /**
+     * How long a connection is used at most, so hosts behind changing addresses are reconnected.
+     */
+    @Value("${parser.http.max-life-time}")
+    private Duration maxLifeTime;
+
+    /**
+     * The interval at which idle and expired connections are evicted in the background.
+     */
+    @Value("${parser.http.eviction-interval}")
+    private Duration evictionInterval;
+
+    /**
+     * Whether HTTP/2 is offered to secure hosts. HTTP/1.1 is used with hosts that do not accept it.
+     */
+    @Value("${parser.http.http2-enabled}")
+    private boolean http2Enabled;
+
+    /**
+     * How long establishing a connection may take.
+     */
+    @Value("${parser.http.connect-timeout}")
+    private Duration connectTimeout;
+
+    /**
+     * How long a response may take to start arriving and how long the response may pause afterwards.
+     */
+    @Value("${parser.http.response-timeout}")
+    private Duration responseTimeout;
+
+    /**
+     * Creates the connection provider. Reactor Netty keeps a separate pool per host; the pool metrics are
+     * exposed as the {@code reactor.netty.connection.provider.*} gauges.
+     *
+     * @return the connection provider, disposed with the application context
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider connectionProvider() {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(POOL_NAME)
+            .maxConnections(maxConnectionsPerHost)
+            .pendingAcquireMaxCount(maxPendingPerHost)
+            .pendingAcquireTimeout(pendingAcquireTimeout)
+            .maxIdleTime(maxIdleTime)
+            .maxLifeTime(maxLifeTime)
+            .evictInBackground(evictionInterval)
+            .metrics(true);
+        hostLimits().forEach((host, limit) -> {
+            builder.forRemoteHost(InetSocketAddress.createUnresolved(host, HTTP_PORT),
+                spec -> spec.maxConnections(limit));
+            builder.forRemoteHost(InetSocketAddress.createUnresolved(host, HTTPS_PORT),
+                spec -> spec.maxConnections(limit));
+        });
+        return builder.build();
+    }
+
+    /**
+     * Creates the filter bounding the requests in flight to every host.
+     *
+     * @param meterRegistry the registry the per-host meters are registered in
+     * @return the filter
+     */
+    @Bean
+    public HostConcurrencyFilter hostConcurrencyFilter(MeterRegistry meterRegistry) {
+        return new HostConcurrencyFilter(meterRegistry, maxConnectionsPerHost, hostLimits(), maxPendingPerHost);
+    }
+
     /**
      * Creates and configures a WebClient bean.
-     * This WebClient is configured with a filter that logs the URL of every request.
+     * This WebClient is configured with a filter that logs the URL of every request at DEBUG level,
+     * a filter that limits the rate of requests to every host,
+     * a filter that skips feeds which did not change since the last poll
+     * and a filter that bounds the requests in flight to every host.
      *
+     * @param rateLimitFilter the filter limiting the rate of requests to every host
+     * @param conditionalRequestFilter the filter making GET requests conditional
+     * @param hostConcurrencyFilter the filter bounding the requests in flight to every host
+     * @param connectionProvider the connection provider
      * @return the configured WebClient bean
      */
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(RateLimitFilter rateLimitFilter,
+                               ConditionalRequestFilter conditionalRequestFilter,
+                               HostConcurrencyFilter hostConcurrencyFilter,
+                               ConnectionProvider connectionProvider) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+            .responseTimeout(responseTimeout)
+            .protocol(http2Enabled
+                ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11}
+                : new HttpProtocol[] {HttpProtocol.HTTP11});
         return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
             .filter((request, next) -> {
-                log.info("Request: {}", request.url());
+                log.debug("Request: {}", request.url());
                 return next.exchange(request);
-            }).build();
+            })
+            .filter(rateLimitFilter)
+            .filter(conditionalRequestFilter)
+            .filter(hostConcurrencyFilter)
+            .build();
+    }
+
+    private Map<String, Integer> hostLimits() {
+        return HostLimits.parse(hostMaxConnections, "parser.http.host-max-connections");
     }
 }
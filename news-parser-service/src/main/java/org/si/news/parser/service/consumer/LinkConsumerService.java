@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.si.news.parser.service.dto.LinkDto;
 import org.si.news.parser.service.service.LinkProcessingService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import reactor.kafka.receiver.KafkaReceiver;
@@ -14,11 +15,16 @@ import reactor.kafka.receiver.ReceiverRecord;
 
 /**
  * Service for consuming Kafka messages containing links, processing them,
- * and acknowledging the offset after successful processing.
+ * and acknowledging the offset after processing.
  * <p>
  * This service listens to Kafka messages, deserializes them into LinkDto objects,
- * processes the links, and acknowledges the offset for successful processing.
- * If there are errors during deserialization or processing, they are logged appropriately.
+ * processes the links, and acknowledges the offset once the link is processed.
+ * Partitions are spread over a fixed number of lanes: the links of a lane are processed one after another,
+ * so the links of a partition keep their order, while the lanes run in parallel. At most as many links as
+ * there are lanes are processed at once, and the receiver stops polling while the lanes are busy, so a backlog
+ * on the links topic does not turn into an unbounded number of fetches. The acknowledged offsets are committed
+ * in batches by the receiver, see {@link org.si.news.parser.service.configuration.ReactiveKafkaConfig}.
+ * If there are errors during deserialization or processing, they are logged and the link is skipped.
  */
 @Slf4j
 @Service
@@ -29,22 +35,40 @@ public class LinkConsumerService {
     private final LinkProcessingService linkProcessingService;
     private final ObjectMapper objectMapper;
 
+    /**
+     * The number of links processed in parallel.
+     */
+    @Value("${spring.kafka.pss.consumer.concurrency}")
+    private int concurrency;
+
     /**
      * Starts consuming Kafka messages once the service is initialized.
-     * It subscribes to the Kafka consumer and processes each message.
+     * It subscribes to the Kafka consumer and processes the messages of every lane in order.
      */
     @PostConstruct
     public void startConsuming() {
         kafkaReceiver.receive()
-            .flatMap(this::processMessage)
+            .groupBy(this::lane)
+            .flatMap(lane -> lane.concatMap(this::processMessage), concurrency)
             .doOnError(error -> log.error("Kafka Consumer Error", error))
             .subscribe();
     }
 
+    /**
+     * Returns the lane of a message: all messages of a partition go to the same lane.
+     *
+     * @param message the received Kafka message
+     * @return the lane, less than the concurrency
+     */
+    private int lane(ReceiverRecord<String, String> message) {
+        return Math.floorMod(message.partition(), concurrency);
+    }
+
     /**
      * Processes each Kafka message, deserializes it into a LinkDto,
      * and delegates the processing to LinkProcessingService.
-     * If processing is successful, the message offset is acknowledged.
+     * Once processing is done, successfully or not, the message offset is acknowledged,
+     * so a failing link does not hold back the offsets of its partition; the scheduler sends it again.
      *
      * @param message the received Kafka message containing the link message
      * @return a Mono that completes when the processing is done
@@ -52,13 +76,19 @@ public class LinkConsumerService {
     private Mono<Void> processMessage(ReceiverRecord<String, String> message) {
         log.info("Received Kafka message: key={}", message.key());
 
+        return Mono.defer(() -> linkProcessingService.processLink(readLink(message)))
+            .onErrorResume(error -> {
+                log.error("Failed to process Kafka message: key={}, error={}", message.key(), error.getMessage());
+                return Mono.empty();
+            })
+            .doOnTerminate(() -> message.receiverOffset().acknowledge());
+    }
+
+    private LinkDto readLink(ReceiverRecord<String, String> message) {
         try {
-            LinkDto linkDto = objectMapper.readValue(message.value(), LinkDto.class);
-            return linkProcessingService.processLink(linkDto)
-                .doOnSuccess(success -> message.receiverOffset().acknowledge());
+            return objectMapper.readValue(message.value(), LinkDto.class);
         } catch (JsonProcessingException e) {
-            log.error("Error parsing Kafka message: {}", message.value(), e);
-            return Mono.empty();
+            throw new IllegalArgumentException("Error parsing Kafka message: " + message.value(), e);
         }
     }
 }
@@ -0,0 +1,134 @@
+package org.si.news.parser.service.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.si.news.parser.service.dto.ArticleDto;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Drops articles that were already sent, whatever their publication time says: the same headline polled again
+ * after a clock skew or a redelivered link is recognized by its source and normalized title.
+ * <p>
+ * Articles are kept in a rotating Bloom filter, see {@link BloomFilterStore}, so the memory is bounded and
+ * a new article is mistaken for a sent one with a small, measurable probability. The filter is exposed as
+ * the {@code parser.dedup.fill-ratio} and the estimated {@code parser.dedup.false-positive-rate} gauges,
+ * the checked and dropped articles as the {@code parser.dedup.checked} and {@code parser.dedup.duplicates}
+ * counters. If the store fails, articles are treated as new.
+ */
+@Slf4j
+public class ArticleDeduplicator {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String WORD_SEPARATOR = " ";
+    private static final char KEY_SEPARATOR = '\n';
+
+    private final BloomFilterStore store;
+    private final BloomFilterSpec spec;
+    private final AtomicLong setBits = new AtomicLong();
+    private final Counter checked;
+    private final Counter duplicates;
+
+    /**
+     * Creates the deduplicator.
+     *
+     * @param store the storage of the filter
+     * @param spec the size of the filter
+     * @param meterRegistry the registry the meters of the filter are registered in
+     */
+    public ArticleDeduplicator(BloomFilterStore store, BloomFilterSpec spec, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.spec = spec;
+        Gauge.builder("parser.dedup.fill-ratio", setBits, bits -> (double) bits.get() / spec.bits())
+            .description("Share of the bits set in the current generation of the deduplication filter")
+            .register(meterRegistry);
+        Gauge.builder("parser.dedup.false-positive-rate", setBits, bits -> spec.falsePositiveRate(bits.get()))
+            .description("Estimated probability that a new article is dropped as a duplicate")
+            .register(meterRegistry);
+        this.checked = Counter.builder("parser.dedup.checked")
+            .description("Articles checked for duplicates")
+            .register(meterRegistry);
+        this.duplicates = Counter.builder("parser.dedup.duplicates")
+            .description("Articles dropped as duplicates")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether an article was not sent yet.
+     *
+     * @param url the URL of the link the article was parsed from
+     * @param article the article
+     * @return a Mono of {@code false} if the article was probably sent already
+     */
+    public Mono<Boolean> isNew(String url, ArticleDto article) {
+        return store.mightContain(positions(url, article))
+            .onErrorResume(error -> {
+                log.warn("Deduplication filter is unavailable, treating the article as new: {}", error.getMessage());
+                return Mono.just(false);
+            })
+            .map(contained -> {
+                checked.increment();
+                if (contained) {
+                    duplicates.increment();
+                    log.info("Dropped duplicate article: {}", article);
+                }
+                return !contained;
+            });
+    }
+
+    /**
+     * Remembers a sent article.
+     *
+     * @param url the URL of the link the article was parsed from
+     * @param article the article
+     * @return a Mono completing once the article is remembered; failures are logged and ignored
+     */
+    public Mono<Void> remember(String url, ArticleDto article) {
+        return store.put(positions(url, article))
+            .doOnNext(setBits::set)
+            .onErrorResume(error -> {
+                log.warn("Failed to remember article {}: {}", article, error.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private long[] positions(String url, ArticleDto article) {
+        return spec.positions(digest(source(url) + KEY_SEPARATOR + normalize(article.title())));
+    }
+
+    /**
+     * Returns the source of a link: its host, so the feeds of a site share the articles they list.
+     */
+    private static String source(String url) {
+        String host = URI.create(url).getHost();
+        return host == null ? url : host.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalizes a title, so headlines differing only in case, punctuation or spacing are the same article.
+     */
+    static String normalize(String title) {
+        String normalized = Normalizer.normalize(title, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return NON_WORD.matcher(normalized).replaceAll(WORD_SEPARATOR).trim();
+    }
+
+    private static byte[] digest(String key) {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.si.news.parser.service.dedup;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Size of a Bloom filter and the positions of its keys. The filter is sized for the expected number of keys and
+ * a target false-positive rate; the positions of a key are derived from a 128-bit digest by double hashing.
+ *
+ * @param bits the number of bits of the filter, a multiple of 64
+ * @param hashes the number of positions set per key
+ */
+public record BloomFilterSpec(long bits, int hashes) {
+
+    private static final double LN_2 = Math.log(2);
+
+    /**
+     * Sizes a filter.
+     *
+     * @param expectedKeys the number of keys the filter holds before its false-positive rate exceeds the target
+     * @param falsePositiveRate the target false-positive rate, between 0 and 1
+     * @return the size of the filter
+     * @throws IllegalArgumentException if the arguments are out of range
+     */
+    public static BloomFilterSpec of(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Bloom filter needs expected keys > 0 and a false-positive rate "
+                + "between 0 and 1, got " + expectedKeys + " and " + falsePositiveRate);
+        }
+        long optimalBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (LN_2 * LN_2));
+        long bits = Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE) * Long.SIZE;
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedKeys * LN_2));
+        return new BloomFilterSpec(bits, hashes);
+    }
+
+    /**
+     * Returns the positions of a key.
+     *
+     * @param digest the digest of the key, at least 16 bytes long
+     * @return the bit positions of the key
+     */
+    public long[] positions(byte[] digest) {
+        ByteBuffer buffer = ByteBuffer.wrap(digest);
+        long first = buffer.getLong();
+        long second = buffer.getLong();
+        long[] positions = new long[hashes];
+        for (int i = 0; i < hashes; i++) {
+            positions[i] = Math.floorMod(first + i * second, bits);
+        }
+        return positions;
+    }
+
+    /**
+     * Estimates the false-positive rate of a filter with the given number of set bits.
+     *
+     * @param setBits the number of set bits
+     * @return the probability that a key not in the filter is reported as contained
+     */
+    public double falsePositiveRate(long setBits) {
+        return Math.pow((double) setBits / bits, hashes);
+    }
+}
@@ -0,0 +1,28 @@
+package org.si.news.parser.service.dedup;
+
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Storage of a rotating Bloom filter. Keys are added to the generation of the current rotation interval and looked
+ * up in the current and the previous generations, so a key is remembered for one to two intervals and the memory
+ * of the filter is bounded by two generations.
+ */
+public interface BloomFilterStore {
+
+    /**
+     * Returns whether a key may have been added in the current or the previous generation.
+     *
+     * @param positions the bit positions of the key
+     * @return a Mono of {@code true} if all positions are set in one of the generations
+     */
+    Mono<Boolean> mightContain(long[] positions);
+
+    /**
+     * Adds a key to the current generation.
+     *
+     * @param positions the bit positions of the key
+     * @return a Mono of the number of bits set in the current generation after the key is added
+     */
+    Mono<Long> put(long[] positions);
+}
@@ -0,0 +1,118 @@
+package org.si.news.parser.service.dedup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Rotating Bloom filter kept in the memory of this instance. Two bit arrays of the size of the filter are allocated
+ * once and swapped on rotation; bits are set with compare-and-set, so lookups and insertions do not lock.
+ */
+public class LocalBloomFilterStore implements BloomFilterStore {
+
+    private static final int WORD_SHIFT = 6;
+
+    private final Clock clock;
+    private final long rotationMillis;
+    private final AtomicLong setBits = new AtomicLong();
+
+    private volatile long generation;
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+
+    /**
+     * Creates the store.
+     *
+     * @param spec the size of the filter
+     * @param rotationInterval how long a generation of the filter takes keys
+     * @param clock the clock the generations are derived from
+     */
+    public LocalBloomFilterStore(BloomFilterSpec spec, Duration rotationInterval, Clock clock) {
+        int words = Math.toIntExact(spec.bits() >>> WORD_SHIFT);
+        this.clock = clock;
+        this.rotationMillis = rotationInterval.toMillis();
+        this.generation = clock.millis() / rotationMillis;
+        this.current = new AtomicLongArray(words);
+        this.previous = new AtomicLongArray(words);
+    }
+
+    @Override
+    public Mono<Boolean> mightContain(long[] positions) {
+        return Mono.fromSupplier(() -> {
+            rotateIfDue();
+            return contains(current, positions) || contains(previous, positions);
+        });
+    }
+
+    @Override
+    public Mono<Long> put(long[] positions) {
+        return Mono.fromSupplier(() -> {
+            rotateIfDue();
+            AtomicLongArray words = current;
+            for (long position : positions) {
+                if (set(words, position)) {
+                    setBits.incrementAndGet();
+                }
+            }
+            return setBits.get();
+        });
+    }
+
+    private void rotateIfDue() {
+        long now = clock.millis() / rotationMillis;
+        if (now != generation) {
+            rotate(now);
+        }
+    }
+
+    /**
+     * Starts a new generation, reusing the array of the generation before the previous one.
+     * After a pause longer than a rotation interval both generations are cleared.
+     */
+    private synchronized void rotate(long now) {
+        if (now == generation) {
+            return;
+        }
+        AtomicLongArray reused = previous;
+        clear(reused);
+        if (now == generation + 1) {
+            previous = current;
+        } else {
+            clear(current);
+        }
+        current = reused;
+        setBits.set(0);
+        generation = now;
+    }
+
+    private static boolean contains(AtomicLongArray words, long[] positions) {
+        for (long position : positions) {
+            if ((words.get((int) (position >>> WORD_SHIFT)) & 1L << position) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean set(AtomicLongArray words, long position) {
+        int index = (int) (position >>> WORD_SHIFT);
+        long mask = 1L << position;
+        long word = words.get(index);
+        while ((word & mask) == 0) {
+            if (words.compareAndSet(index, word, word | mask)) {
+                return true;
+            }
+            word = words.get(index);
+        }
+        return false;
+    }
+
+    private static void clear(AtomicLongArray words) {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0L);
+        }
+    }
+}
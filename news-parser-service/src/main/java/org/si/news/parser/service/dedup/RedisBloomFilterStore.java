@@ -0,0 +1,112 @@
+package org.si.news.parser.service.dedup;
+
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Rotating Bloom filter shared by the instances through Redis bitmaps, so an article sent by one instance is not
+ * sent again by another. Every generation is a bitmap with a counter of its set bits; both expire once they are
+ * older than two rotation intervals. Lookups and insertions are Lua scripts, one round trip each.
+ * The keys are written to the database of the parser, see
+ * {@link org.si.news.parser.service.configuration.RedisConfig}, never to the one of the scheduler's links.
+ */
+public class RedisBloomFilterStore implements BloomFilterStore {
+
+    private static final String KEY_PREFIX = "parser:dedup:";
+    private static final String COUNTER_SUFFIX = ":bits";
+
+    /**
+     * Redis bitmaps hold at most 2^32 bits.
+     */
+    private static final long MAX_BITS = 1L << Integer.SIZE;
+
+    private static final String CONTAINS_SCRIPT = """
+        local current, previous = 1, 1
+        for i = 1, #ARGV do
+          if current == 1 and redis.call('GETBIT', KEYS[1], ARGV[i]) == 0 then current = 0 end
+          if previous == 1 and redis.call('GETBIT', KEYS[2], ARGV[i]) == 0 then previous = 0 end
+          if current == 0 and previous == 0 then return 0 end
+        end
+        return 1
+        """;
+
+    private static final String PUT_SCRIPT = """
+        local added = 0
+        for i = 2, #ARGV do
+          if redis.call('SETBIT', KEYS[1], ARGV[i], 1) == 0 then added = added + 1 end
+        end
+        local bits = redis.call('INCRBY', KEYS[2], added)
+        redis.call('PEXPIRE', KEYS[1], ARGV[1])
+        redis.call('PEXPIRE', KEYS[2], ARGV[1])
+        return bits
+        """;
+
+    private final RedisAsyncCommands<byte[], byte[]> commands;
+    private final Clock clock;
+    private final long rotationMillis;
+    private final byte[] ttlMillis;
+
+    /**
+     * Creates the store.
+     *
+     * @param commands the commands of the connection to Redis
+     * @param spec the size of the filter
+     * @param rotationInterval how long a generation of the filter takes keys
+     * @param clock the clock the generations are derived from
+     * @throws IllegalArgumentException if the filter does not fit a Redis bitmap
+     */
+    public RedisBloomFilterStore(RedisAsyncCommands<byte[], byte[]> commands, BloomFilterSpec spec,
+                                 Duration rotationInterval, Clock clock) {
+        if (spec.bits() > MAX_BITS) {
+            throw new IllegalArgumentException("Bloom filter of " + spec.bits() + " bits does not fit a Redis bitmap");
+        }
+        this.commands = commands;
+        this.clock = clock;
+        this.rotationMillis = rotationInterval.toMillis();
+        this.ttlMillis = ascii(2 * rotationMillis);
+    }
+
+    @Override
+    public Mono<Boolean> mightContain(long[] positions) {
+        return Mono.defer(() -> {
+            long generation = clock.millis() / rotationMillis;
+            byte[][] keys = {key(generation), key(generation - 1)};
+            byte[][] args = new byte[positions.length][];
+            for (int i = 0; i < positions.length; i++) {
+                args[i] = ascii(positions[i]);
+            }
+            return Mono.fromCompletionStage(commands.<Long>eval(CONTAINS_SCRIPT, ScriptOutputType.INTEGER, keys, args));
+        }).map(contained -> contained == 1L);
+    }
+
+    @Override
+    public Mono<Long> put(long[] positions) {
+        return Mono.defer(() -> {
+            long generation = clock.millis() / rotationMillis;
+            byte[][] keys = {key(generation), ascii(KEY_PREFIX + generation + COUNTER_SUFFIX)};
+            byte[][] args = new byte[positions.length + 1][];
+            args[0] = ttlMillis;
+            for (int i = 0; i < positions.length; i++) {
+                args[i + 1] = ascii(positions[i]);
+            }
+            return Mono.fromCompletionStage(commands.<Long>eval(PUT_SCRIPT, ScriptOutputType.INTEGER, keys, args));
+        });
+    }
+
+    private static byte[] key(long generation) {
+        return ascii(KEY_PREFIX + generation);
+    }
+
+    private static byte[] ascii(long value) {
+        return ascii(Long.toString(value));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,7 @@
+package org.si.news.parser.service.dto;
+
+/**
+ * Feedback reported to the parsing scheduler after a link has been processed.
+ * The number of new articles found lets the scheduler adapt the polling interval of the link.
+ */
+public record LinkStatusDto(String url, long newArticles) {}
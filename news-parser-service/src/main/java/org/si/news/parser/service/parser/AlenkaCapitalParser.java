@@ -1,6 +1,7 @@
 package org.si.news.parser.service.parser;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -11,15 +12,26 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
 import org.si.news.parser.service.dto.ArticleDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 
 /**
  * Parser for AlenkaCapital news site.
  * Extracts news articles and parses their title and publication date.
+ * <p>
+ * The page is fetched without blocking through the shared {@link WebClient}; its body is streamed into pooled
+ * buffers and the DOM is built on the parsing {@link Scheduler}, so a slow site never holds a Netty or Kafka thread.
  */
 @Slf4j
 @Component
@@ -27,6 +39,23 @@ import reactor.core.publisher.Mono;
 public class AlenkaCapitalParser implements NewsParser {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy, HH:mm");
+    private static final Evaluator NEWS_ITEM = QueryParser.parse("li.feed__item");
+    private static final Evaluator TITLE = QueryParser.parse("h2.feed__text a");
+    private static final Evaluator DATE = QueryParser.parse("time.feed__date");
+
+    private final WebClient webClient;
+    private final Scheduler parsingScheduler;
+
+    /**
+     * The maximum size of a fetched page. Larger pages are not parsed.
+     */
+    @Value("${parser.html.max-body-size}")
+    private DataSize maxBodySize;
+
+    @Override
+    public List<ParserRoute> routes() {
+        return List.of(ParserRoute.of("alenka.capital"));
+    }
 
     /**
      * Parses the news articles from the given URL and filters out articles
@@ -38,7 +67,7 @@ public class AlenkaCapitalParser implements NewsParser {
      */
     @Override
     public Flux<ArticleDto> parse(String url, LocalDateTime lastParsedTime) {
-        return Mono.fromCallable(() -> fetchNewsFromHtml(url))
+        return fetchNewsFromHtml(url)
             .flatMapMany(Flux::fromIterable)
             .filter(article -> article.publishedAt().isAfter(lastParsedTime))
             .doOnNext(article -> log.info("Parsed new article: {}", article))
@@ -47,33 +76,54 @@ public class AlenkaCapitalParser implements NewsParser {
 
     /**
      * Fetches and parses the news articles from the provided URL.
+     * A page that cannot be fetched yields no articles.
      *
      * @param url the URL to fetch the news from
-     * @return a list of {@link ArticleDto} parsed from the page
+     * @return a Mono of the list of {@link ArticleDto} parsed from the page
+     */
+    private Mono<List<ArticleDto>> fetchNewsFromHtml(String url) {
+        Flux<DataBuffer> body = webClient.get()
+            .uri(url)
+            .retrieve()
+            .bodyToFlux(DataBuffer.class);
+        return DataBufferUtils.join(body, Math.toIntExact(maxBodySize.toBytes()))
+            .publishOn(parsingScheduler)
+            .map(buffer -> {
+                try (InputStream html = buffer.asInputStream(true)) {
+                    return extractArticles(Jsoup.parse(html, null, url));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot read the page " + url, e);
+                }
+            })
+            .onErrorResume(error -> {
+                log.error("Failed to parse AlenkaCapital", error);
+                return Mono.just(List.of());
+            });
+    }
+
+    /**
+     * Extracts the news articles from a parsed page.
+     *
+     * @param doc the parsed page
+     * @return a list of {@link ArticleDto} found on the page
      */
-    private List<ArticleDto> fetchNewsFromHtml(String url) {
-        try {
-            Document doc = Jsoup.connect(url).get();
-            Elements newsItems = doc.select("li.feed__item");
+    private List<ArticleDto> extractArticles(Document doc) {
+        Elements newsItems = doc.select(NEWS_ITEM);
 
-            List<ArticleDto> articles = new ArrayList<>();
-            for (Element item : newsItems) {
-                String title = item.select("h2.feed__text a").text();
-                String dateStr = item.select("time.feed__date").text();
+        List<ArticleDto> articles = new ArrayList<>();
+        for (Element item : newsItems) {
+            String title = item.select(TITLE).text();
+            String dateStr = item.select(DATE).text();
 
-                if (!title.isEmpty() && !dateStr.isEmpty()) {
-                    try {
-                        LocalDateTime published = LocalDateTime.parse(dateStr, DATE_FORMATTER);
-                        articles.add(new ArticleDto(title, published));
-                    } catch (Exception e) {
-                        log.error("Error parsing date: {} for article: {}", dateStr, title);
-                    }
+            if (!title.isEmpty() && !dateStr.isEmpty()) {
+                try {
+                    LocalDateTime published = LocalDateTime.parse(dateStr, DATE_FORMATTER);
+                    articles.add(new ArticleDto(title, published));
+                } catch (Exception e) {
+                    log.error("Error parsing date: {} for article: {}", dateStr, title);
                 }
             }
-            return articles;
-        } catch (IOException e) {
-            log.error("Failed to parse AlenkaCapital", e);
-            return List.of();
         }
+        return articles;
     }
 }
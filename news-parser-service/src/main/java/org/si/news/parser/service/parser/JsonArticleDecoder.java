@@ -0,0 +1,178 @@
+package org.si.news.parser.service.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import org.si.news.parser.service.dto.ArticleDto;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+
+/**
+ * Decodes the articles of a JSON feed shaped as {@code {"items": [{...}, ...]}} token by token while its body
+ * arrives, without holding the body as a string or a tree. Every item yields an {@link ArticleDto} built from
+ * a title field and a publication time field in epoch seconds; other fields and nested values are skipped.
+ * Decoding stops at the end of the {@code items} array.
+ */
+final class JsonArticleDecoder implements AutoCloseable {
+
+    private static final String ITEMS_FIELD = "items";
+
+    /**
+     * Nesting depth of the items array: the root object is at depth 1.
+     */
+    private static final int ITEMS_DEPTH = 2;
+    private static final int ITEM_DEPTH = ITEMS_DEPTH + 1;
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final String titleField;
+    private final String publishedField;
+
+    private int depth;
+    private boolean inItems;
+    private boolean done;
+    private String field;
+    private String title;
+    private long published;
+
+    private JsonArticleDecoder(JsonFactory jsonFactory, String titleField, String publishedField) throws IOException {
+        this.parser = jsonFactory.createNonBlockingByteBufferParser();
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        this.titleField = titleField;
+        this.publishedField = publishedField;
+    }
+
+    /**
+     * Decodes the articles of a JSON feed body. Buffers are requested one at a time, so a cancelled decoding stops
+     * reading the body; buffers are released once read, and buffers arriving after the end of the items array or
+     * after cancellation are released unread.
+     *
+     * @param body the body of the feed
+     * @param jsonFactory the factory of the JSON parser
+     * @param titleField the item field holding the title of the article
+     * @param publishedField the item field holding the publication time of the article in epoch seconds
+     * @return a Flux of the articles in the order of the feed, failing with a {@link DecodingException}
+     *         if the body is not valid JSON
+     */
+    static Flux<ArticleDto> decode(Flux<DataBuffer> body, JsonFactory jsonFactory,
+                                   String titleField, String publishedField) {
+        return Flux.using(() -> new JsonArticleDecoder(jsonFactory, titleField, publishedField),
+                decoder -> body.concatMapIterable(decoder::feed, 1)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.finish()))),
+                JsonArticleDecoder::close)
+            .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    /**
+     * Reads the tokens of a body buffer and releases it.
+     *
+     * @param buffer the next buffer of the body
+     * @return the articles completed by this buffer
+     */
+    synchronized List<ArticleDto> feed(DataBuffer buffer) {
+        List<ArticleDto> articles = new ArrayList<>();
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext() && !done) {
+                feeder.feedInput(iterator.next());
+                readAvailable(articles);
+            }
+        } catch (IOException e) {
+            throw new DecodingException("Cannot decode the JSON feed", e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return articles;
+    }
+
+    /**
+     * Reads the tokens left once the body is complete.
+     *
+     * @return the articles completed by the end of the body
+     */
+    synchronized List<ArticleDto> finish() {
+        List<ArticleDto> articles = new ArrayList<>();
+        if (!done) {
+            feeder.endOfInput();
+            try {
+                readAvailable(articles);
+            } catch (IOException e) {
+                throw new DecodingException("The JSON feed is incomplete", e);
+            }
+        }
+        return articles;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            throw new DecodingException("Cannot close the JSON parser", e);
+        }
+    }
+
+    private void readAvailable(List<ArticleDto> articles) throws IOException {
+        JsonToken token = done ? null : parser.nextToken();
+        while (token != null && token != JsonToken.NOT_AVAILABLE) {
+            onToken(token, articles);
+            token = done ? null : parser.nextToken();
+        }
+    }
+
+    private void onToken(JsonToken token, List<ArticleDto> articles) throws IOException {
+        switch (token) {
+            case START_ARRAY -> {
+                depth++;
+                inItems = inItems || depth == ITEMS_DEPTH && ITEMS_FIELD.equals(field);
+            }
+            case START_OBJECT -> {
+                depth++;
+                if (inItems && depth == ITEM_DEPTH) {
+                    title = "";
+                    published = 0L;
+                }
+            }
+            case END_OBJECT -> {
+                if (inItems && depth == ITEM_DEPTH) {
+                    articles.add(toArticle());
+                }
+                depth--;
+            }
+            case END_ARRAY -> {
+                done = inItems && depth == ITEMS_DEPTH;
+                depth--;
+            }
+            case FIELD_NAME -> {
+                field = parser.currentName();
+            }
+            default -> readValue();
+        }
+    }
+
+    private void readValue() throws IOException {
+        if (inItems && depth == ITEM_DEPTH) {
+            if (titleField.equals(field)) {
+                title = parser.getValueAsString("");
+            } else if (publishedField.equals(field)) {
+                published = parser.getValueAsLong();
+            }
+        }
+    }
+
+    private ArticleDto toArticle() {
+        LocalDateTime publishedAt = Instant.ofEpochSecond(published)
+            .atZone(ZoneId.systemDefault())
+            .toLocalDateTime();
+        return new ArticleDto(title, publishedAt);
+    }
+}
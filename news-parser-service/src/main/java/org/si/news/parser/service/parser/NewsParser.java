@@ -1,6 +1,7 @@
 package org.si.news.parser.service.parser;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import org.si.news.parser.service.dto.ArticleDto;
 import reactor.core.publisher.Flux;
 
@@ -21,4 +22,12 @@ public interface NewsParser {
      * @return a Flux of {@link ArticleDto} containing the parsed news articles
      */
     Flux<ArticleDto> parse(String url, LocalDateTime lastParsedTime);
+
+    /**
+     * Returns the routes of the URLs this parser handles. {@link ParserFactory} uses them to pick the parser
+     * of a URL by its host and path.
+     *
+     * @return the routes of this parser
+     */
+    List<ParserRoute> routes();
 }
@@ -1,33 +1,67 @@
 package org.si.news.parser.service.parser;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 
 /**
  * Factory class to return the appropriate {@link NewsParser} based on the URL.
- * It holds a map of available parsers and uses URL matching to determine the correct one.
+ * <p>
+ * Parsers are discovered from all {@link NewsParser} beans and indexed by the domains of their
+ * {@link ParserRoute routes}. A URL is routed by its host: the host itself is looked up first, then its parent
+ * domains, so the most specific domain wins and the lookup costs a few map reads however many parsers there are.
+ * Among the routes of a domain, the one with the longest matching path prefix wins.
+ * The parser resolved for a URL is memoized, as the scheduler sends the same links over and over.
  */
+@Slf4j
 @Component
 public class ParserFactory {
 
-    private final Map<String, NewsParser> parserMap;
+    private static final char LABEL_SEPARATOR = '.';
+
+    private final List<NewsParser> parsers;
+    private final Cache<String, NewsParser> resolved;
+    private volatile Map<String, List<Route>> routesByDomain;
+
+    /**
+     * Constructor that indexes the routes of the available parsers.
+     *
+     * @param parsers all parsers
+     * @param maxCachedUrls the maximum number of URLs whose parser is memoized
+     * @throws IllegalStateException if two parsers declare the same route
+     */
+    public ParserFactory(List<NewsParser> parsers,
+                         @Value("${parser.routing.max-cached-urls}") long maxCachedUrls) {
+        this.parsers = List.copyOf(parsers);
+        this.resolved = Caffeine.newBuilder().maximumSize(maxCachedUrls).build();
+        this.routesByDomain = index(this.parsers);
+        log.info("Routing {} domains to {} parsers", routesByDomain.size(), parsers.size());
+    }
 
     /**
-     * Constructor that initializes the factory with available parsers.
+     * Replaces the parsers defined at runtime, such as the declarative parsers, keeping the parser beans.
+     * The new routes take effect for the next lookup; on a conflict the current routes are kept.
      *
-     * @param rbcParser RBC parser
-     * @param tradingViewParser TradingView parser
-     * @param alenkaCapitalParser Alenka Capital parser
+     * @param runtimeParsers the parsers defined at runtime
+     * @throws IllegalStateException if a route is declared by two parsers
      */
-    public ParserFactory(RBCParser rbcParser,
-                         TradingViewParser tradingViewParser,
-                         AlenkaCapitalParser alenkaCapitalParser) {
-        this.parserMap = Map.of(
-            "rbc", rbcParser,
-            "tradingview", tradingViewParser,
-            "alenka", alenkaCapitalParser
-        );
+    public synchronized void replaceRuntimeParsers(List<? extends NewsParser> runtimeParsers) {
+        List<NewsParser> all = new ArrayList<>(parsers);
+        all.addAll(runtimeParsers);
+        routesByDomain = index(all);
+        resolved.invalidateAll();
+        log.info("Routing {} domains to {} parsers, {} of them defined at runtime", routesByDomain.size(), all.size(),
+            runtimeParsers.size());
     }
 
     /**
@@ -36,13 +70,81 @@ public class ParserFactory {
      *
      * @param url the URL for which a parser is needed
      * @return the corresponding {@link NewsParser} instance
-     * @throws RuntimeException if no parser is found for the provided URL
+     * @throws IllegalArgumentException if no parser is found for the provided URL
      */
     public NewsParser getParser(String url) {
-        return parserMap.entrySet().stream()
-                .filter(entry -> url.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("No parser found for URL: " + url));
+        NewsParser parser = resolved.get(url, this::resolve);
+        if (parser == null) {
+            throw new IllegalArgumentException("No parser found for URL: " + url);
+        }
+        return parser;
+    }
+
+    /**
+     * Routes a URL by its host and path. Not found URLs are not memoized, so malformed links cannot evict the
+     * routes of the real ones.
+     *
+     * @param url the URL
+     * @return the parser of the URL, or {@code null} if no route matches it
+     */
+    private NewsParser resolve(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String host = uri.getHost();
+        if (host == null) {
+            return null;
+        }
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        String domain = host.toLowerCase(Locale.ROOT);
+        Map<String, List<Route>> index = routesByDomain;
+        NewsParser parser = null;
+        while (parser == null && domain != null) {
+            parser = match(index.get(domain), path);
+            int separator = domain.indexOf(LABEL_SEPARATOR);
+            domain = separator < 0 ? null : domain.substring(separator + 1);
+        }
+        return parser;
+    }
+
+    private static Map<String, List<Route>> index(List<NewsParser> parsers) {
+        Map<String, List<Route>> index = new HashMap<>();
+        for (NewsParser parser : parsers) {
+            for (ParserRoute route : parser.routes()) {
+                List<Route> routes = index.computeIfAbsent(route.domain(), domain -> new ArrayList<>());
+                routes.stream()
+                    .filter(existing -> existing.route().equals(route))
+                    .findAny()
+                    .ifPresent(existing -> {
+                        throw new IllegalStateException("Route " + route + " is declared by both "
+                            + existing.parser() + " and " + parser);
+                    });
+                routes.add(new Route(route, parser));
+            }
+        }
+        index.values().forEach(routes ->
+            routes.sort(Comparator.comparingInt((Route route) -> route.route().pathPrefix().length()).reversed()));
+        return index;
+    }
+
+    private static NewsParser match(List<Route> routes, String path) {
+        if (routes == null) {
+            return null;
+        }
+        for (Route route : routes) {
+            if (route.route().matches(path)) {
+                return route.parser();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A route together with the parser it leads to.
+     */
+    private record Route(ParserRoute route, NewsParser parser) {
     }
 }
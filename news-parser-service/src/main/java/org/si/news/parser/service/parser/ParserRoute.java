@@ -0,0 +1,49 @@
+package org.si.news.parser.service.parser;
+
+import java.util.Locale;
+
+
+/**
+ * A rule routing the URLs of a domain, and optionally of a path under it, to a {@link NewsParser}.
+ * The domain matches the host itself and all of its subdomains, so {@code rbc.ru} matches {@code www.rbc.ru}.
+ *
+ * @param domain the host or registrable domain, in lower case
+ * @param pathPrefix the prefix the path of the URL must start with; empty to match every path
+ */
+public record ParserRoute(String domain, String pathPrefix) {
+
+    private static final String PATH_SEPARATOR = "/";
+
+    /**
+     * Creates the route, normalizing the domain to lower case.
+     *
+     * @param domain the host or registrable domain
+     * @param pathPrefix the prefix the path of the URL must start with; empty to match every path
+     */
+    public ParserRoute {
+        domain = domain.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses a route written as {@code domain} or {@code domain/path-prefix}.
+     *
+     * @param route the route
+     * @return the parsed route
+     */
+    public static ParserRoute of(String route) {
+        int separator = route.indexOf(PATH_SEPARATOR);
+        return separator < 0
+            ? new ParserRoute(route, "")
+            : new ParserRoute(route.substring(0, separator), route.substring(separator));
+    }
+
+    /**
+     * Returns whether the path of a URL of the domain matches this route.
+     *
+     * @param path the path of the URL
+     * @return {@code true} if the path starts with the prefix of the route
+     */
+    boolean matches(String path) {
+        return path.startsWith(pathPrefix);
+    }
+}
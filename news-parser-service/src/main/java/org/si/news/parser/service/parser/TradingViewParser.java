@@ -1,13 +1,13 @@
 package org.si.news.parser.service.parser;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.si.news.parser.service.dto.ArticleDto;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -27,6 +27,11 @@ public class TradingViewParser implements NewsParser {
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
 
+    @Override
+    public List<ParserRoute> routes() {
+        return List.of(ParserRoute.of("tradingview.com"));
+    }
+
     /**
      * Fetches the news articles from the given URL and filters out articles published before the specified timestamp.
      *
@@ -50,39 +55,26 @@ public class TradingViewParser implements NewsParser {
                 headers.add("sec-fetch-site", "same-site");
             })
             .retrieve()
-            .bodyToMono(String.class)
-            .flatMapMany(jsonResponse -> parseJson(jsonResponse, lastParsedTime));
+            .bodyToFlux(DataBuffer.class)
+            .transform(body -> parseJson(body, lastParsedTime));
     }
 
     /**
-     * Parses the JSON response from TradingView into a Flux of {@link ArticleDto}.
-     * Filters out articles that were published before the given timestamp.
+     * Decodes the JSON response from TradingView into a Flux of {@link ArticleDto} while it arrives.
+     * The items are ordered newest first, so decoding stops at the first article published before the given
+     * timestamp and the rest of the response is not read.
      *
-     * @param jsonResponse the JSON response body as a string
+     * @param body the JSON response body
      * @param lastParsedTime the timestamp to filter articles
      * @return a Flux of parsed articles
      */
-    private Flux<ArticleDto> parseJson(String jsonResponse, LocalDateTime lastParsedTime) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-            JsonNode items = root.path("items");
-
-            return Flux.fromIterable(items)
-                .map(item -> {
-                    String title = item.path("title").asText();
-                    long timestamp = item.path("published").asLong();
-                    LocalDateTime published = Instant.ofEpochSecond(timestamp)
-                        .atZone(ZoneId.systemDefault())
-                        .toLocalDateTime();
-
-                    return new ArticleDto(title, published);
-                })
-                .filter(article -> article.publishedAt().isAfter(lastParsedTime))
-                .doOnNext(article -> log.info("Parsed new TradingView article: {}", article))
-                .doOnError(error -> log.error("Error while parsing TradingView response", error));
-        } catch (Exception e) {
-            log.error("Failed to parse TradingView response", e);
-            return Flux.empty();
-        }
+    private Flux<ArticleDto> parseJson(Flux<DataBuffer> body, LocalDateTime lastParsedTime) {
+        return JsonArticleDecoder.decode(body, objectMapper.getFactory(), "title", "published")
+            .takeWhile(article -> article.publishedAt().isAfter(lastParsedTime))
+            .doOnNext(article -> log.info("Parsed new TradingView article: {}", article))
+            .onErrorResume(DecodingException.class, error -> {
+                log.error("Failed to parse TradingView response", error);
+                return Flux.empty();
+            });
     }
 }
@@ -0,0 +1,24 @@
+package org.si.news.parser.service.parser.declarative;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.si.news.parser.service.dto.ArticleDto;
+
+
+/**
+ * Extracts the articles from a fetched body with the selectors of a parser definition, compiled once.
+ * Items without a title or with a publication time that cannot be read are skipped.
+ */
+interface ArticleExtractor {
+
+    /**
+     * Extracts the articles of a body.
+     *
+     * @param body the body of the response
+     * @param url the URL the body was fetched from
+     * @return the articles in the order of the body
+     * @throws IOException if the body cannot be read
+     */
+    List<ArticleDto> extract(InputStream body, String url) throws IOException;
+}
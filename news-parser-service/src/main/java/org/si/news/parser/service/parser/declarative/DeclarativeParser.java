@@ -0,0 +1,123 @@
+package org.si.news.parser.service.parser.declarative;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.si.news.parser.service.dto.ArticleDto;
+import org.si.news.parser.service.parser.NewsParser;
+import org.si.news.parser.service.parser.ParserRoute;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+
+/**
+ * News parser built from a {@link ParserDefinition}. The selectors of the definition are compiled once, when the
+ * definition is loaded, and reused for every fetched page.
+ * <p>
+ * Like the handwritten HTML parser, the body is streamed into pooled buffers through the shared {@link WebClient}
+ * and the articles are extracted on the parsing {@link Scheduler}.
+ */
+@Slf4j
+public final class DeclarativeParser implements NewsParser {
+
+    private final String name;
+    private final List<ParserRoute> routes;
+    private final Map<String, String> headers;
+    private final ArticleExtractor extractor;
+    private final WebClient webClient;
+    private final Scheduler parsingScheduler;
+    private final int maxBodySize;
+
+    private DeclarativeParser(ParserDefinition definition, ArticleExtractor extractor, WebClient webClient,
+                              Scheduler parsingScheduler, int maxBodySize) {
+        this.name = definition.name();
+        this.routes = definition.routes().stream().map(ParserRoute::of).toList();
+        this.headers = definition.headers() == null ? Map.of() : Map.copyOf(definition.headers());
+        this.extractor = extractor;
+        this.webClient = webClient;
+        this.parsingScheduler = parsingScheduler;
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * Compiles a parser definition.
+     *
+     * @param definition the parser definition
+     * @param webClient the client fetching the pages
+     * @param objectMapper the mapper reading JSON documents
+     * @param parsingScheduler the scheduler the articles are extracted on
+     * @param maxBodySize the maximum size of a fetched page; larger pages are not parsed
+     * @return the parser
+     * @throws IllegalArgumentException if the definition is incomplete or a selector, the date format or
+     *                                  the timestamp unit is invalid
+     */
+    public static DeclarativeParser compile(ParserDefinition definition, WebClient webClient,
+                                            ObjectMapper objectMapper, Scheduler parsingScheduler, int maxBodySize) {
+        if (definition.name() == null || definition.format() == null
+            || definition.routes() == null || definition.routes().isEmpty()) {
+            throw new IllegalArgumentException("Parser definition needs a name, a format and routes: " + definition);
+        }
+        try {
+            PublishedTime publishedTime = PublishedTime.of(definition);
+            ArticleExtractor extractor = switch (definition.format()) {
+                case JSON -> new JsonArticleExtractor(definition, objectMapper, publishedTime);
+                case HTML -> new HtmlArticleExtractor(definition, publishedTime);
+            };
+            return new DeclarativeParser(definition, extractor, webClient, parsingScheduler, maxBodySize);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid parser definition " + definition.name() + ": "
+                + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<ParserRoute> routes() {
+        return routes;
+    }
+
+    /**
+     * Fetches the page of the given URL and extracts the articles published after the given timestamp.
+     * A page that cannot be fetched or read yields no articles.
+     *
+     * @param url the URL to fetch the news from
+     * @param lastParsedTime the timestamp to filter articles that were published after it
+     * @return a Flux of {@link ArticleDto} containing the parsed articles
+     */
+    @Override
+    public Flux<ArticleDto> parse(String url, LocalDateTime lastParsedTime) {
+        Flux<DataBuffer> body = webClient.get()
+            .uri(url)
+            .headers(requestHeaders -> headers.forEach(requestHeaders::add))
+            .retrieve()
+            .bodyToFlux(DataBuffer.class);
+        return DataBufferUtils.join(body, maxBodySize)
+            .publishOn(parsingScheduler)
+            .map(buffer -> {
+                try (InputStream page = buffer.asInputStream(true)) {
+                    return extractor.extract(page, url);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot read the page " + url, e);
+                }
+            })
+            .onErrorResume(error -> {
+                log.error("Failed to parse {}", name, error);
+                return Mono.just(List.of());
+            })
+            .flatMapIterable(articles -> articles)
+            .filter(article -> article.publishedAt().isAfter(lastParsedTime))
+            .doOnNext(article -> log.info("Parsed new {} article: {}", name, article));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,112 @@
+package org.si.news.parser.service.parser.declarative;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.si.news.parser.service.parser.ParserFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+
+
+/**
+ * Loads the declarative parser definitions, compiles them into {@link DeclarativeParser}s and registers them in
+ * the {@link ParserFactory}. The definitions file is checked for changes periodically and reloaded without
+ * a restart; a file that cannot be read or compiled is rejected as a whole and the current parsers are kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeclarativeParserLoader {
+
+    private static final TypeReference<List<ParserDefinition>> DEFINITIONS_TYPE = new TypeReference<>() {
+    };
+
+    private final ParserFactory parserFactory;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final Scheduler parsingScheduler;
+    private final ResourceLoader resourceLoader;
+
+    /**
+     * The location of the parser definitions file, such as {@code file:/etc/news-parser/parsers.json}.
+     */
+    @Value("${parser.definitions.location}")
+    private String location;
+
+    /**
+     * The maximum size of a fetched page. Larger pages are not parsed.
+     */
+    @Value("${parser.html.max-body-size}")
+    private DataSize maxBodySize;
+
+    private long lastModified = -1L;
+
+    /**
+     * Loads the definitions on startup. Invalid definitions fail the startup.
+     */
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * Reloads the definitions if the file changed since it was last loaded.
+     */
+    @Scheduled(fixedDelayString = "${parser.definitions.reload-interval-ms}")
+    public void reloadIfModified() {
+        if (lastModified(resourceLoader.getResource(location)) == lastModified) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Failed to reload parser definitions from {}, keeping the current parsers", location, e);
+        }
+    }
+
+    /**
+     * Loads and compiles the definitions and replaces the declarative parsers with them.
+     *
+     * @return the number of loaded parsers
+     * @throws IllegalStateException if the file cannot be read or two parsers declare the same route
+     * @throws IllegalArgumentException if a definition is invalid
+     */
+    public synchronized int reload() {
+        Resource resource = resourceLoader.getResource(location);
+        long modified = lastModified(resource);
+        List<ParserDefinition> definitions;
+        try (InputStream input = resource.getInputStream()) {
+            definitions = objectMapper.readValue(input, DEFINITIONS_TYPE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read parser definitions from " + location, e);
+        }
+        int bodySize = Math.toIntExact(maxBodySize.toBytes());
+        List<DeclarativeParser> parsers = definitions.stream()
+            .map(definition -> DeclarativeParser.compile(definition, webClient, objectMapper, parsingScheduler,
+                bodySize))
+            .toList();
+        parserFactory.replaceRuntimeParsers(parsers);
+        lastModified = modified;
+        log.info("Loaded {} parser definitions from {}", parsers.size(), location);
+        return parsers.size();
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
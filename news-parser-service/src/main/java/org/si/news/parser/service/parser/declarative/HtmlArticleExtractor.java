@@ -0,0 +1,77 @@
+package org.si.news.parser.service.parser.declarative;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+import org.si.news.parser.service.dto.ArticleDto;
+
+
+/**
+ * Extracts the articles of an HTML page with CSS selectors compiled once into Jsoup {@link Evaluator}s.
+ */
+@Slf4j
+final class HtmlArticleExtractor implements ArticleExtractor {
+
+    private final String name;
+    private final Evaluator items;
+    private final Evaluator title;
+    private final Evaluator published;
+    private final String publishedAttribute;
+    private final PublishedTime publishedTime;
+
+    /**
+     * Compiles the selectors of a definition.
+     *
+     * @param definition the parser definition
+     * @param publishedTime the converter of the publication times of the source
+     * @throws IllegalArgumentException if a selector is invalid
+     */
+    HtmlArticleExtractor(ParserDefinition definition, PublishedTime publishedTime) {
+        this.name = definition.name();
+        this.items = compile(definition.items());
+        this.title = compile(definition.title());
+        this.published = compile(definition.published());
+        this.publishedAttribute = definition.publishedAttribute();
+        this.publishedTime = publishedTime;
+    }
+
+    @Override
+    public List<ArticleDto> extract(InputStream body, String url) throws IOException {
+        Document document = Jsoup.parse(body, null, url);
+        List<ArticleDto> articles = new ArrayList<>();
+        for (Element item : document.select(items)) {
+            String itemTitle = item.select(title).text();
+            String itemPublished = publishedAttribute == null
+                ? item.select(published).text()
+                : item.select(published).attr(publishedAttribute);
+            if (!itemTitle.isEmpty() && !itemPublished.isEmpty()) {
+                try {
+                    articles.add(new ArticleDto(itemTitle, publishedTime.parse(itemPublished)));
+                } catch (DateTimeException | NumberFormatException e) {
+                    log.error("Error parsing date of {}: {} for article: {}", name, itemPublished, itemTitle);
+                }
+            }
+        }
+        return articles;
+    }
+
+    private static Evaluator compile(String selector) {
+        if (selector == null) {
+            throw new IllegalArgumentException("Missing CSS selector");
+        }
+        try {
+            return QueryParser.parse(selector);
+        } catch (Selector.SelectorParseException e) {
+            throw new IllegalArgumentException("Invalid CSS selector: " + selector, e);
+        }
+    }
+}
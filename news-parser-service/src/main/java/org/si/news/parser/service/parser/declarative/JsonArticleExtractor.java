@@ -0,0 +1,73 @@
+package org.si.news.parser.service.parser.declarative;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.si.news.parser.service.dto.ArticleDto;
+
+
+/**
+ * Extracts the articles of a JSON document with JSON pointers compiled once.
+ */
+@Slf4j
+final class JsonArticleExtractor implements ArticleExtractor {
+
+    private final String name;
+    private final ObjectMapper objectMapper;
+    private final JsonPointer items;
+    private final JsonPointer title;
+    private final JsonPointer published;
+    private final PublishedTime publishedTime;
+
+    /**
+     * Compiles the pointers of a definition.
+     *
+     * @param definition the parser definition
+     * @param objectMapper the mapper reading the documents
+     * @param publishedTime the converter of the publication times of the source
+     * @throws IllegalArgumentException if a pointer is invalid
+     */
+    JsonArticleExtractor(ParserDefinition definition, ObjectMapper objectMapper, PublishedTime publishedTime) {
+        this.name = definition.name();
+        this.objectMapper = objectMapper;
+        this.items = compile(definition.items());
+        this.title = compile(definition.title());
+        this.published = compile(definition.published());
+        this.publishedTime = publishedTime;
+    }
+
+    @Override
+    public List<ArticleDto> extract(InputStream body, String url) throws IOException {
+        JsonNode document = objectMapper.readTree(body);
+        List<ArticleDto> articles = new ArrayList<>();
+        for (JsonNode item : document.at(items)) {
+            String itemTitle = item.at(title).asText("");
+            JsonNode itemPublished = item.at(published);
+            if (!itemTitle.isEmpty() && !itemPublished.isMissingNode() && !itemPublished.isNull()) {
+                try {
+                    LocalDateTime publishedAt = itemPublished.isNumber()
+                        ? publishedTime.fromTimestamp(itemPublished.asLong())
+                        : publishedTime.parse(itemPublished.asText());
+                    articles.add(new ArticleDto(itemTitle, publishedAt));
+                } catch (DateTimeException | NumberFormatException e) {
+                    log.error("Error parsing date of {}: {} for article: {}", name, itemPublished, itemTitle);
+                }
+            }
+        }
+        return articles;
+    }
+
+    private static JsonPointer compile(String pointer) {
+        if (pointer == null) {
+            throw new IllegalArgumentException("Missing JSON pointer");
+        }
+        return JsonPointer.compile(pointer);
+    }
+}
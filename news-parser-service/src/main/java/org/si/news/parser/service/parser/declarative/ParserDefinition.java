@@ -0,0 +1,49 @@
+package org.si.news.parser.service.parser.declarative;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Declarative definition of a news parser, read from the parser definitions file.
+ * The selectors are JSON pointers for {@link Format#JSON} sources and CSS selectors for {@link Format#HTML} ones;
+ * the title and publication time selectors are relative to an item.
+ *
+ * @param name the name of the source, used in logs
+ * @param routes the routes of the URLs the parser handles, as {@code domain} or {@code domain/path-prefix}
+ * @param format the format of the fetched body
+ * @param items the selector of the items of the feed
+ * @param title the selector of the title of an item
+ * @param published the selector of the publication time of an item
+ * @param publishedAttribute the attribute holding the publication time in the selected HTML element; if not set,
+ *                           the text of the element is used
+ * @param dateFormat the {@link java.time.format.DateTimeFormatter} pattern of a textual publication time; if not set,
+ *                   the publication time is a timestamp in {@code timestampUnit} since the epoch
+ * @param locale the language tag of the locale of {@code dateFormat}, such as {@code ru}; English by default
+ * @param timestampUnit the unit of a numeric publication time; {@code SECONDS} by default
+ * @param headers additional headers of the requests to the source
+ */
+public record ParserDefinition(String name,
+                               List<String> routes,
+                               Format format,
+                               String items,
+                               String title,
+                               String published,
+                               String publishedAttribute,
+                               String dateFormat,
+                               String locale,
+                               ChronoUnit timestampUnit,
+                               Map<String, String> headers) {
+
+    /**
+     * The format of the body of a source.
+     */
+    public enum Format {
+        @JsonProperty("json")
+        JSON,
+        @JsonProperty("html")
+        HTML
+    }
+}
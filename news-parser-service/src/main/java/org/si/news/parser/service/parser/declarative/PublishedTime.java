@@ -0,0 +1,77 @@
+package org.si.news.parser.service.parser.declarative;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+
+
+/**
+ * Converts the publication time of an item into a local date-time, either by a date format or from a timestamp.
+ * The formatter is built once per definition.
+ */
+final class PublishedTime {
+
+    private final DateTimeFormatter formatter;
+    private final ChronoUnit timestampUnit;
+
+    private PublishedTime(DateTimeFormatter formatter, ChronoUnit timestampUnit) {
+        this.formatter = formatter;
+        this.timestampUnit = timestampUnit;
+    }
+
+    /**
+     * Compiles the publication time settings of a definition.
+     *
+     * @param definition the parser definition
+     * @return the converter of the publication times of the source
+     * @throws IllegalArgumentException if the date format or the timestamp unit is invalid
+     */
+    static PublishedTime of(ParserDefinition definition) {
+        ChronoUnit unit = definition.timestampUnit() == null ? ChronoUnit.SECONDS : definition.timestampUnit();
+        if (!unit.isTimeBased()) {
+            throw new IllegalArgumentException("Timestamp unit of " + definition.name() + " is not time based: "
+                + unit);
+        }
+        if (definition.dateFormat() == null) {
+            return new PublishedTime(null, unit);
+        }
+        Locale locale = definition.locale() == null ? Locale.ENGLISH : Locale.forLanguageTag(definition.locale());
+        return new PublishedTime(DateTimeFormatter.ofPattern(definition.dateFormat(), locale), unit);
+    }
+
+    /**
+     * Converts a textual publication time. Times with a zone or an offset are converted to the system zone.
+     *
+     * @param text the publication time
+     * @return the local publication time
+     * @throws DateTimeException if the text does not match the date format
+     * @throws NumberFormatException if the source has no date format and the text is not a timestamp
+     */
+    LocalDateTime parse(String text) {
+        if (formatter == null) {
+            return fromTimestamp(Long.parseLong(text.trim()));
+        }
+        TemporalAccessor parsed = formatter.parseBest(text.trim(), ZonedDateTime::from, LocalDateTime::from);
+        return parsed instanceof ZonedDateTime zoned
+            ? zoned.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()
+            : (LocalDateTime) parsed;
+    }
+
+    /**
+     * Converts a timestamp since the epoch.
+     *
+     * @param timestamp the timestamp in the unit of the source
+     * @return the local publication time
+     */
+    LocalDateTime fromTimestamp(long timestamp) {
+        return Instant.EPOCH.plus(timestamp, timestampUnit)
+            .atZone(ZoneId.systemDefault())
+            .toLocalDateTime();
+    }
+}
@@ -0,0 +1,67 @@
+package org.si.news.parser.service.producer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.si.news.parser.service.dto.LinkStatusDto;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+/**
+ * Service for reporting the status of processed links back to the parsing scheduler.
+ * <p>
+ * Statuses are sent to the link status topic of the scheduler's Kafka cluster, keyed by URL.
+ * Reporting is best effort: failures are logged and never fail the processing of the link.
+ */
+@Slf4j
+@Service
+public class LinkStatusProducerService {
+
+    private final KafkaSender<String, String> kafkaSender;
+    private final ObjectMapper objectMapper;
+
+    @Value("${spring.kafka.pss.link-status.topic}")
+    private String linkStatusTopic;
+
+    /**
+     * Creates the service.
+     *
+     * @param kafkaSender the sender connected to the scheduler's Kafka cluster
+     * @param objectMapper the mapper used to serialize statuses
+     */
+    public LinkStatusProducerService(@Qualifier("linkStatusKafkaSender") KafkaSender<String, String> kafkaSender,
+                                     ObjectMapper objectMapper) {
+        this.kafkaSender = kafkaSender;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Sends the status of a processed link to Kafka.
+     *
+     * @param status the status to report
+     * @return a Mono that completes when the status is sent or its sending failed
+     */
+    public Mono<Void> sendStatus(LinkStatusDto status) {
+        String jsonPayload;
+        try {
+            jsonPayload = objectMapper.writeValueAsString(status);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize link status: {}", status, e);
+            return Mono.empty();
+        }
+
+        return kafkaSender
+            .send(Mono.just(SenderRecord.create(new ProducerRecord<>(linkStatusTopic, status.url(), jsonPayload),
+                status.url())))
+            .doOnNext(result -> log.debug("Reported {} new articles for {}", status.newArticles(), status.url()))
+            .doOnError(error -> log.error("Failed to report link status: url={}, error={}",
+                status.url(), error.getMessage()))
+            .onErrorResume(error -> Mono.empty())
+            .then();
+    }
+}
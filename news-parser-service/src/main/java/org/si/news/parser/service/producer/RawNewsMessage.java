@@ -0,0 +1,12 @@
+package org.si.news.parser.service.producer;
+
+
+/**
+ * A raw news message to be sent to Kafka, with the object its send result is correlated to.
+ *
+ * @param key the key of the Kafka message
+ * @param payload the parsed news in JSON format
+ * @param correlation the object returned with the send result of the message, such as the article
+ * @param <T> the type of the correlated object
+ */
+public record RawNewsMessage<T>(String key, String payload, T correlation) {}
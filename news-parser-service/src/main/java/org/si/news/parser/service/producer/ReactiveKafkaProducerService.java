@@ -5,15 +5,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
 
 /**
  * Service for sending parsed news to Kafka.
  * <p>
  * This service handles sending messages to Kafka, logging the status of the message send operation,
- * and providing reactive backpressure handling via Reactor.
+ * and providing reactive backpressure handling via Reactor. Streams of messages are sent through one pipeline
+ * of the shared sender and their per-message results are returned as a stream.
  */
 @Slf4j
 @Service
@@ -25,23 +28,45 @@ public class ReactiveKafkaProducerService {
     @Value("${spring.kafka.nps.raw-news.topic}")
     private String rawNewsTopic;
 
+    /**
+     * Sends a stream of parsed news to Kafka through the shared sender.
+     * <p>
+     * All messages of the stream go through one send pipeline, so the producer batches them with the news of
+     * the other parsers instead of paying the per-message overhead. The result of every message is emitted in
+     * the order the results arrive; a message that cannot be sent yields a result with an exception and does not
+     * stop the stream.
+     *
+     * @param messages the messages to send
+     * @param <T> the type of the objects the results are correlated to
+     * @return a Flux of the send results, one per message
+     */
+    public <T> Flux<SenderResult<T>> sendAll(Flux<RawNewsMessage<T>> messages) {
+        return kafkaSender
+            .send(messages.map(message -> SenderRecord.create(
+                new ProducerRecord<>(rawNewsTopic, message.key(), message.payload()), message.correlation())))
+            .doOnNext(result -> {
+                if (result.exception() == null) {
+                    log.debug("Sent to Kafka: topic={}, partition={}, offset={}", rawNewsTopic,
+                        result.recordMetadata().partition(), result.recordMetadata().offset());
+                } else {
+                    log.error("Failed to send Kafka message: {}, error={}", result.correlationMetadata(),
+                        result.exception().getMessage());
+                }
+            });
+    }
+
     /**
      * Sends a parsed news payload to Kafka.
      * <p>
-     * This method sends the message to the specified Kafka topic and logs success or failure.
-     * In case of failure, the error is logged.
+     * This method sends a single message, see {@link #sendAll(Flux)} for sending many.
      *
      * @param key the key of the Kafka message
      * @param jsonPayload the parsed news in JSON format to be sent to Kafka
      * @return a Mono that completes when the message is sent or fails
      */
     public Mono<Void> sendToKafka(String key, String jsonPayload) {
-        log.info("Sending parsed news to Kafka: key={}", key);
-
-        return kafkaSender
-            .send(Mono.just(SenderRecord.create(new ProducerRecord<>(rawNewsTopic, key, jsonPayload), key)))
-            .doOnNext(result -> log.info("Successfully sent to Kafka: key={}, topic={}", key, rawNewsTopic))
-            .doOnError(error -> log.error("Failed to send Kafka message: key={}, error={}", key, error.getMessage()))
+        return sendAll(Flux.just(new RawNewsMessage<>(key, jsonPayload, key)))
+            .flatMap(result -> result.exception() == null ? Mono.empty() : Mono.error(result.exception()))
             .then();
     }
 
@@ -4,9 +4,14 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.si.news.parser.service.client.ConditionalRequestFilter;
+import org.si.news.parser.service.dedup.ArticleDeduplicator;
 import org.si.news.parser.service.dto.ArticleDto;
 import org.si.news.parser.service.dto.LinkDto;
+import org.si.news.parser.service.dto.LinkStatusDto;
 import org.si.news.parser.service.parser.ParserFactory;
+import org.si.news.parser.service.producer.LinkStatusProducerService;
+import org.si.news.parser.service.producer.RawNewsMessage;
 import org.si.news.parser.service.producer.ReactiveKafkaProducerService;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -26,9 +31,21 @@ public class LinkProcessingService {
     private final ParserFactory parserFactory;
     private final ReactiveKafkaProducerService kafkaProducerService;
     private final ObjectMapper objectMapper;
+    private final LinkStatusProducerService linkStatusProducerService;
+    private final ArticleDeduplicator articleDeduplicator;
+    private final ConditionalRequestFilter conditionalRequestFilter;
 
     /**
      * Processes the link by parsing the content and sending it to Kafka.
+     * Articles that were already sent are dropped before sending, see {@link ArticleDeduplicator};
+     * an article is remembered only once it is sent, so an unsent article is never mistaken for a duplicate.
+     * The articles of the link are sent as one stream, so a feed returning hundreds of new items is batched
+     * by the producer. Once all articles are sent, the number of new articles is reported to the scheduler,
+     * which adapts the polling interval of the link to it. If any article cannot be sent, nothing is reported
+     * and the returned Mono fails. The unsent articles are not retried: the scheduler has already moved the
+     * "lastParsedTime" of the link to this dispatch, so the next poll only looks for newer articles.
+     * The validators of the responses, see {@link ConditionalRequestFilter}, are committed only once all articles
+     * are sent, so they always describe a response whose articles were delivered.
      *
      * @param linkDtoJson the DTO containing the URL of the link to process
      * @return a Mono that indicates completion of the operation
@@ -36,11 +53,23 @@ public class LinkProcessingService {
     public Mono<Void> processLink(LinkDto linkDtoJson) {
         log.info("Processing link: {}", linkDtoJson.url());
 
-        return parserFactory.getParser(linkDtoJson.url())
+        ConditionalRequestFilter.ValidatorBatch validatorBatch = conditionalRequestFilter.newBatch();
+        Flux<RawNewsMessage<ArticleDto>> messages = parserFactory.getParser(linkDtoJson.url())
             .parse(linkDtoJson.url(), linkDtoJson.lastParsedTime())
-            .flatMap(this::sendToKafka)
-            .doOnError(error -> log.error("Failed to process link: {}", linkDtoJson.url(), error))
-            .then();
+            .contextWrite(validatorBatch::bind)
+            .filterWhen(article -> articleDeduplicator.isNew(linkDtoJson.url(), article))
+            .concatMap(this::toMessage);
+        return kafkaProducerService.sendAll(messages)
+            .concatMap(result -> result.exception() == null
+                ? articleDeduplicator.remember(linkDtoJson.url(), result.correlationMetadata()).thenReturn(true)
+                : Mono.just(false))
+            .reduce(new SendCount(0, 0), SendCount::add)
+            .flatMap(count -> count.failed() == 0
+                ? Mono.fromRunnable(validatorBatch::commit)
+                    .then(linkStatusProducerService.sendStatus(new LinkStatusDto(linkDtoJson.url(), count.sent())))
+                : Mono.error(new IllegalStateException("Failed to send " + count.failed() + " of "
+                    + (count.sent() + count.failed()) + " articles to Kafka")))
+            .doOnError(error -> log.error("Failed to process link: {}", linkDtoJson.url(), error));
     }
 
     /**
@@ -58,18 +87,28 @@ public class LinkProcessingService {
     }
 
     /**
-     * Sends a parsed article to Kafka.
+     * Serializes a parsed article into a message for Kafka.
      *
      * @param article the article to be sent
-     * @return a Mono that completes when the message is sent or failed
+     * @return a Mono of the message, or an error if the article cannot be serialized
      */
-    private Mono<Void> sendToKafka(ArticleDto article) {
+    private Mono<RawNewsMessage<ArticleDto>> toMessage(ArticleDto article) {
         try {
             String jsonPayload = objectMapper.writeValueAsString(article);
-            return kafkaProducerService.sendToKafka(article.title(), jsonPayload);
+            return Mono.just(new RawNewsMessage<>(article.title(), jsonPayload, article));
         } catch (JsonProcessingException e) {
             log.error("Failed to serialize article: {}", article, e);
             return Mono.error(e);
         }
     }
+
+    /**
+     * The number of articles of a link sent and failed to send.
+     */
+    private record SendCount(long sent, long failed) {
+
+        private SendCount add(boolean success) {
+            return success ? new SendCount(sent + 1, failed) : new SendCount(sent, failed + 1);
+        }
+    }
 }
@@ -0,0 +1,174 @@
+package org.si.news.parser.service.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.si.news.parser.service.dto.ArticleDto;
+import org.si.news.parser.service.parser.RBCParser;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConditionalRequestFilterTest {
+
+    private static final String URL = "https://www.rbc.ru/search/ajax/?tag=Ozon&project=rbcnews&page=0";
+    private static final String FEED = "{\"items\": [{\"title\": \"Новость\", \"publish_date_t\": 1767261600}]}";
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+    private ConditionalRequestFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ConditionalRequestFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxEntries", 100L);
+        ReflectionTestUtils.setField(filter, "ttl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(filter, "maxHashedBodySize", DataSize.ofKilobytes(64));
+        filter.init();
+    }
+
+    /**
+     * Сервер-заглушка: запоминает запросы и отвечает так, как решит переданная функция.
+     */
+    private WebClient webClient(Function<ClientRequest, ClientResponse> server) {
+        return WebClient.builder()
+            .exchangeFunction(request -> {
+                requests.add(request);
+                return Mono.just(server.apply(request));
+            })
+            .filter(filter)
+            .build();
+    }
+
+    private static ClientResponse ok(String body, String header, String value) {
+        ClientResponse.Builder response = ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body(body);
+        return header == null ? response.build() : response.header(header, value).build();
+    }
+
+    private HttpStatusCode fetch(WebClient webClient) {
+        ConditionalRequestFilter.ValidatorBatch batch = filter.newBatch();
+        HttpStatusCode status = webClient.get().uri(URL).retrieve().toBodilessEntity()
+            .map(entity -> entity.getStatusCode())
+            .contextWrite(batch::bind)
+            .block();
+        batch.commit();
+        return status;
+    }
+
+    /**
+     * Разбирает ссылку так же, как сервис обработки: валидаторы сохраняются только после успешного разбора.
+     */
+    private Flux<ArticleDto> parse(RBCParser parser, LocalDateTime lastParsedTime) {
+        ConditionalRequestFilter.ValidatorBatch batch = filter.newBatch();
+        return parser.parse(URL, lastParsedTime)
+            .contextWrite(batch::bind)
+            .doOnComplete(batch::commit);
+    }
+
+    @Test
+    void testETagIsSentBack() {
+        WebClient webClient = webClient(request -> "\"v1\"".equals(request.headers().getFirst(HttpHeaders.IF_NONE_MATCH))
+            ? ClientResponse.create(HttpStatus.NOT_MODIFIED).build()
+            : ok(FEED, HttpHeaders.ETAG, "\"v1\""));
+
+        // Первый запрос безусловный, второй передает ETag и получает 304
+        assertEquals(HttpStatus.OK, fetch(webClient));
+        assertEquals(HttpStatus.NOT_MODIFIED, fetch(webClient));
+        assertNull(requests.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void testLastModifiedIsSentBack() {
+        String lastModified = "Thu, 01 Jan 2026 10:00:00 GMT";
+        WebClient webClient = webClient(request -> ok(FEED, HttpHeaders.LAST_MODIFIED, lastModified));
+
+        // Дата Last-Modified возвращается серверу без изменений
+        fetch(webClient);
+        fetch(webClient);
+        assertEquals(lastModified, requests.get(1).headers().getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+        assertNull(requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void testUnchangedBodyIsNotParsed() {
+        List<String> bodies = new ArrayList<>(List.of(FEED, FEED, FEED.replace("Новость", "Другая новость")));
+        RBCParser parser = new RBCParser(webClient(request -> ok(bodies.remove(0), null, null)), new ObjectMapper());
+        LocalDateTime lastParsedTime = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        // Без валидаторов сравнивается хеш тела: повтор того же тела не доходит до разбора
+        StepVerifier.create(parse(parser, lastParsedTime)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(parse(parser, lastParsedTime)).verifyComplete();
+        StepVerifier.create(parse(parser, lastParsedTime)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void testNotModifiedResponseIsNotParsed() {
+        RBCParser parser = new RBCParser(webClient(request -> request.headers().containsKey(HttpHeaders.IF_NONE_MATCH)
+            ? ClientResponse.create(HttpStatus.NOT_MODIFIED).build()
+            : ok(FEED, HttpHeaders.ETAG, "W/\"v1\"")), new ObjectMapper());
+        LocalDateTime lastParsedTime = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        // Ответ 304 дает пустой результат без ошибки
+        StepVerifier.create(parse(parser, lastParsedTime)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(parse(parser, lastParsedTime)).verifyComplete();
+        assertEquals("W/\"v1\"", requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void testErrorsAreNotCached() {
+        WebClient webClient = webClient(request -> ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.ETAG, "\"error\"")
+            .build());
+
+        // Валидаторы неуспешных ответов не сохраняются
+        StepVerifier.create(webClient.get().uri(URL).retrieve().toBodilessEntity()).expectError().verify();
+        StepVerifier.create(webClient.get().uri(URL).retrieve().toBodilessEntity()).expectError().verify();
+        assertNull(requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void testValidatorsOfFailedProcessingAreDropped() {
+        WebClient webClient = webClient(request -> request.headers().containsKey(HttpHeaders.IF_NONE_MATCH)
+            ? ClientResponse.create(HttpStatus.NOT_MODIFIED).build()
+            : ok(FEED, HttpHeaders.ETAG, "\"v1\""));
+
+        // Обработка ссылки не завершилась: пакет валидаторов не зафиксирован, следующий запрос безусловный
+        webClient.get().uri(URL).retrieve().toBodilessEntity().contextWrite(filter.newBatch()::bind).block();
+        assertEquals(HttpStatus.OK, fetch(webClient));
+        assertNull(requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+
+        // После успешной обработки валидаторы используются
+        assertEquals(HttpStatus.NOT_MODIFIED, fetch(webClient));
+    }
+
+    @Test
+    void testOversizedBodyIsStreamed() {
+        ReflectionTestUtils.setField(filter, "maxHashedBodySize", DataSize.ofBytes(16));
+        RBCParser parser = new RBCParser(webClient(request -> ok(FEED, null, null)), new ObjectMapper());
+        LocalDateTime lastParsedTime = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        // Тело больше предела хеширования не сравнивается, а целиком доходит до разбора
+        StepVerifier.create(parse(parser, lastParsedTime)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(parse(parser, lastParsedTime)).expectNextCount(1).verifyComplete();
+    }
+}
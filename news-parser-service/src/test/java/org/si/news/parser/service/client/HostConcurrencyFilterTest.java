@@ -0,0 +1,114 @@
+package org.si.news.parser.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HostConcurrencyFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HostConcurrencyFilter filter = new HostConcurrencyFilter(meterRegistry, 2,
+        Map.of("fast.example", 4), 3);
+
+    /**
+     * Ответы сервера-заглушки: каждый запрос ждет, пока тест не завершит его вручную.
+     */
+    private final List<Sinks.One<ClientResponse>> responses = new ArrayList<>();
+
+    private final WebClient webClient = WebClient.builder()
+        .exchangeFunction(request -> {
+            Sinks.One<ClientResponse> response = Sinks.one();
+            responses.add(response);
+            return response.asMono();
+        })
+        .filter(filter)
+        .build();
+
+    private Disposable fetch(String host, List<Object> results) {
+        return webClient.get().uri("https://" + host + "/news").retrieve().bodyToMono(String.class)
+            .subscribe(results::add, results::add);
+    }
+
+    private double gauge(String name, String host) {
+        return meterRegistry.get(name).tag("host", host).gauge().value();
+    }
+
+    private void respond(int index) {
+        responses.get(index).tryEmitValue(ClientResponse.create(HttpStatus.OK).body("ok").build());
+    }
+
+    @Test
+    void testRequestsOverLimitWait() {
+        List<Object> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            fetch("slow.example", results);
+        }
+
+        // Одновременно выполняются два запроса, три ждут в очереди, а шестой отклоняется
+        assertEquals(2, responses.size());
+        assertEquals(2, gauge("parser.http.host.in-flight", "slow.example"));
+        assertEquals(3, gauge("parser.http.host.pending", "slow.example"));
+        assertEquals(1, results.size());
+        assertInstanceOf(HostBusyException.class, results.get(0));
+        assertEquals(1, meterRegistry.get("parser.http.host.rejected").tag("host", "slow.example").counter().count());
+
+        // Каждый прочитанный ответ освобождает место для следующего запроса из очереди
+        respond(0);
+        assertEquals(3, responses.size());
+        respond(1);
+        respond(2);
+        respond(3);
+        respond(4);
+        assertEquals(5, responses.size());
+        assertEquals(6, results.size());
+        assertEquals(0, gauge("parser.http.host.in-flight", "slow.example"));
+        assertEquals(0, gauge("parser.http.host.pending", "slow.example"));
+    }
+
+    @Test
+    void testSlowHostDoesNotBlockOthers() {
+        List<Object> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            fetch("slow.example", results);
+        }
+
+        // Запросы к другому хосту не ждут медленный хост и используют собственный лимит
+        AtomicInteger before = new AtomicInteger(responses.size());
+        for (int i = 0; i < 4; i++) {
+            fetch("fast.example", results);
+        }
+        assertEquals(before.get() + 4, responses.size());
+        assertEquals(4, gauge("parser.http.host.in-flight", "fast.example"));
+    }
+
+    @Test
+    void testCancelledRequestsFreeTheirSlots() {
+        List<Object> results = new ArrayList<>();
+        Disposable first = fetch("slow.example", results);
+        fetch("slow.example", results);
+        Disposable waiting = fetch("slow.example", results);
+        fetch("slow.example", results);
+
+        // Отмена ожидающего запроса убирает его из очереди
+        waiting.dispose();
+        assertEquals(1, gauge("parser.http.host.pending", "slow.example"));
+
+        // Отмена выполняющегося запроса отдает его место следующему в очереди
+        first.dispose();
+        assertEquals(3, responses.size());
+        assertEquals(2, gauge("parser.http.host.in-flight", "slow.example"));
+        assertEquals(0, gauge("parser.http.host.pending", "slow.example"));
+    }
+}
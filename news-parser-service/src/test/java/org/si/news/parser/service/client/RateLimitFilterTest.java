@@ -0,0 +1,151 @@
+package org.si.news.parser.service.client;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private static final Duration REFILL_PERIOD = Duration.ofMillis(200);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpStatus status = HttpStatus.OK;
+
+    private WebClient webClient(Duration maxWait) {
+        RateLimitFilter filter = new RateLimitFilter(meterRegistry,
+            host -> HostBucket.local(Bucket.builder()
+                .addLimit(Bandwidth.classic(2, Refill.intervally(2, REFILL_PERIOD)))
+                .build()),
+            maxWait, scheduler);
+        return WebClient.builder()
+            .exchangeFunction(request -> {
+                requests.incrementAndGet();
+                return Mono.just(ClientResponse.create(status).body("ok").build());
+            })
+            .filter(filter)
+            .build();
+    }
+
+    private Mono<String> fetch(WebClient webClient, String host) {
+        return webClient.get().uri("https://" + host + "/news").retrieve().bodyToMono(String.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testRequestsOverLimitWaitForRefill() {
+        WebClient webClient = webClient(Duration.ofSeconds(5));
+        // Прогрев клиента, чтобы его инициализация не съела период пополнения
+        fetch(webClient, "warmup.example").block();
+        fetch(webClient, "rbc.example").block();
+        fetch(webClient, "rbc.example").block();
+
+        // Третий запрос ждет пополнения корзины хоста, но укладывается в допустимое ожидание
+        long start = System.nanoTime();
+        assertEquals("ok", fetch(webClient, "rbc.example").block());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= REFILL_PERIOD.toMillis() / 2);
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    void testRequestsOverDeadlineAreRejected() {
+        WebClient webClient = webClient(Duration.ofMillis(10));
+        fetch(webClient, "rbc.example").block();
+        fetch(webClient, "rbc.example").block();
+
+        // Пополнения не дождаться за отведенное время, поэтому запрос отклоняется без обращения к хосту
+        StepVerifier.create(fetch(webClient, "rbc.example"))
+            .expectError(RateLimitExceededException.class)
+            .verify();
+        assertEquals(2, requests.get());
+        assertEquals(1, meterRegistry.get("parser.http.host.rate-limited").tag("host", "rbc.example")
+            .counter().count());
+
+        // У другого хоста своя корзина
+        assertEquals("ok", fetch(webClient, "tradingview.example").block());
+    }
+
+    @Test
+    void testTooManyRequestsDrainsBucket() {
+        WebClient webClient = webClient(Duration.ofMillis(10));
+        status = HttpStatus.TOO_MANY_REQUESTS;
+
+        // Ответ 429 забирает оставшиеся токены, и следующий запрос ждет пополнения
+        StepVerifier.create(fetch(webClient, "rbc.example"))
+            .expectError(WebClientResponseException.TooManyRequests.class)
+            .verify();
+        StepVerifier.create(fetch(webClient, "rbc.example"))
+            .expectError(RateLimitExceededException.class)
+            .verify();
+        assertEquals(1, requests.get());
+        assertEquals(1, meterRegistry.get("parser.http.host.too-many-requests").tag("host", "rbc.example")
+            .counter().count());
+    }
+
+    @Test
+    void testUnavailableBucketLetsRequestsThrough() {
+        RateLimitFilter filter = new RateLimitFilter(meterRegistry, host -> new HostBucket() {
+            @Override
+            public CompletableFuture<Boolean> tryConsume(Duration maxWait, ScheduledExecutorService scheduler) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Redis is down"));
+            }
+
+            @Override
+            public void drain() {
+            }
+        }, Duration.ofSeconds(1), scheduler);
+        WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK).body("ok").build()))
+            .filter(filter)
+            .build();
+
+        // Недоступность общего хранилища не останавливает парсинг
+        assertEquals("ok", fetch(webClient, "rbc.example").block());
+    }
+
+    @Test
+    void testUnreachableStoreDoesNotFailThrottledResponses() {
+        RateLimitFilter filter = new RateLimitFilter(meterRegistry, host -> new HostBucket() {
+            @Override
+            public CompletableFuture<Boolean> tryConsume(Duration maxWait, ScheduledExecutorService scheduler) {
+                throw new IllegalStateException("Not connected to Redis");
+            }
+
+            @Override
+            public void drain() {
+                throw new IllegalStateException("Not connected to Redis");
+            }
+        }, Duration.ofSeconds(1), scheduler);
+        WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS).build()))
+            .filter(filter)
+            .build();
+
+        // Хранилище недоступно с самого старта: запрос пропускается, а ответ 429 не подменяется ошибкой хранилища
+        StepVerifier.create(fetch(webClient, "rbc.example"))
+            .expectError(WebClientResponseException.TooManyRequests.class)
+            .verify();
+    }
+}
@@ -0,0 +1,78 @@
+package org.si.news.parser.service.configuration;
+
+import io.lettuce.core.ConnectionFuture;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackgroundRedisConnectionTest {
+
+    private static final RedisURI REDIS_URI = RedisURI.create("localhost", 6379);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+    private static final byte[] KEY = {1};
+
+    private final AtomicLong now = new AtomicLong();
+    private RedisClient redisClient;
+    private StatefulRedisConnection<byte[], byte[]> established;
+    private RedisAsyncCommands<byte[], byte[]> commands;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisClient = Mockito.mock(RedisClient.class);
+        established = Mockito.mock(StatefulRedisConnection.class);
+        commands = Mockito.mock(RedisAsyncCommands.class);
+        Mockito.when(established.async()).thenReturn(commands);
+    }
+
+    @Test
+    void testCommandsFailFastUntilConnected() {
+        // Первая попытка подключения неудачна: Redis недоступен при старте
+        Mockito.when(redisClient.connectAsync(ArgumentMatchers.eq(ByteArrayCodec.INSTANCE), ArgumentMatchers.eq(REDIS_URI)))
+            .thenReturn(future(CompletableFuture.failedFuture(new RedisConnectionException("Connection refused"))))
+            .thenReturn(future(CompletableFuture.completedFuture(established)));
+        BackgroundRedisConnection connection = new BackgroundRedisConnection(redisClient, REDIS_URI, RECONNECT_DELAY,
+            clock());
+        RedisAsyncCommands<byte[], byte[]> proxy = connection.commands();
+
+        // Команды сразу завершаются ошибкой, а повторное подключение ждет своей задержки
+        assertThrows(RedisConnectionException.class, () -> proxy.get(KEY));
+        Mockito.verify(redisClient, Mockito.times(1)).connectAsync(ByteArrayCodec.INSTANCE, REDIS_URI);
+
+        // По истечении задержки команда запускает новую попытку, и следующие команды идут в Redis
+        now.addAndGet(RECONNECT_DELAY.toMillis());
+        assertThrows(RedisConnectionException.class, () -> proxy.get(KEY));
+        proxy.get(KEY);
+        Mockito.verify(redisClient, Mockito.times(2)).connectAsync(ByteArrayCodec.INSTANCE, REDIS_URI);
+        Mockito.verify(commands).get(KEY);
+
+        connection.close();
+        Mockito.verify(established).close();
+    }
+
+    private Clock clock() {
+        Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.millis()).thenAnswer(invocation -> now.get());
+        return clock;
+    }
+
+    private static ConnectionFuture<StatefulRedisConnection<byte[], byte[]>> future(
+        CompletableFuture<StatefulRedisConnection<byte[], byte[]>> delegate) {
+        return ConnectionFuture.from(InetSocketAddress.createUnresolved("localhost", 6379), delegate);
+    }
+}
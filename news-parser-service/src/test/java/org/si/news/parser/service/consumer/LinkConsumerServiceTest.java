@@ -0,0 +1,130 @@
+package org.si.news.parser.service.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.si.news.parser.service.dto.LinkDto;
+import org.si.news.parser.service.service.LinkProcessingService;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class LinkConsumerServiceTest {
+
+    private static final String TOPIC = "news_links";
+
+    private final KafkaReceiver<String, String> kafkaReceiver = mock();
+    private final LinkProcessingService linkProcessingService = mock(LinkProcessingService.class);
+    private final List<String> acknowledged = new CopyOnWriteArrayList<>();
+    private CountDownLatch remaining;
+
+    private ReceiverRecord<String, String> message(int partition, long offset, String value) {
+        String key = partition + ":" + offset;
+        ReceiverOffset receiverOffset = new ReceiverOffset() {
+            @Override
+            public TopicPartition topicPartition() {
+                return new TopicPartition(TOPIC, partition);
+            }
+
+            @Override
+            public long offset() {
+                return offset;
+            }
+
+            @Override
+            public void acknowledge() {
+                acknowledged.add(key);
+                remaining.countDown();
+            }
+
+            @Override
+            public Mono<Void> commit() {
+                return Mono.empty();
+            }
+        };
+        return new ReceiverRecord<>(new ConsumerRecord<>(TOPIC, partition, offset, key, value), receiverOffset);
+    }
+
+    private static String link(String url) {
+        return "{\"url\":\"" + url + "\"}";
+    }
+
+    private void consume(List<ReceiverRecord<String, String>> messages, int concurrency) throws InterruptedException {
+        remaining = new CountDownLatch(messages.size());
+        when(kafkaReceiver.receive()).thenReturn(Flux.fromIterable(messages));
+        LinkConsumerService consumerService =
+            new LinkConsumerService(kafkaReceiver, linkProcessingService, new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(consumerService, "concurrency", concurrency);
+        consumerService.startConsuming();
+        assertTrue(remaining.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPartitionsKeepOrderWithinConcurrencyCap() throws InterruptedException {
+        // Подготовка: по четыре ссылки в трех партициях, обработка каждой занимает время
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Map<Integer, List<String>> processed = new ConcurrentHashMap<>();
+        when(linkProcessingService.processLink(any())).thenAnswer(invocation -> {
+            LinkDto linkDto = invocation.getArgument(0);
+            return Mono.delay(Duration.ofMillis(20))
+                .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                .doOnNext(tick -> processed
+                    .computeIfAbsent(Integer.parseInt(linkDto.url().split("/")[0]), p -> new CopyOnWriteArrayList<>())
+                    .add(linkDto.url()))
+                .doOnTerminate(inFlight::decrementAndGet)
+                .then();
+        });
+        List<ReceiverRecord<String, String>> messages = new ArrayList<>();
+        for (int offset = 0; offset < 4; offset++) {
+            for (int partition = 0; partition < 3; partition++) {
+                messages.add(message(partition, offset, link(partition + "/" + offset)));
+            }
+        }
+
+        // Тест
+        consume(messages, 2);
+
+        // Проверка: ссылки партиции обработаны по порядку, одновременно не больше двух
+        for (int partition = 0; partition < 3; partition++) {
+            assertEquals(List.of(partition + "/0", partition + "/1", partition + "/2", partition + "/3"),
+                processed.get(partition));
+        }
+        assertTrue(maxInFlight.get() <= 2);
+        assertEquals(messages.size(), acknowledged.size());
+    }
+
+    @Test
+    void testFailedLinksAreSkipped() throws InterruptedException {
+        // Подготовка: первая ссылка не обрабатывается, вторая не разбирается
+        when(linkProcessingService.processLink(new LinkDto("failing", null)))
+            .thenReturn(Mono.error(new RuntimeException("Parse error")));
+        when(linkProcessingService.processLink(new LinkDto("working", null))).thenReturn(Mono.empty());
+
+        // Тест
+        consume(List.of(message(0, 0, link("failing")), message(0, 1, "not json"), message(0, 2, link("working"))),
+            1);
+
+        // Проверка: ошибки не останавливают потребление, все смещения подтверждены по порядку
+        assertEquals(List.of("0:0", "0:1", "0:2"), acknowledged);
+        verify(linkProcessingService, times(1)).processLink(new LinkDto("working", null));
+    }
+}
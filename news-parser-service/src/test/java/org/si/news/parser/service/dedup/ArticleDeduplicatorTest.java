@@ -0,0 +1,137 @@
+package org.si.news.parser.service.dedup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.si.news.parser.service.dto.ArticleDto;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArticleDeduplicatorTest {
+
+    private static final String RBC = "https://www.rbc.ru/v10/ajax/get-news-feed/project/rbcnews/lastDate/0/limit/22";
+    private static final Duration ROTATION = Duration.ofHours(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+
+    private ArticleDeduplicator deduplicator(BloomFilterSpec spec) {
+        return new ArticleDeduplicator(new LocalBloomFilterStore(spec, ROTATION, clock), spec, meterRegistry);
+    }
+
+    private static ArticleDto article(String title) {
+        return new ArticleDto(title, LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+
+    private static boolean isNew(ArticleDeduplicator deduplicator, String url, String title) {
+        return Boolean.TRUE.equals(deduplicator.isNew(url, article(title)).block());
+    }
+
+    @Test
+    void testSentArticlesAreRecognizedBySourceAndNormalizedTitle() {
+        ArticleDeduplicator deduplicator = deduplicator(BloomFilterSpec.of(1000, 0.001));
+        assertTrue(isNew(deduplicator, RBC, "ЦБ сохранил ключевую ставку"));
+        deduplicator.remember(RBC, article("ЦБ сохранил ключевую ставку")).block();
+
+        // Заголовок, отличающийся регистром, пунктуацией и пробелами, считается той же статьей
+        assertFalse(isNew(deduplicator, RBC, "  ЦБ сохранил «ключевую» ставку!"));
+        assertFalse(isNew(deduplicator, "https://www.rbc.ru/other-feed", "ЦБ сохранил ключевую ставку"));
+
+        // Та же статья другого источника не отбрасывается
+        assertTrue(isNew(deduplicator, "https://tradingview.com/news", "ЦБ сохранил ключевую ставку"));
+        assertEquals(2, meterRegistry.get("parser.dedup.duplicates").counter().count());
+        assertEquals(4, meterRegistry.get("parser.dedup.checked").counter().count());
+    }
+
+    @Test
+    void testArticlesAreForgottenAfterTwoRotations() {
+        ArticleDeduplicator deduplicator = deduplicator(BloomFilterSpec.of(1000, 0.001));
+        deduplicator.remember(RBC, article("Рубль укрепился")).block();
+
+        // Статья помнится в следующем поколении фильтра, но не дольше двух интервалов
+        clock.advance(ROTATION);
+        assertFalse(isNew(deduplicator, RBC, "Рубль укрепился"));
+        clock.advance(ROTATION);
+        assertTrue(isNew(deduplicator, RBC, "Рубль укрепился"));
+    }
+
+    @Test
+    void testFalsePositiveRateIsBoundedAndMeasured() {
+        int expected = 2000;
+        ArticleDeduplicator deduplicator = deduplicator(BloomFilterSpec.of(expected, 0.01));
+        for (int i = 0; i < expected; i++) {
+            deduplicator.remember(RBC, article("Отправленная статья " + i)).block();
+        }
+
+        // Доля ложных срабатываний на новых статьях близка к целевой и к оценке по метрике
+        int falsePositives = 0;
+        int probes = 20000;
+        for (int i = 0; i < probes; i++) {
+            if (!isNew(deduplicator, RBC, "Новая статья " + i)) {
+                falsePositives++;
+            }
+        }
+        double measured = (double) falsePositives / probes;
+        double estimated = meterRegistry.get("parser.dedup.false-positive-rate").gauge().value();
+        assertTrue(measured < 0.02, "measured false-positive rate " + measured);
+        assertTrue(estimated > 0.005 && estimated < 0.02, "estimated false-positive rate " + estimated);
+    }
+
+    @Test
+    void testUnavailableStoreTreatsArticlesAsNew() {
+        BloomFilterSpec spec = BloomFilterSpec.of(1000, 0.001);
+        ArticleDeduplicator deduplicator = new ArticleDeduplicator(new BloomFilterStore() {
+            @Override
+            public Mono<Boolean> mightContain(long[] positions) {
+                return Mono.error(new IllegalStateException("Redis is down"));
+            }
+
+            @Override
+            public Mono<Long> put(long[] positions) {
+                return Mono.error(new IllegalStateException("Redis is down"));
+            }
+        }, spec, meterRegistry);
+
+        // Недоступность общего фильтра не останавливает отправку статей
+        assertTrue(isNew(deduplicator, RBC, "Рубль укрепился"));
+        assertNull(deduplicator.remember(RBC, article("Рубль укрепился")).block());
+    }
+
+    /**
+     * Часы, которые тест переводит вручную.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
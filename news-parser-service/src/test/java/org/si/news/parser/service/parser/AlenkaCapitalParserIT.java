@@ -2,7 +2,11 @@ package org.si.news.parser.service.parser;
 
 import org.junit.jupiter.api.Test;
 import org.si.news.parser.service.dto.ArticleDto;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
@@ -11,7 +15,11 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AlenkaCapitalParserIT {
 
-    private final AlenkaCapitalParser parser = new AlenkaCapitalParser();
+    private final AlenkaCapitalParser parser = new AlenkaCapitalParser(WebClient.create(), Schedulers.boundedElastic());
+
+    {
+        ReflectionTestUtils.setField(parser, "maxBodySize", DataSize.ofMegabytes(5));
+    }
 
     @Test
     public void testParse_realSite_shouldReturnArticles() {
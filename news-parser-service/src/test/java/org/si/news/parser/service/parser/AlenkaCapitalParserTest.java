@@ -0,0 +1,91 @@
+package org.si.news.parser.service.parser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.si.news.parser.service.dto.ArticleDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlenkaCapitalParserTest {
+
+    private static final String URL = "https://alenka.capital/category/lenta_novostey_596/";
+
+    private static final String PAGE = """
+        <html><body><ul>
+          <li class="feed__item"><h2 class="feed__text"><a>Свежая новость</a></h2>
+            <time class="feed__date">02.01.2026, 10:30</time></li>
+          <li class="feed__item"><h2 class="feed__text"><a>Старая новость</a></h2>
+            <time class="feed__date">30.12.2025, 09:00</time></li>
+          <li class="feed__item"><h2 class="feed__text"><a>Новость без даты</a></h2></li>
+        </ul></body></html>
+        """;
+
+    private final Scheduler parsingScheduler = Schedulers.newBoundedElastic(1, 10, "test-parsing");
+
+    @AfterEach
+    void tearDown() {
+        parsingScheduler.dispose();
+    }
+
+    private static WebClient webClient(HttpStatus status, String body) {
+        return WebClient.builder()
+            .exchangeFunction(request -> Mono.just(ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_HTML_VALUE)
+                .body(body)
+                .build()))
+            .build();
+    }
+
+    private AlenkaCapitalParser parser(WebClient webClient, DataSize maxBodySize) {
+        AlenkaCapitalParser parser = new AlenkaCapitalParser(webClient, parsingScheduler);
+        ReflectionTestUtils.setField(parser, "maxBodySize", maxBodySize);
+        return parser;
+    }
+
+    @Test
+    void testParse_shouldParseOnParsingScheduler() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        AlenkaCapitalParser parser = parser(webClient(HttpStatus.OK, PAGE), DataSize.ofMegabytes(1));
+
+        // Разбор страницы выполняется на выделенном планировщике, а старые и неполные новости отбрасываются
+        StepVerifier.create(parser.parse(URL, LocalDateTime.of(2026, 1, 1, 0, 0))
+                .doOnNext(article -> threads.add(Thread.currentThread().getName())))
+            .expectNext(new ArticleDto("Свежая новость", LocalDateTime.of(2026, 1, 2, 10, 30)))
+            .verifyComplete();
+        assertEquals(1, threads.size());
+        assertTrue(threads.get(0).startsWith("test-parsing"));
+    }
+
+    @Test
+    void testParse_failedFetch_shouldReturnNoArticles() {
+        AlenkaCapitalParser parser = parser(webClient(HttpStatus.SERVICE_UNAVAILABLE, ""), DataSize.ofMegabytes(1));
+
+        // Ошибка загрузки страницы не прерывает обработку и дает пустой результат
+        StepVerifier.create(parser.parse(URL, LocalDateTime.MIN))
+            .verifyComplete();
+    }
+
+    @Test
+    void testParse_oversizedPage_shouldReturnNoArticles() {
+        AlenkaCapitalParser parser = parser(webClient(HttpStatus.OK, PAGE), DataSize.ofBytes(100));
+
+        // Страница больше допустимого размера не разбирается
+        StepVerifier.create(parser.parse(URL, LocalDateTime.MIN))
+            .verifyComplete();
+    }
+}
@@ -0,0 +1,110 @@
+package org.si.news.parser.service.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.si.news.parser.service.dto.ArticleDto;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonArticleDecoderTest {
+
+    private static final String FEED = """
+        {"total": 3, "meta": {"items": [{"title": "not an article"}]},
+         "items": [
+           {"id": 1, "title": "Первая \\"новость\\"", "published": 1767261600,
+            "tags": [{"title": "nested"}], "source": {"published": 1}},
+           {"published": "1767258000", "title": "Вторая новость"},
+           {"title": "Третья новость", "published": 1767254400}
+         ],
+         "next": {"items": []}}
+        """;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Разбивает тело на буферы заданного размера, как если бы оно приходило из сети по частям.
+     */
+    private List<DataBuffer> chunks(String body, int size) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int from = 0; from < bytes.length; from += size) {
+            int length = Math.min(size, bytes.length - from);
+            buffers.add(bufferFactory.allocateBuffer(length).write(bytes, from, length));
+        }
+        return buffers;
+    }
+
+    private static LocalDateTime time(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+    }
+
+    private static void assertReleased(List<DataBuffer> buffers) {
+        for (int i = 0; i < buffers.size(); i++) {
+            assertEquals(0, ((NettyDataBuffer) buffers.get(i)).getNativeBuffer().refCnt(), i + "/" + buffers.size());
+        }
+    }
+
+    @Test
+    void testDecode_chunkedBody_shouldReturnItems() {
+        for (int size : new int[] {1, 7, 64, 4096}) {
+            List<DataBuffer> buffers = chunks(FEED, size);
+
+            // Статьи читаются из массива items верхнего уровня независимо от того, как тело разбито на части
+            StepVerifier.create(JsonArticleDecoder.decode(Flux.fromIterable(buffers), jsonFactory, "title", "published"))
+                .expectNext(new ArticleDto("Первая \"новость\"", time(1767261600)))
+                .expectNext(new ArticleDto("Вторая новость", time(1767258000)))
+                .expectNext(new ArticleDto("Третья новость", time(1767254400)))
+                .verifyComplete();
+            assertReleased(buffers);
+        }
+    }
+
+    @Test
+    void testDecode_cancelled_shouldStopReading() {
+        List<DataBuffer> buffers = chunks(FEED, 16);
+        List<DataBuffer> requested = new ArrayList<>();
+        Flux<DataBuffer> body = Flux.fromIterable(buffers).doOnNext(requested::add);
+
+        // После отмены оставшаяся часть тела не читается, а все полученные буферы освобождаются
+        StepVerifier.create(JsonArticleDecoder.decode(body, jsonFactory, "title", "published")
+                .takeWhile(article -> article.publishedAt().isAfter(time(1767260000))))
+            .expectNextCount(1)
+            .verifyComplete();
+        assertTrue(requested.size() < buffers.size());
+        assertReleased(buffers);
+    }
+
+    @Test
+    void testDecode_truncatedBody_shouldFail() {
+        String truncated = FEED.substring(0, FEED.indexOf("Третья"));
+
+        // Обрыв тела посреди массива items приводит к ошибке декодирования после уже прочитанных статей
+        StepVerifier.create(JsonArticleDecoder.decode(Flux.fromIterable(chunks(truncated, 32)), jsonFactory,
+                "title", "published"))
+            .expectNextCount(2)
+            .expectError(DecodingException.class)
+            .verify();
+    }
+
+    @Test
+    void testDecode_withoutItems_shouldReturnNothing() {
+        StepVerifier.create(JsonArticleDecoder.decode(Flux.fromIterable(chunks("{\"error\": \"not found\"}", 5)),
+                jsonFactory, "title", "published"))
+            .verifyComplete();
+    }
+}
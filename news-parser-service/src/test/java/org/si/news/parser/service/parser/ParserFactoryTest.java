@@ -0,0 +1,66 @@
+package org.si.news.parser.service.parser;
+
+import org.junit.jupiter.api.Test;
+import org.si.news.parser.service.dto.ArticleDto;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParserFactoryTest {
+
+    private final NewsParser rbcParser = parser("rbc.ru");
+    private final NewsParser rbcSearchParser = parser("www.rbc.ru/search/");
+    private final NewsParser tradingViewParser = parser("tradingview.com");
+
+    private final ParserFactory parserFactory = new ParserFactory(
+        List.of(rbcParser, rbcSearchParser, tradingViewParser), 100);
+
+    private static NewsParser parser(String... routes) {
+        List<ParserRoute> parserRoutes = List.of(routes).stream().map(ParserRoute::of).toList();
+        return new NewsParser() {
+            @Override
+            public Flux<ArticleDto> parse(String url, LocalDateTime lastParsedTime) {
+                return Flux.empty();
+            }
+
+            @Override
+            public List<ParserRoute> routes() {
+                return parserRoutes;
+            }
+        };
+    }
+
+    @Test
+    void testRoutesBySubdomain() {
+        // Поддомены обслуживаются парсером зарегистрированного домена
+        assertSame(rbcParser, parserFactory.getParser("https://rbc.ru/economics/2"));
+        assertSame(rbcParser, parserFactory.getParser("https://WWW.RBC.RU/news/2023/02/15/635d6a1f9a794e001c0b99f1"));
+        assertSame(tradingViewParser, parserFactory.getParser("https://news-mediator.tradingview.com/news-flow/v1/news"));
+    }
+
+    @Test
+    void testLongestPathPrefixWins() {
+        // Правило с путем точнее правила домена
+        assertSame(rbcSearchParser,
+            parserFactory.getParser("https://www.rbc.ru/search/ajax/?tag=Ozon&project=rbcnews&page=0"));
+        assertSame(rbcParser, parserFactory.getParser("https://www.rbc.ru/searching"));
+    }
+
+    @Test
+    void testDoesNotMatchDomainElsewhereInUrl() {
+        // Упоминание домена в пути или в похожем хосте не выбирает его парсер
+        assertThrows(IllegalArgumentException.class,
+            () -> parserFactory.getParser("https://example.com/rbc.ru/news"));
+        assertThrows(IllegalArgumentException.class, () -> parserFactory.getParser("https://notrbc.ru/news"));
+        assertThrows(IllegalArgumentException.class, () -> parserFactory.getParser("not a url"));
+    }
+
+    @Test
+    void testDuplicateRouteIsRejected() {
+        assertThrows(IllegalStateException.class,
+            () -> new ParserFactory(List.of(parser("rbc.ru"), parser("RBC.ru")), 100));
+    }
+}
@@ -0,0 +1,116 @@
+package org.si.news.parser.service.parser.declarative;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.si.news.parser.service.configuration.ObjectMapperConfig;
+import org.si.news.parser.service.dto.ArticleDto;
+import org.si.news.parser.service.parser.NewsParser;
+import org.si.news.parser.service.parser.ParserFactory;
+import org.si.news.parser.service.parser.ParserRoute;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeclarativeParserLoaderTest {
+
+    private static final String ALENKA = """
+        [{"name": "alenka", "routes": ["alenka.capital"], "format": "html",
+          "items": "li.feed__item", "title": "h2.feed__text a", "published": "time.feed__date",
+          "date_format": "dd.MM.yyyy, HH:mm"}]
+        """;
+
+    private static final String FEED = """
+        [{"name": "feed", "routes": ["feed.example"], "format": "json",
+          "items": "/items", "title": "/title", "published": "/ts", "timestamp_unit": "MILLIS"}]
+        """;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
+    private final Scheduler parsingScheduler = Schedulers.newBoundedElastic(1, 10, "test-parsing");
+    private final NewsParser rbcParser = new NewsParser() {
+        @Override
+        public Flux<ArticleDto> parse(String url, LocalDateTime lastParsedTime) {
+            return Flux.empty();
+        }
+
+        @Override
+        public List<ParserRoute> routes() {
+            return List.of(ParserRoute.of("rbc.ru"));
+        }
+    };
+    private final ParserFactory parserFactory = new ParserFactory(List.of(rbcParser), 100);
+
+    private Path definitions;
+    private DeclarativeParserLoader loader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        definitions = directory.resolve("parsers.json");
+        write(ALENKA, Instant.parse("2026-01-01T00:00:00Z"));
+        loader = new DeclarativeParserLoader(parserFactory, WebClient.create(), objectMapper, parsingScheduler,
+            new DefaultResourceLoader());
+        ReflectionTestUtils.setField(loader, "location", definitions.toUri().toString());
+        ReflectionTestUtils.setField(loader, "maxBodySize", DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        parsingScheduler.dispose();
+    }
+
+    private void write(String content, Instant modified) throws IOException {
+        Files.writeString(definitions, content);
+        Files.setLastModifiedTime(definitions, FileTime.from(modified));
+    }
+
+    @Test
+    void testDefinitionsAreRegisteredInRouting() {
+        assertEquals(1, loader.reload());
+
+        // Декларативный парсер обслуживает свой домен наравне с парсерами-бинами
+        assertEquals("alenka", parserFactory.getParser("https://alenka.capital/news").toString());
+        assertSame(rbcParser, parserFactory.getParser("https://www.rbc.ru/news"));
+    }
+
+    @Test
+    void testModifiedDefinitionsAreReloaded() throws IOException {
+        loader.init();
+        write(FEED, Instant.parse("2026-01-02T00:00:00Z"));
+
+        // Измененный файл перечитывается без перезапуска, а удаленные источники больше не обслуживаются
+        loader.reloadIfModified();
+        assertEquals("feed", parserFactory.getParser("https://api.feed.example/items").toString());
+        assertThrows(IllegalArgumentException.class, () -> parserFactory.getParser("https://alenka.capital/news"));
+    }
+
+    @Test
+    void testInvalidDefinitionsKeepCurrentParsers() throws IOException {
+        loader.init();
+        write("[{\"name\": \"rbc\", \"routes\": [\"rbc.ru\"], \"format\": \"json\", \"items\": \"/items\","
+            + " \"title\": \"/title\", \"published\": \"/ts\"}]", Instant.parse("2026-01-02T00:00:00Z"));
+
+        // Конфликт маршрутов отклоняет весь файл, текущие парсеры продолжают работать
+        loader.reloadIfModified();
+        assertEquals("alenka", parserFactory.getParser("https://alenka.capital/news").toString());
+        assertSame(rbcParser, parserFactory.getParser("https://www.rbc.ru/news"));
+    }
+}
@@ -0,0 +1,130 @@
+package org.si.news.parser.service.parser.declarative;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.si.news.parser.service.configuration.ObjectMapperConfig;
+import org.si.news.parser.service.dto.ArticleDto;
+import org.si.news.parser.service.parser.ParserRoute;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeclarativeParserTest {
+
+    private static final String PAGE = """
+        <html><body><ul>
+          <li class="feed__item"><h2 class="feed__text"><a>Свежая новость</a></h2>
+            <time class="feed__date" datetime="2026-01-02T10:30:00">02.01.2026, 10:30</time></li>
+          <li class="feed__item"><h2 class="feed__text"><a>Старая новость</a></h2>
+            <time class="feed__date" datetime="2025-12-30T09:00:00">30.12.2025, 09:00</time></li>
+          <li class="feed__item"><h2 class="feed__text"><a>Новость с неверной датой</a></h2>
+            <time class="feed__date">вчера</time></li>
+        </ul></body></html>
+        """;
+
+    private static final String FEED = """
+        {"data": {"news": [
+          {"meta": {"headline": "Первая"}, "ts": 1767349800000},
+          {"meta": {"headline": "Вторая"}, "ts": "1767263400000"},
+          {"meta": {"headline": ""}, "ts": 1767349800000}
+        ]}}
+        """;
+
+    private final ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
+    private final Scheduler parsingScheduler = Schedulers.newBoundedElastic(1, 10, "test-parsing");
+    private final List<HttpHeaders> requestHeaders = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        parsingScheduler.dispose();
+    }
+
+    private WebClient webClient(String body) {
+        return WebClient.builder()
+            .exchangeFunction(request -> {
+                requestHeaders.add(request.headers());
+                return Mono.just(ClientResponse.create(HttpStatus.OK).body(body).build());
+            })
+            .build();
+    }
+
+    private static ParserDefinition html(String publishedAttribute, String dateFormat) {
+        return new ParserDefinition("alenka", List.of("alenka.capital"), ParserDefinition.Format.HTML,
+            "li.feed__item", "h2.feed__text a", "time.feed__date", publishedAttribute, dateFormat, null, null,
+            Map.of("Accept-Language", "ru-RU"));
+    }
+
+    private static LocalDateTime epochMillis(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    @Test
+    void testHtmlDefinition() {
+        DeclarativeParser parser = DeclarativeParser.compile(html(null, "dd.MM.yyyy, HH:mm"), webClient(PAGE),
+            objectMapper, parsingScheduler, 1024 * 1024);
+
+        // Новости без читаемой даты и старше последнего разбора отбрасываются, заголовки запроса передаются
+        StepVerifier.create(parser.parse("https://alenka.capital/news", LocalDateTime.of(2026, 1, 1, 0, 0)))
+            .expectNext(new ArticleDto("Свежая новость", LocalDateTime.of(2026, 1, 2, 10, 30)))
+            .verifyComplete();
+        assertEquals(List.of(ParserRoute.of("alenka.capital")), parser.routes());
+        assertEquals("ru-RU", requestHeaders.get(0).getFirst(HttpHeaders.ACCEPT_LANGUAGE));
+    }
+
+    @Test
+    void testHtmlDefinitionWithAttribute() {
+        DeclarativeParser parser = DeclarativeParser.compile(html("datetime", "yyyy-MM-dd'T'HH:mm:ss"),
+            webClient(PAGE), objectMapper, parsingScheduler, 1024 * 1024);
+
+        // Дата берется из атрибута элемента
+        StepVerifier.create(parser.parse("https://alenka.capital/news", LocalDateTime.MIN))
+            .expectNext(new ArticleDto("Свежая новость", LocalDateTime.of(2026, 1, 2, 10, 30)))
+            .expectNext(new ArticleDto("Старая новость", LocalDateTime.of(2025, 12, 30, 9, 0)))
+            .verifyComplete();
+    }
+
+    @Test
+    void testJsonDefinitionWithMillisecondTimestamps() {
+        ParserDefinition definition = new ParserDefinition("feed", List.of("feed.example/api/"),
+            ParserDefinition.Format.JSON, "/data/news", "/meta/headline", "/ts", null, null, null,
+            ChronoUnit.MILLIS, null);
+        DeclarativeParser parser = DeclarativeParser.compile(definition, webClient(FEED), objectMapper,
+            parsingScheduler, 1024 * 1024);
+
+        // Вложенные поля выбираются JSON-указателями, метки времени читаются и из чисел, и из строк
+        StepVerifier.create(parser.parse("https://feed.example/api/news", LocalDateTime.MIN))
+            .expectNext(new ArticleDto("Первая", epochMillis(1767349800000L)))
+            .expectNext(new ArticleDto("Вторая", epochMillis(1767263400000L)))
+            .verifyComplete();
+    }
+
+    @Test
+    void testInvalidDefinitionIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DeclarativeParser.compile(
+            html(null, "dd.MM.yyyy, HH:mm {"), webClient(PAGE), objectMapper, parsingScheduler, 1024));
+        assertThrows(IllegalArgumentException.class, () -> DeclarativeParser.compile(
+            new ParserDefinition("broken", List.of("broken.example"), ParserDefinition.Format.HTML,
+                "li[", "a", "time", null, null, null, null, null),
+            webClient(PAGE), objectMapper, parsingScheduler, 1024));
+        assertThrows(IllegalArgumentException.class, () -> DeclarativeParser.compile(
+            new ParserDefinition("broken", List.of("broken.example"), ParserDefinition.Format.JSON,
+                "items", "/title", "/ts", null, null, null, null, null),
+            webClient(FEED), objectMapper, parsingScheduler, 1024));
+    }
+}
@@ -1,28 +1,46 @@
 package org.si.news.parser.service.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.si.news.parser.service.client.ConditionalRequestFilter;
+import org.si.news.parser.service.dedup.ArticleDeduplicator;
+import org.si.news.parser.service.dedup.BloomFilterSpec;
+import org.si.news.parser.service.dedup.LocalBloomFilterStore;
 import org.si.news.parser.service.dto.ArticleDto;
 import org.si.news.parser.service.dto.LinkDto;
+import org.si.news.parser.service.dto.LinkStatusDto;
 import org.si.news.parser.service.parser.NewsParser;
 import org.si.news.parser.service.parser.ParserFactory;
+import org.si.news.parser.service.producer.LinkStatusProducerService;
+import org.si.news.parser.service.producer.RawNewsMessage;
 import org.si.news.parser.service.producer.ReactiveKafkaProducerService;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Flux;
+import reactor.kafka.sender.SenderResult;
 import reactor.test.StepVerifier;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
 public class LinkProcessingServiceTest {
 
+    private static final BloomFilterSpec DEDUP_SPEC = BloomFilterSpec.of(1000, 0.001);
+
     @Mock
     private ParserFactory parserFactory;
 
@@ -32,16 +50,70 @@ public class LinkProcessingServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private LinkStatusProducerService linkStatusProducerService;
+
     @Mock
     private NewsParser newsParser;
 
+    @Mock
+    private ConditionalRequestFilter conditionalRequestFilter;
+
+    @Mock
+    private ConditionalRequestFilter.ValidatorBatch validatorBatch;
+
+    @Spy
+    private ArticleDeduplicator articleDeduplicator = new ArticleDeduplicator(
+        new LocalBloomFilterStore(DEDUP_SPEC, Duration.ofDays(1), Clock.systemUTC()), DEDUP_SPEC,
+        new SimpleMeterRegistry());
+
     @InjectMocks
     private LinkProcessingService linkProcessingService;
 
     private LinkDto linkDto;
 
+    private final List<String> sentKeys = new CopyOnWriteArrayList<>();
+
+    /**
+     * Мокирует пакетную отправку: ключи отправленных сообщений запоминаются, а сообщения с ключом
+     * failedKey завершаются ошибкой.
+     */
+    private void mockSendAll(String failedKey) {
+        when(kafkaProducerService.sendAll(any())).thenAnswer(invocation -> {
+            Flux<RawNewsMessage<ArticleDto>> messages = invocation.getArgument(0);
+            return messages.map(message -> {
+                boolean failed = message.key().equals(failedKey);
+                if (!failed) {
+                    sentKeys.add(message.key());
+                }
+                return result(message.correlation(), failed ? new RuntimeException("Kafka error") : null);
+            });
+        });
+    }
+
+    private static SenderResult<ArticleDto> result(ArticleDto article, Exception exception) {
+        return new SenderResult<>() {
+            @Override
+            public RecordMetadata recordMetadata() {
+                return null;
+            }
+
+            @Override
+            public Exception exception() {
+                return exception;
+            }
+
+            @Override
+            public ArticleDto correlationMetadata() {
+                return article;
+            }
+        };
+    }
+
     @BeforeEach
     void setUp() {
+        lenient().when(conditionalRequestFilter.newBatch()).thenReturn(validatorBatch);
+        lenient().when(validatorBatch.bind(any())).thenAnswer(invocation -> invocation.getArgument(0));
         linkDto = new LinkDto("https://news-mediator.tradingview.com/news-flow/v1/news", LocalDateTime.now().minusDays(1));
     }
 
@@ -55,8 +127,9 @@ public class LinkProcessingServiceTest {
         when(parserFactory.getParser(anyString())).thenReturn(newsParser);
         when(newsParser.parse(anyString(), any())).thenReturn(articleFlux);
 
-        // Мокируем sendToKafka с использованием doReturn() для избежания проблемы strict stubbing
-        doReturn(Mono.empty()).when(kafkaProducerService).sendToKafka(eq("Test Article"), any());
+        // Мокируем пакетную отправку в Kafka
+        mockSendAll(null);
+        when(linkStatusProducerService.sendStatus(any())).thenReturn(Mono.empty());
 
         // Тест
         Mono<Void> result = linkProcessingService.processLink(linkDto);
@@ -67,7 +140,56 @@ public class LinkProcessingServiceTest {
             .verify();
 
         // Убедимся, что Kafka producer был вызван с правильными аргументами
-        verify(kafkaProducerService, times(1)).sendToKafka(eq("Test Article"), any());
+        verify(kafkaProducerService, times(1)).sendAll(any());
+        assertEquals(List.of("Test Article"), sentKeys);
+
+        // Валидаторы ответа фиксируются после отправки статей
+        verify(validatorBatch, times(1)).commit();
+    }
+
+    @Test
+    void testProcessLink_ReportsNewArticles() {
+        // Подготовка: парсер находит две новые статьи
+        Flux<ArticleDto> articleFlux = Flux.just(
+            new ArticleDto("First Article", LocalDateTime.now()),
+            new ArticleDto("Second Article", LocalDateTime.now()));
+
+        when(parserFactory.getParser(anyString())).thenReturn(newsParser);
+        when(newsParser.parse(anyString(), any())).thenReturn(articleFlux);
+        mockSendAll(null);
+        when(linkStatusProducerService.sendStatus(any())).thenReturn(Mono.empty());
+
+        // Тест
+        Mono<Void> result = linkProcessingService.processLink(linkDto);
+
+        // Проверка
+        StepVerifier.create(result)
+            .expectComplete()
+            .verify();
+
+        // Убедимся, что планировщику сообщено количество новых статей
+        verify(linkStatusProducerService, times(1)).sendStatus(new LinkStatusDto(linkDto.url(), 2));
+    }
+
+    @Test
+    void testProcessLink_DropsSentArticles() {
+        // Подготовка: повторный опрос возвращает ту же статью с другим регистром и пунктуацией
+        when(parserFactory.getParser(anyString())).thenReturn(newsParser);
+        when(newsParser.parse(anyString(), any()))
+            .thenReturn(Flux.just(new ArticleDto("ЦБ сохранил ставку", LocalDateTime.now())))
+            .thenReturn(Flux.just(
+                new ArticleDto("ЦБ  сохранил ставку!", LocalDateTime.now()),
+                new ArticleDto("Рубль укрепился", LocalDateTime.now())));
+        mockSendAll(null);
+        when(linkStatusProducerService.sendStatus(any())).thenReturn(Mono.empty());
+
+        // Тест
+        StepVerifier.create(linkProcessingService.processLink(linkDto)).verifyComplete();
+        StepVerifier.create(linkProcessingService.processLink(linkDto)).verifyComplete();
+
+        // Проверка: уже отправленная статья не отправляется повторно и не считается новой
+        assertEquals(List.of("ЦБ сохранил ставку", "Рубль укрепился"), sentKeys);
+        verify(linkStatusProducerService, times(2)).sendStatus(new LinkStatusDto(linkDto.url(), 1));
     }
 
     @Test
@@ -78,8 +200,7 @@ public class LinkProcessingServiceTest {
 
         when(parserFactory.getParser(anyString())).thenReturn(newsParser);
         when(newsParser.parse(anyString(), any())).thenReturn(articleFlux);
-        when(kafkaProducerService.sendToKafka(eq("Test Article"), anyString()))
-            .thenReturn(Mono.error(new RuntimeException("Kafka error")));
+        mockSendAll("Test Article");
 
         // Тест
         Mono<Void> result = linkProcessingService.processLink(linkDto);
@@ -90,6 +211,27 @@ public class LinkProcessingServiceTest {
             .verify();
     }
 
+    @Test
+    void testProcessLink_PartialFailureIsNotReported() {
+        // Подготовка: одна из двух статей не отправляется
+        ArticleDto first = new ArticleDto("First Article", LocalDateTime.now());
+        ArticleDto second = new ArticleDto("Second Article", LocalDateTime.now());
+        when(parserFactory.getParser(anyString())).thenReturn(newsParser);
+        when(newsParser.parse(anyString(), any())).thenReturn(Flux.just(first, second));
+        mockSendAll("Second Article");
+
+        // Тест: опрос с неотправленной статьей завершается ошибкой, статус не отправляется
+        StepVerifier.create(linkProcessingService.processLink(linkDto))
+            .expectError(IllegalStateException.class)
+            .verify();
+        verify(linkStatusProducerService, never()).sendStatus(any());
+        verify(validatorBatch, never()).commit();
+
+        // Проверка: запоминается только отправленная статья
+        StepVerifier.create(articleDeduplicator.isNew(linkDto.url(), first)).expectNext(false).verifyComplete();
+        StepVerifier.create(articleDeduplicator.isNew(linkDto.url(), second)).expectNext(true).verifyComplete();
+    }
+
     @Test
     void testParseLink_Success() {
         // Подготовка
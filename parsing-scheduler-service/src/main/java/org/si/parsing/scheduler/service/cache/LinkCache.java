@@ -0,0 +1,263 @@
+package org.si.parsing.scheduler.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.storage.LinkKeyspace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * In-process near-cache of links in front of Redis, bounded in size and time.
+ * <p>
+ * The cache is kept coherent across instances with Redis keyspace notifications: every change of a link key,
+ * whoever made it, evicts the link from the caches of all instances. Only the notifications of link keys are
+ * subscribed to, so leases, the due-time index and the keys of other services cost nothing.
+ * A link loaded from Redis is cached only if it was not invalidated while it was loading; the check is made
+ * per link, so the steady stream of invalidations of dispatched links does not keep other links out of
+ * the cache. While the notification subscription is
+ * not established, e.g. after a connection loss, lookups bypass the cache and the cache is cleared once the
+ * subscription is back, so notifications missed in between can never leave a stale entry behind. The same
+ * holds while the server cannot be confirmed to publish the notifications, e.g. when its configuration cannot
+ * be read or lacks the required classes and may not be changed.
+ * <p>
+ * Keyspace notifications are published by every Redis Cluster node for its own keys only, so the cache is
+ * not used when the links are stored in a cluster.
+ */
+@RequiredArgsConstructor
+@Component
+public class LinkCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LinkCache.class);
+
+    private static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
+
+    /**
+     * Keyspace events the cache relies on: keyspace channel (K), string (dollar), generic (g) and expired (x).
+     */
+    private static final String REQUIRED_KEYSPACE_EVENTS = "K$gx";
+
+    private static final Duration MIN_RESUBSCRIBE_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RESUBSCRIBE_DELAY = Duration.ofSeconds(30);
+
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final MeterRegistry meterRegistry;
+    private final LinkKeyspace linkKeyspace;
+
+    /**
+     * Whether the near-cache is used.
+     */
+    @Value("${scheduler.cache.enabled}")
+    private boolean enabled;
+
+    /**
+     * The maximum number of cached links.
+     */
+    @Value("${scheduler.cache.max-size}")
+    private long maxSize;
+
+    /**
+     * How long a link stays cached after it was loaded, bounding the staleness if an invalidation is ever lost.
+     */
+    @Value("${scheduler.cache.ttl}")
+    private Duration ttl;
+
+    /**
+     * Whether the keyspace notifications the cache relies on are enabled on the Redis server when missing.
+     * Disable it when the server configuration is managed elsewhere; the cache is then bypassed unless the
+     * server already publishes them.
+     */
+    @Value("${scheduler.cache.configure-keyspace-events}")
+    private boolean configureKeyspaceEvents;
+
+    /**
+     * The Redis database the links are stored in.
+     */
+    @Value("${spring.data.redis.database:0}")
+    private int database;
+
+    /**
+     * The loads in flight by URL, each identified by its own token. Invalidating a link removes its token,
+     * so a load that started before the invalidation does not cache what it read.
+     */
+    private final Map<String, Object> loads = new ConcurrentHashMap<>();
+
+    private volatile boolean coherent;
+    private Cache<String, Link> cache;
+    private ReactiveRedisMessageListenerContainer listenerContainer;
+    private Disposable subscription;
+
+    /**
+     * Creates the cache and subscribes to the keyspace notifications.
+     */
+    @PostConstruct
+    public void init() {
+        if (enabled && linkKeyspace.isClustered()) {
+            LOGGER.warn("Link cache is not supported with clustered link storage and is disabled");
+        }
+        if (!enabled || linkKeyspace.isClustered()) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "links");
+
+        String channelPrefix = "__keyspace@" + database + "__:";
+        listenerContainer = new ReactiveRedisMessageListenerContainer(connectionFactory);
+        subscription = ensureKeyspaceEvents()
+            .then(listenerContainer.receiveLater(PatternTopic.of(channelPrefix + linkKeyspace.linkKeyPattern())))
+            .flatMapMany(messages -> {
+                cache.invalidateAll();
+                coherent = true;
+                LOGGER.info("Link cache subscribed to keyspace notifications");
+                return messages;
+            })
+            .map(message -> linkKeyspace.urlOf(message.getChannel().substring(channelPrefix.length())))
+            .doOnNext(this::invalidate)
+            .doOnTerminate(this::markIncoherent)
+            .doOnError(error -> LOGGER.warn("Link cache is bypassed, invalidation stream failed: {}",
+                error.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_RESUBSCRIBE_DELAY).maxBackoff(MAX_RESUBSCRIBE_DELAY))
+            .repeatWhen(completed -> completed.delayElements(MIN_RESUBSCRIBE_DELAY))
+            .subscribe();
+    }
+
+    /**
+     * Stops listening to keyspace notifications.
+     */
+    @PreDestroy
+    public void destroy() {
+        markIncoherent();
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (listenerContainer != null) {
+            listenerContainer.destroyLater().subscribe();
+        }
+    }
+
+    /**
+     * Returns a link from the cache, loading and caching it on a miss. Lookups bypass the cache while it cannot
+     * be kept coherent. Missing links are not cached.
+     *
+     * @param url the URL of the link
+     * @param loader loads the link from Redis
+     * @return a {@link Mono} containing the link, or empty if not found
+     */
+    public Mono<Link> get(String url, Function<String, Mono<Link>> loader) {
+        if (!coherent) {
+            return loader.apply(url);
+        }
+        Link cached = cache.getIfPresent(url);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        // A link invalidated while it was loading may already be stale, so it is not cached
+        return Mono.defer(() -> {
+            Object token = new Object();
+            loads.put(url, token);
+            return loader.apply(url)
+                .doOnNext(link -> loads.computeIfPresent(url, (key, current) -> {
+                    if (current == token && coherent) {
+                        cache.put(url, link);
+                    }
+                    return current;
+                }))
+                .doFinally(signal -> loads.remove(url, token));
+        });
+    }
+
+    /**
+     * Evicts a link from the cache.
+     *
+     * @param url the URL of the link
+     */
+    public void invalidate(String url) {
+        if (cache != null) {
+            loads.compute(url, (key, token) -> {
+                cache.invalidate(url);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Evicts links from the cache.
+     *
+     * @param urls the URLs of the links
+     */
+    public void invalidateAll(Collection<String> urls) {
+        urls.forEach(this::invalidate);
+    }
+
+    private void markIncoherent() {
+        coherent = false;
+        if (cache != null) {
+            loads.clear();
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Makes sure the server publishes the keyspace notifications the cache relies on, adding the missing classes
+     * if allowed. Fails if the configuration cannot be read, or lacks some classes that cannot be added, since
+     * the cache would then never be invalidated; the caller keeps bypassing the cache and checks again later.
+     */
+    private Mono<Void> ensureKeyspaceEvents() {
+        return Mono.usingWhen(Mono.fromSupplier(connectionFactory::getReactiveConnection),
+                connection -> connection.serverCommands().getConfig(NOTIFY_KEYSPACE_EVENTS)
+                    .map(config -> config.getProperty(NOTIFY_KEYSPACE_EVENTS, ""))
+                    .defaultIfEmpty("")
+                    .onErrorMap(error -> new IllegalStateException("cannot read '" + NOTIFY_KEYSPACE_EVENTS
+                        + "', make sure it includes " + REQUIRED_KEYSPACE_EVENTS + ": " + error.getMessage(), error))
+                    .flatMap(current -> {
+                        String missing = missingFlags(current);
+                        if (missing.isEmpty()) {
+                            return Mono.empty();
+                        }
+                        if (!configureKeyspaceEvents) {
+                            return Mono.error(new IllegalStateException("'" + NOTIFY_KEYSPACE_EVENTS + "' is '"
+                                + current + "' and lacks " + missing));
+                        }
+                        return connection.serverCommands().setConfig(NOTIFY_KEYSPACE_EVENTS, current + missing)
+                            .onErrorMap(error -> new IllegalStateException("cannot add " + missing + " to '"
+                                + NOTIFY_KEYSPACE_EVENTS + "': " + error.getMessage(), error));
+                    }),
+                ReactiveRedisConnection::closeLater)
+            .then();
+    }
+
+    private static String missingFlags(String current) {
+        // "A" is an alias for all event classes, so only the keyspace channel flag may be missing
+        String present = current.contains("A") ? current + "$gx" : current;
+        StringBuilder missing = new StringBuilder();
+        for (char flag : REQUIRED_KEYSPACE_EVENTS.toCharArray()) {
+            if (present.indexOf(flag) < 0) {
+                missing.append(flag);
+            }
+        }
+        return missing.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package org.si.parsing.scheduler.service.configuration;
+
+import java.time.Clock;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the clock the scheduler reads the current time from, so a run can be replayed on a virtual clock.
+ */
+@Configuration
+public class ClockConfig {
+
+    /**
+     * Creates the system clock in UTC.
+     *
+     * @return the clock of the scheduler
+     */
+    @Bean
+    Clock clock() {
+        return Clock.systemUTC();
+    }
+}
@@ -1,21 +1,28 @@
 package org.si.parsing.scheduler.service.configuration;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderOptions;
 
 
 /**
- * Configuration class for setting up a Kafka producer using Reactor Kafka.
+ * Configuration class for setting up a Kafka producer and the link status consumer using Reactor Kafka.
  * <p>
  * This class initializes and configures a reactive Kafka sender (`KafkaSender`)
- * that can be used to send messages to Kafka topics within a reactive pipeline.
+ * that can be used to send messages to Kafka topics within a reactive pipeline,
+ * and a reactive Kafka receiver (`KafkaReceiver`) for the link statuses reported by the news parser.
  * <p>
  */
 @Configuration
@@ -28,6 +35,42 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    /**
+     * How long the producer waits for more records before sending a batch, in milliseconds.
+     */
+    @Value("${spring.kafka.news-links.producer.linger-ms}")
+    private int lingerMs;
+
+    /**
+     * The maximum size of a single producer batch, in bytes.
+     */
+    @Value("${spring.kafka.news-links.producer.batch-size}")
+    private int batchSize;
+
+    /**
+     * The compression codec applied to producer batches (none, gzip, snappy, lz4 or zstd).
+     */
+    @Value("${spring.kafka.news-links.producer.compression-type}")
+    private String compressionType;
+
+    /**
+     * The maximum number of records in flight within a single send stream.
+     */
+    @Value("${spring.kafka.news-links.producer.max-in-flight}")
+    private int maxInFlight;
+
+    /**
+     * The topic the news parser reports link statuses to.
+     */
+    @Value("${spring.kafka.link-status.topic}")
+    private String linkStatusTopic;
+
+    /**
+     * The consumer group shared by all scheduler instances consuming link statuses.
+     */
+    @Value("${spring.kafka.link-status.consumer-group}")
+    private String linkStatusGroupId;
+
     /**
      * Configures and returns a KafkaSender bean for sending messages to Kafka.
      * <p>
@@ -35,9 +78,9 @@ public class KafkaConfig {
      * <ul>
      *   <li>Bootstrap servers for Kafka connection</li>
      *   <li>Serializer classes for key and value (both are {@link StringSerializer})</li>
+     *   <li>Linger, batch size and compression, so bulk dispatches are sent in a few large batches</li>
      * </ul>
-     * Additional properties can be added to the configuration to enhance performance,
-     * enable retries, or configure other Kafka producer settings as needed.
+     * The sender does not stop on the first failed record, so bulk sends report failures per record.
      * <p>
      *
      * @return a configured {@link KafkaSender} for producing messages to Kafka topics.
@@ -48,8 +91,33 @@ public class KafkaConfig {
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
 
-        SenderOptions<String, String> senderOptions = SenderOptions.create(props);
+        SenderOptions<String, String> senderOptions = SenderOptions.<String, String>create(props)
+            .maxInFlight(maxInFlight)
+            .stopOnError(false);
         return KafkaSender.create(senderOptions);
     }
+
+    /**
+     * Configures and returns a KafkaReceiver bean consuming the link statuses reported by the news parser.
+     * It is only created when adaptive polling is enabled.
+     *
+     * @return a configured {@link KafkaReceiver} for the link status topic.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "scheduler.adaptive.enabled", havingValue = "true")
+    public KafkaReceiver<String, String> linkStatusReceiver() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, linkStatusGroupId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+        return KafkaReceiver.create(ReceiverOptions.<String, String>create(props)
+            .subscription(Collections.singleton(linkStatusTopic)));
+    }
 }
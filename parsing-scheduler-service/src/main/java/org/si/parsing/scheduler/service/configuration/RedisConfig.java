@@ -1,14 +1,20 @@
 package org.si.parsing.scheduler.service.configuration;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
 import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.serialization.LinkCodec;
+import org.si.parsing.scheduler.service.serialization.LinkRedisSerializer;
+import org.si.parsing.scheduler.service.storage.ClusterLinkKeyspace;
+import org.si.parsing.scheduler.service.storage.LinkKeyspace;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -20,26 +26,69 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class RedisConfig {
 
+    /**
+     * The codec link values are written with: {@code json} or the compact {@code binary} encoding.
+     */
+    @Value("${scheduler.links.codec}")
+    private LinkCodec linkCodec;
+
+    /**
+     * Creates the serializer of link values. It writes links with the configured codec and reads
+     * both JSON and binary values, so existing keys stay readable while they are migrated.
+     *
+     * @return the link value serializer
+     */
+    @Bean
+    LinkRedisSerializer linkRedisSerializer() {
+        return new LinkRedisSerializer(linkCodec);
+    }
+
     /**
      * Configures the ReactiveRedisTemplate to perform Redis operations on objects of type Link.
-     * It uses a custom Jackson2JsonRedisSerializer to serialize and deserialize Link objects
-     * into JSON format, while ensuring Java Time objects are handled properly.
+     * It uses the {@link LinkRedisSerializer} to serialize and deserialize Link objects.
      *
      * @param factory the ReactiveRedisConnectionFactory used to establish a connection to Redis
+     * @param linkRedisSerializer the serializer of link values
      * @return a ReactiveRedisOperations instance configured with serializers for Redis operations
      */
     @Bean
-    ReactiveRedisOperations<String, Link> redisOperations(ReactiveRedisConnectionFactory factory) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-
-        Jackson2JsonRedisSerializer<Link> serializer = new Jackson2JsonRedisSerializer<>(objectMapper, Link.class);
-
+    ReactiveRedisOperations<String, Link> redisOperations(ReactiveRedisConnectionFactory factory,
+                                                          LinkRedisSerializer linkRedisSerializer) {
         RedisSerializationContext.RedisSerializationContextBuilder<String, Link> builder =
             RedisSerializationContext.newSerializationContext(new StringRedisSerializer());
 
-        RedisSerializationContext<String, Link> context = builder.value(serializer).build();
+        RedisSerializationContext<String, Link> context = builder.value(linkRedisSerializer).build();
 
         return new ReactiveRedisTemplate<>(factory, context);
     }
+
+    /**
+     * Opens the connection the primary nodes of a Redis Cluster are scanned through when the links are stored
+     * in a cluster ({@code scheduler.storage.mode=cluster}).
+     *
+     * @param factory the connection factory, configured with {@code spring.data.redis.cluster.nodes}
+     * @return a cluster connection with string keys and values
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "scheduler.storage.mode", havingValue = "cluster")
+    StatefulRedisClusterConnection<String, String> clusterScanConnection(LettuceConnectionFactory factory) {
+        if (!factory.isClusterAware()) {
+            throw new IllegalStateException(
+                "scheduler.storage.mode=cluster requires spring.data.redis.cluster.nodes to be configured");
+        }
+        return ((RedisClusterClient) factory.getRequiredNativeClient()).connect();
+    }
+
+    /**
+     * Lays out the links for a Redis Cluster when {@code scheduler.storage.mode=cluster}.
+     * The standalone layout is used otherwise.
+     *
+     * @param clusterScanConnection the connection the cluster nodes are scanned through
+     * @return the clustered link keyspace
+     */
+    @Bean
+    @ConditionalOnProperty(name = "scheduler.storage.mode", havingValue = "cluster")
+    LinkKeyspace clusterLinkKeyspace(StatefulRedisClusterConnection<String, String> clusterScanConnection) {
+        return ClusterLinkKeyspace.of(clusterScanConnection);
+    }
 }
@@ -0,0 +1,63 @@
+package org.si.parsing.scheduler.service.consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.si.parsing.scheduler.service.model.LinkStatus;
+import org.si.parsing.scheduler.service.service.LinkService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverRecord;
+
+/**
+ * Service consuming the link statuses reported by the news parser and adapting the polling interval
+ * of every reported link to the number of new articles its last poll found.
+ * <p>
+ * Offsets are acknowledged once the link is updated. Malformed statuses are logged and skipped.
+ */
+@RequiredArgsConstructor
+@Service
+@ConditionalOnProperty(name = "scheduler.adaptive.enabled", havingValue = "true")
+public class LinkStatusConsumerService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LinkStatusConsumerService.class);
+
+    private final KafkaReceiver<String, String> linkStatusReceiver;
+    private final LinkService linkService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Starts consuming link statuses once the service is initialized.
+     */
+    @PostConstruct
+    public void startConsuming() {
+        linkStatusReceiver.receive()
+            .concatMap(this::processMessage)
+            .doOnError(error -> LOGGER.error("Link status consumer error", error))
+            .subscribe();
+    }
+
+    private Mono<Void> processMessage(ReceiverRecord<String, String> message) {
+        LinkStatus status;
+        try {
+            status = objectMapper.readValue(message.value(), LinkStatus.class);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Error parsing link status: {}", message.value(), e);
+            message.receiverOffset().acknowledge();
+            return Mono.empty();
+        }
+
+        return linkService.adaptPollInterval(status.url(), status.newArticles())
+            .doOnNext(link -> LOGGER.debug("Polling interval of {} adapted to {}", link.url(), link.pollInterval()))
+            .doOnError(error -> LOGGER.error("Error adapting polling interval of {}: {}",
+                status.url(), error.getMessage()))
+            .onErrorResume(error -> Mono.empty())
+            .doFinally(signal -> message.receiverOffset().acknowledge())
+            .then();
+    }
+}
@@ -1,16 +1,22 @@
 package org.si.parsing.scheduler.service.controller;
 
 import jakarta.validation.constraints.NotBlank;
+import java.time.Duration;
 import lombok.RequiredArgsConstructor;
+import org.si.parsing.scheduler.service.model.BulkLinkResult;
+import org.si.parsing.scheduler.service.model.ExportedLink;
 import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.service.LinkBulkService;
 import org.si.parsing.scheduler.service.service.LinkService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -26,6 +32,7 @@ public class LinkController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LinkController.class);
     private final LinkService linkService;
+    private final LinkBulkService linkBulkService;
 
     /**
      * Get all links
@@ -55,12 +62,14 @@ public class LinkController {
     /**
      * Add a new link to the system
      * @param url The URL to add
+     * @param pollInterval Optional ISO-8601 polling interval of the link (e.g. PT30S), the default one if absent
      * @return Mono of the created Link
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Mono<Link> addLink(@RequestParam @NotBlank String url) {
-        return linkService.addLink(url)
+    public Mono<Link> addLink(@RequestParam @NotBlank String url,
+                              @RequestParam(required = false) Duration pollInterval) {
+        return linkService.addLink(url, pollInterval)
             .doOnSubscribe(subscription -> LOGGER.info("Adding link with URL: {}", url))
             .onErrorResume(error -> Mono.error(new RuntimeException("Error adding link: " + error.getMessage())));
     }
@@ -91,4 +100,41 @@ public class LinkController {
             .doOnSubscribe(subscription -> LOGGER.info("Deleting link with URL: {}", url))
             .onErrorResume(error -> Mono.error(new RuntimeException("Error deleting link: " + error.getMessage())));
     }
+
+    /**
+     * Add or replace links in bulk from newline-delimited JSON, one link per line
+     * @param lines The NDJSON lines, e.g. {"url":"https://example.com","pollInterval":"PT30S"}
+     * @return Flux of the result of every line, streamed as NDJSON
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkLinkResult> upsertLinks(@RequestBody Flux<String> lines) {
+        return linkBulkService.upsert(lines)
+            .doOnSubscribe(subscription -> LOGGER.info("Upserting links in bulk"));
+    }
+
+    /**
+     * Delete links in bulk from newline-delimited JSON, one link per line
+     * @param lines The NDJSON lines, e.g. {"url":"https://example.com"}
+     * @return Flux of the result of every line, streamed as NDJSON
+     */
+    @PostMapping(value = "/bulk-delete", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkLinkResult> deleteLinks(@RequestBody Flux<String> lines) {
+        return linkBulkService.delete(lines)
+            .doOnSubscribe(subscription -> LOGGER.info("Deleting links in bulk"));
+    }
+
+    /**
+     * Export links as newline-delimited JSON, paging through Redis with a SCAN cursor
+     * @param cursor The cursor to resume from, taken from the last line of an interrupted export
+     * @param count Optional number of keys scanned per page
+     * @return Flux of the exported links, streamed as NDJSON
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ExportedLink> exportLinks(@RequestParam(defaultValue = "0") String cursor,
+                                          @RequestParam(defaultValue = "0") int count) {
+        return linkBulkService.export(cursor, count)
+            .doOnSubscribe(subscription -> LOGGER.info("Exporting links from cursor {}", cursor));
+    }
 }
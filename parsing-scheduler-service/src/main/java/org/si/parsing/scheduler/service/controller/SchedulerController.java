@@ -0,0 +1,27 @@
+package org.si.parsing.scheduler.service.controller;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.si.parsing.scheduler.service.metrics.SchedulerMetrics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/scheduler/")
+public class SchedulerController {
+
+    private final SchedulerMetrics schedulerMetrics;
+
+    /**
+     * Get the number of links dispatched to every partition of the links topic since startup
+     * @return Mono of the dispatched links by partition
+     */
+    @GetMapping("/partitions")
+    public Mono<Map<Integer, Long>> getPartitionLoad() {
+        return Mono.fromSupplier(schedulerMetrics::getPartitionLoad);
+    }
+}
@@ -0,0 +1,89 @@
+package org.si.parsing.scheduler.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer metrics of the scheduling cycles, exported through the actuator endpoints.
+ */
+@Component
+public class SchedulerMetrics {
+
+    private final Timer cycleDuration;
+    private final Counter linksDispatched;
+    private final Counter linksSkipped;
+    private final Counter cycleOverruns;
+    private final Map<Integer, Counter> partitionLoad = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Registers the scheduler meters.
+     *
+     * @param meterRegistry the registry the meters are registered in
+     */
+    public SchedulerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.cycleDuration = Timer.builder("scheduler.cycle.duration")
+            .description("Duration of a scheduling cycle")
+            .register(meterRegistry);
+        this.linksDispatched = Counter.builder("scheduler.links.dispatched")
+            .description("Links sent to Kafka and rescheduled")
+            .register(meterRegistry);
+        this.linksSkipped = Counter.builder("scheduler.links.skipped")
+            .description("Due links left for a later cycle because they failed or the cycle was shed")
+            .register(meterRegistry);
+        this.cycleOverruns = Counter.builder("scheduler.cycle.overruns")
+            .description("Ticks skipped because the previous cycle was still running")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Records a finished scheduling cycle.
+     *
+     * @param duration the duration of the cycle
+     * @param dispatched the number of links dispatched
+     * @param skipped the number of due links that were not dispatched
+     */
+    public void recordCycle(Duration duration, long dispatched, long skipped) {
+        cycleDuration.record(duration);
+        linksDispatched.increment(dispatched);
+        linksSkipped.increment(skipped);
+    }
+
+    /**
+     * Records a tick that was skipped because the previous cycle was still running.
+     */
+    public void recordOverrun() {
+        cycleOverruns.increment();
+    }
+
+    /**
+     * Records a link dispatched to a partition of the links topic, building the per-partition load distribution.
+     *
+     * @param partition the partition the link was written to
+     */
+    public void recordPartition(int partition) {
+        partitionLoad.computeIfAbsent(partition, key -> Counter.builder("scheduler.links.partition")
+                .description("Links dispatched per partition of the links topic")
+                .tag("partition", Integer.toString(key))
+                .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * Returns the number of links dispatched to every partition of the links topic since startup.
+     *
+     * @return the dispatched links by partition
+     */
+    public Map<Integer, Long> getPartitionLoad() {
+        Map<Integer, Long> load = new TreeMap<>();
+        partitionLoad.forEach((partition, counter) -> load.put(partition, (long) counter.count()));
+        return load;
+    }
+}
@@ -0,0 +1,34 @@
+package org.si.parsing.scheduler.service.model;
+
+/**
+ * Result of a single line of a bulk link request.
+ *
+ * @param line the number of the line in the request, starting at 1
+ * @param url the URL of the link, {@code null} if the line could not be parsed
+ * @param status the outcome of the line
+ * @param error the reason of the failure, {@code null} unless the line failed
+ */
+public record BulkLinkResult(long line, String url, Status status, String error) {
+
+    /**
+     * Outcome of a line of a bulk link request.
+     */
+    public enum Status {
+        UPSERTED,
+        DELETED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    /**
+     * Creates the result of a line that failed.
+     *
+     * @param line the number of the line
+     * @param url the URL of the link, if known
+     * @param error the reason of the failure
+     * @return the failed result
+     */
+    public static BulkLinkResult failed(long line, String url, String error) {
+        return new BulkLinkResult(line, url, Status.FAILED, error);
+    }
+}
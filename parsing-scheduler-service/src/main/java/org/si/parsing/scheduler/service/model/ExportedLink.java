@@ -0,0 +1,25 @@
+package org.si.parsing.scheduler.service.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A link in a streaming export, with the cursor an interrupted export can be resumed from without missing it.
+ *
+ * @param url the URL of the link
+ * @param lastParsedTime the timestamp of the last dispatch
+ * @param pollInterval the polling interval of the link, {@code null} for the scheduler default
+ * @param cursor the cursor of the page holding the link
+ */
+public record ExportedLink(String url, LocalDateTime lastParsedTime, Duration pollInterval, String cursor) {
+
+    /**
+     * Creates the export line of a link.
+     *
+     * @param link the exported link
+     * @param cursor the cursor of the page holding the link
+     */
+    public ExportedLink(Link link, String cursor) {
+        this(link.url(), link.lastParsedTime(), link.pollInterval(), cursor);
+    }
+}
@@ -1,10 +1,33 @@
 package org.si.parsing.scheduler.service.model;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import org.springframework.data.redis.core.RedisHash;
 
 /**
- * Represents a Link entity stored in Redis with a URL and a timestamp indicating when it was last checked.
+ * Represents a Link entity stored in Redis with a URL, a timestamp indicating when it was last checked
+ * and the interval at which it should be polled. A {@code null} polling interval means the scheduler default.
  */
 @RedisHash("Link")
-public record Link(String url, LocalDateTime lastParsedTime) {}
+public record Link(String url, LocalDateTime lastParsedTime, Duration pollInterval) {
+
+    /**
+     * Creates a link that is polled with the scheduler default interval.
+     *
+     * @param url the URL of the link
+     * @param lastParsedTime the timestamp of the last dispatch
+     */
+    public Link(String url, LocalDateTime lastParsedTime) {
+        this(url, lastParsedTime, null);
+    }
+
+    /**
+     * Returns a copy of this link bound to the given URL.
+     *
+     * @param boundUrl the URL of the link
+     * @return the link with the given URL
+     */
+    public Link withUrl(String boundUrl) {
+        return boundUrl.equals(url) ? this : new Link(boundUrl, lastParsedTime, pollInterval);
+    }
+}
@@ -0,0 +1,12 @@
+package org.si.parsing.scheduler.service.model;
+
+import java.util.List;
+
+/**
+ * A page of links read with a Redis SCAN cursor.
+ *
+ * @param cursor the cursor the page was read from
+ * @param nextCursor the cursor of the next page, {@code "0"} once all links have been read
+ * @param links the links of the page
+ */
+public record LinkPage(String cursor, String nextCursor, List<Link> links) {}
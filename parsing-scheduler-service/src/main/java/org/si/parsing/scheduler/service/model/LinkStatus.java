@@ -0,0 +1,11 @@
+package org.si.parsing.scheduler.service.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Feedback reported by the news parser after a link has been polled.
+ *
+ * @param url the URL of the polled link
+ * @param newArticles the number of new articles the poll found
+ */
+public record LinkStatus(String url, @JsonProperty("new_articles") long newArticles) {}
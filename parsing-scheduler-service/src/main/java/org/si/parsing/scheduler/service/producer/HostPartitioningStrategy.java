@@ -0,0 +1,59 @@
+package org.si.parsing.scheduler.service.producer;
+
+import java.net.URI;
+import java.util.Locale;
+import org.si.parsing.scheduler.service.model.Link;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keys links by their host, so all links of a site stay on a stable partition and are fetched by a single
+ * parser instance, which bounds the concurrent requests to the site and reuses its connections.
+ * <p>
+ * Hosts are spread over the partitions by Kafka's key hash. A host with many links can be allowed to span
+ * several partitions with {@code scheduler.partitioning.host-spread}: its links are then split by URL hash
+ * into that many stable sub-keys.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.partitioning.strategy", havingValue = "host", matchIfMissing = true)
+public class HostPartitioningStrategy implements LinkPartitioningStrategy {
+
+    private static final String WWW_PREFIX = "www.";
+
+    /**
+     * The number of partitions the links of a single host may span.
+     */
+    @Value("${scheduler.partitioning.host-spread:1}")
+    private int hostSpread;
+
+    @Override
+    public String keyOf(Link link) {
+        String host = hostOf(link.url());
+        if (hostSpread <= 1) {
+            return host;
+        }
+        return host + '#' + Math.floorMod(link.url().hashCode(), hostSpread);
+    }
+
+    /**
+     * Extracts the lower-cased host of a URL without its {@code www.} prefix.
+     * URLs without a parsable host are keyed by themselves.
+     *
+     * @param url the URL
+     * @return the host of the URL
+     */
+    static String hostOf(String url) {
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            host = null;
+        }
+        if (host == null) {
+            return url;
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        return host.startsWith(WWW_PREFIX) ? host.substring(WWW_PREFIX.length()) : host;
+    }
+}
@@ -1,5 +1,6 @@
 package org.si.parsing.scheduler.service.producer;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.si.parsing.scheduler.service.model.Link;
@@ -22,7 +23,11 @@ import reactor.kafka.sender.SenderResult;
 public class KafkaProducerService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KafkaProducerService.class);
+    private static final String URL_FIELD = "{\"url\":\"";
+    private static final String LAST_PARSED_TIME_FIELD = "\", \"last_parsed_time\":\"";
+
     private final KafkaSender<String, String> kafkaSender;
+    private final LinkPartitioningStrategy partitioningStrategy;
 
     /**
      * The Kafka topic to which links will be sent.
@@ -41,22 +46,56 @@ public class KafkaProducerService {
      * @return a {@link Mono} indicating the completion of the Kafka send operation
      */
     public Mono<Void> sendLinkToKafka(Link link) {
-        String message = String.format("{\"url\":\"%s\", \"last_parsed_time\":\"%s\"}",
-            link.url(), link.lastParsedTime());
-
-        SenderRecord<String, String, String> senderRecord = SenderRecord.create(
-            new ProducerRecord<>(topic, link.url(), message), link.url()
-        );
-
-        Flux<SenderResult<String>> resultFlux = kafkaSender.send(Flux.just(senderRecord));
-
-        return resultFlux
+        return sendLinksToKafka(Flux.just(link))
+            .flatMap(senderResult -> senderResult.exception() != null
+                ? Mono.error(senderResult.exception())
+                : Mono.just(senderResult))
             .doOnNext(senderResult -> LOGGER.info("Message sent successfully: {}", senderResult))
             .doOnError(error -> LOGGER.error("Error sending message to Kafka: {}", error.getMessage()))
             .then();
     }
 
+    /**
+     * Sends a stream of {@link Link} objects to Kafka through a single send pipeline.
+     * <p>
+     * All records share one {@link KafkaSender#send} stream, so they are batched by the producer
+     * according to its linger, batch size and compression settings instead of paying the per-send overhead.
+     * A failed record does not terminate the stream: its failure is reported in
+     * {@link SenderResult#exception()} and the remaining records are still sent.
+     * Records are keyed by the configured {@link LinkPartitioningStrategy}.
+     * </p>
+     *
+     * @param links the links to be sent to Kafka
+     * @return a {@link Flux} with one {@link SenderResult} per link, correlated by the link URL
+     */
+    public Flux<SenderResult<String>> sendLinksToKafka(Flux<Link> links) {
+        return kafkaSender.send(links.map(this::toSenderRecord))
+            .doOnNext(senderResult -> {
+                if (senderResult.exception() != null) {
+                    LOGGER.error("Error sending link {} to Kafka: {}",
+                        senderResult.correlationMetadata(), senderResult.exception().getMessage());
+                }
+            })
+            .doOnError(error -> LOGGER.error("Error sending links to Kafka: {}", error.getMessage()));
+    }
+
     public void setTopic(String topic) {
         this.topic = topic;
     }
+
+    private SenderRecord<String, String, String> toSenderRecord(Link link) {
+        return SenderRecord.create(new ProducerRecord<>(topic, partitioningStrategy.keyOf(link), toMessage(link)),
+            link.url());
+    }
+
+    private static String toMessage(Link link) {
+        return URL_FIELD + escape(link.url()) + LAST_PARSED_TIME_FIELD + link.lastParsedTime() + "\"}";
+    }
+
+    /**
+     * Escapes a value for a JSON string literal, including quotes, backslashes and control characters.
+     */
+    static String escape(String value) {
+        return new String(JsonStringEncoder.getInstance().quoteAsString(value));
+    }
 }
@@ -0,0 +1,22 @@
+package org.si.parsing.scheduler.service.producer;
+
+import org.si.parsing.scheduler.service.model.Link;
+
+/**
+ * Strategy choosing the Kafka record key of a dispatched link. Kafka hashes the key to pick the partition,
+ * so links sharing a key always land on the same partition and are consumed by the same parser instance.
+ * <p>
+ * The strategy is selected with {@code scheduler.partitioning.strategy}: {@code host} (the default, see
+ * {@link HostPartitioningStrategy}) or {@code url} (see {@link UrlPartitioningStrategy}). Any other value
+ * disables both, so a custom implementation can be provided as a bean.
+ */
+public interface LinkPartitioningStrategy {
+
+    /**
+     * Returns the record key of a link.
+     *
+     * @param link the dispatched link
+     * @return the Kafka record key
+     */
+    String keyOf(Link link);
+}
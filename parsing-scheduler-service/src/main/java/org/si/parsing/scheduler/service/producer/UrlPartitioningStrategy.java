@@ -0,0 +1,18 @@
+package org.si.parsing.scheduler.service.producer;
+
+import org.si.parsing.scheduler.service.model.Link;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keys links by their full URL, spreading the links of a site across all partitions.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.partitioning.strategy", havingValue = "url")
+public class UrlPartitioningStrategy implements LinkPartitioningStrategy {
+
+    @Override
+    public String keyOf(Link link) {
+        return link.url();
+    }
+}
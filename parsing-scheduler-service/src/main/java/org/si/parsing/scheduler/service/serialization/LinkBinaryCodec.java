@@ -0,0 +1,115 @@
+package org.si.parsing.scheduler.service.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.si.parsing.scheduler.service.model.Link;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Compact binary encoding of link values.
+ * <p>
+ * A value starts with a version byte followed by unsigned LEB128 varints: the last parsed time in epoch
+ * milliseconds (the local date-time taken at UTC) and the polling interval in milliseconds. Zero encodes
+ * a missing value. The URL is not stored, as it is the key of the value; decoded links carry a {@code null}
+ * URL until the caller binds them to their key.
+ * <p>
+ * The version byte never starts a JSON document, so binary and JSON values can be told apart and coexist
+ * while keys are migrated. The same layout is decoded by the Lua scripts in {@code scripts/link-codec.lua}.
+ */
+public final class LinkBinaryCodec {
+
+    /**
+     * The version byte of the current binary layout.
+     */
+    public static final byte VERSION_1 = 1;
+
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION = 0x80;
+    private static final int MAX_VARINT_BYTES = 10;
+    private static final int MAX_LENGTH = 1 + 2 * MAX_VARINT_BYTES;
+
+    private LinkBinaryCodec() {
+    }
+
+    /**
+     * Tells whether a stored value uses the binary encoding.
+     *
+     * @param bytes the stored value
+     * @return {@code true} if the value is binary encoded
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] == VERSION_1;
+    }
+
+    /**
+     * Encodes a link. The URL is not encoded.
+     *
+     * @param link the link to encode
+     * @return the encoded link
+     */
+    public static byte[] encode(Link link) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(MAX_LENGTH);
+        out.write(VERSION_1);
+        writeVarint(out, encodeTime(link.lastParsedTime()));
+        writeVarint(out, link.pollInterval() != null ? link.pollInterval().toMillis() : 0L);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a binary encoded link.
+     *
+     * @param bytes the encoded link
+     * @return the decoded link, with a {@code null} URL
+     */
+    public static Link decode(byte[] bytes) {
+        if (!isBinary(bytes)) {
+            throw new SerializationException("Unsupported link encoding version");
+        }
+        int[] position = {1};
+        long time = readVarint(bytes, position);
+        long interval = readVarint(bytes, position);
+        return new Link(null, decodeTime(time), interval != 0 ? Duration.ofMillis(interval) : null);
+    }
+
+    /**
+     * Encodes a last parsed time as epoch milliseconds, the way it is stored in binary values.
+     *
+     * @param time the time to encode, may be {@code null}
+     * @return the encoded time, zero for {@code null}
+     */
+    public static long encodeTime(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+    }
+
+    private static LocalDateTime decodeTime(long time) {
+        return time != 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC) : null;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        if (value < 0) {
+            throw new SerializationException("Cannot encode negative value " + value);
+        }
+        long remaining = value;
+        while ((remaining & ~VARINT_PAYLOAD_MASK) != 0) {
+            out.write((int) (remaining & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION);
+            remaining >>>= VARINT_PAYLOAD_BITS;
+        }
+        out.write((int) remaining);
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; position[0] < bytes.length; shift += VARINT_PAYLOAD_BITS) {
+            int current = bytes[position[0]++];
+            value |= (long) (current & VARINT_PAYLOAD_MASK) << shift;
+            if ((current & VARINT_CONTINUATION) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Truncated binary link");
+    }
+}
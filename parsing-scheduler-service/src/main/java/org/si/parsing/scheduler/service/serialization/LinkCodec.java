@@ -0,0 +1,17 @@
+package org.si.parsing.scheduler.service.serialization;
+
+/**
+ * Encodings of the link values stored in Redis.
+ */
+public enum LinkCodec {
+
+    /**
+     * Jackson JSON, including the URL.
+     */
+    JSON,
+
+    /**
+     * Compact versioned binary encoding, see {@link LinkBinaryCodec}.
+     */
+    BINARY
+}
@@ -0,0 +1,77 @@
+package org.si.parsing.scheduler.service.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.si.parsing.scheduler.service.model.Link;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis serializer of link values.
+ * <p>
+ * Links are written with the configured {@link LinkCodec}. Both JSON and binary values are read, so keys
+ * written with another codec stay readable until they are migrated. Binary values do not carry the URL:
+ * links read from them have a {@code null} URL and must be bound to their key with {@link Link#withUrl(String)}.
+ */
+public class LinkRedisSerializer implements RedisSerializer<Link> {
+
+    private final Jackson2JsonRedisSerializer<Link> jsonSerializer;
+    private final LinkCodec codec;
+
+    /**
+     * Creates a serializer writing links with the given codec.
+     *
+     * @param codec the codec used to write links
+     */
+    public LinkRedisSerializer(LinkCodec codec) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        this.jsonSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, Link.class);
+        this.codec = codec;
+    }
+
+    /**
+     * Returns the codec links are written with.
+     *
+     * @return the codec
+     */
+    public LinkCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    public byte[] serialize(Link link) {
+        if (link == null) {
+            return new byte[0];
+        }
+        return codec == LinkCodec.BINARY ? LinkBinaryCodec.encode(link) : jsonSerializer.serialize(link);
+    }
+
+    @Override
+    public Link deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        return LinkBinaryCodec.isBinary(bytes) ? LinkBinaryCodec.decode(bytes) : jsonSerializer.deserialize(bytes);
+    }
+
+    /**
+     * Serializes a link as JSON, whatever the configured codec.
+     *
+     * @param link the link to serialize
+     * @return the JSON encoded link
+     */
+    public byte[] serializeJson(Link link) {
+        return jsonSerializer.serialize(link);
+    }
+
+    /**
+     * Tells whether a stored value is written with the configured codec.
+     *
+     * @param bytes the stored value
+     * @return {@code true} if the value does not need to be migrated
+     */
+    public boolean isCurrentEncoding(byte[] bytes) {
+        return LinkBinaryCodec.isBinary(bytes) == (codec == LinkCodec.BINARY);
+    }
+}
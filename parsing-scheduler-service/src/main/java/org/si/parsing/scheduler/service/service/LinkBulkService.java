@@ -0,0 +1,148 @@
+package org.si.parsing.scheduler.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.si.parsing.scheduler.service.model.BulkLinkResult;
+import org.si.parsing.scheduler.service.model.ExportedLink;
+import org.si.parsing.scheduler.service.model.Link;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Service for bulk import and export of links as newline-delimited JSON.
+ * <p>
+ * Every line of a bulk request holds one link, e.g. {@code {"url":"https://...","pollInterval":"PT30S"}}.
+ * Lines are parsed independently, written to Redis in batches of {@code write-batch-size} and answered with
+ * one {@link BulkLinkResult} per line, in order, so a malformed line never fails the rest of the request.
+ */
+@RequiredArgsConstructor
+@Service
+public class LinkBulkService {
+
+    private final LinkService linkService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The number of lines written to Redis with a single batch.
+     */
+    @Value("${scheduler.links.write-batch-size}")
+    private int writeBatchSize;
+
+    /**
+     * The number of keys scanned per page of an export.
+     */
+    @Value("${scheduler.links.read-batch-size}")
+    private int readBatchSize;
+
+    /**
+     * Adds or replaces the links of a stream of NDJSON lines.
+     *
+     * @param lines the lines of the request
+     * @return a {@link Flux} with the result of every line
+     */
+    public Flux<BulkLinkResult> upsert(Flux<String> lines) {
+        return process(lines, batch -> linkService.upsertLinks(batchOf(batch).links())
+            .thenMany(Flux.fromIterable(batch)
+                .map(line -> new BulkLinkResult(line.number(), line.link().url(),
+                    BulkLinkResult.Status.UPSERTED, null))));
+    }
+
+    /**
+     * Deletes the links of a stream of NDJSON lines. Only the URL of every line is used.
+     *
+     * @param lines the lines of the request
+     * @return a {@link Flux} with the result of every line
+     */
+    public Flux<BulkLinkResult> delete(Flux<String> lines) {
+        return process(lines, batch -> linkService.deleteLinks(batchOf(batch).urls())
+            .zipWithIterable(batch, (deleted, line) -> new BulkLinkResult(line.number(), line.link().url(),
+                deleted ? BulkLinkResult.Status.DELETED : BulkLinkResult.Status.NOT_FOUND, null)));
+    }
+
+    /**
+     * Streams all links from a cursor, one line per link. Every line carries the cursor the export can be
+     * resumed from without missing that link.
+     *
+     * @param cursor the cursor to start from, {@code "0"} to export all links
+     * @param count the number of keys scanned per page, the configured read batch size if not positive
+     * @return a {@link Flux} of the exported links
+     */
+    public Flux<ExportedLink> export(String cursor, int count) {
+        return linkService.getLinkPages(cursor, count > 0 ? count : readBatchSize)
+            .concatMapIterable(page -> page.links().stream()
+                .map(link -> new ExportedLink(link, page.cursor()))
+                .toList());
+    }
+
+    private Flux<BulkLinkResult> process(Flux<String> lines,
+                                         Function<List<ParsedLine>, Flux<BulkLinkResult>> writer) {
+        return lines
+            .index((index, line) -> parse(index + 1, line))
+            .filter(parsed -> parsed.link() != null || parsed.error() != null)
+            .buffer(writeBatchSize)
+            .concatMap(batch -> {
+                List<ParsedLine> valid = new ArrayList<>(batch.size());
+                for (ParsedLine line : batch) {
+                    if (line.error() == null) {
+                        valid.add(line);
+                    }
+                }
+                Flux<BulkLinkResult> written = valid.isEmpty()
+                    ? Flux.empty()
+                    : writer.apply(valid).onErrorResume(error -> Flux.fromIterable(valid)
+                        .map(line -> BulkLinkResult.failed(line.number(), line.link().url(), error.getMessage())));
+                return Flux.merge(written, failures(batch))
+                    .collectSortedList((left, right) -> Long.compare(left.line(), right.line()))
+                    .flatMapIterable(Function.identity());
+            });
+    }
+
+    private static Flux<BulkLinkResult> failures(List<ParsedLine> batch) {
+        return Flux.fromIterable(batch)
+            .filter(line -> line.error() != null)
+            .map(line -> BulkLinkResult.failed(line.number(), null, line.error()));
+    }
+
+    /**
+     * Parses a line. Blank lines are skipped and reported by neither a link nor an error.
+     */
+    private ParsedLine parse(long number, String line) {
+        if (line.isBlank()) {
+            return new ParsedLine(number, null, null);
+        }
+        try {
+            Link link = objectMapper.readValue(line, Link.class);
+            if (link.url() == null || link.url().isBlank()) {
+                return new ParsedLine(number, null, "URL must not be empty");
+            }
+            return new ParsedLine(number, link, null);
+        } catch (JsonProcessingException e) {
+            return new ParsedLine(number, null, "Malformed line: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Batch batchOf(List<ParsedLine> lines) {
+        List<Link> links = new ArrayList<>(lines.size());
+        List<String> urls = new ArrayList<>(lines.size());
+        for (ParsedLine line : lines) {
+            links.add(line.link());
+            urls.add(line.link().url());
+        }
+        return new Batch(links, urls);
+    }
+
+    /**
+     * A line of a bulk request with either its parsed link or the reason it could not be parsed.
+     */
+    private record ParsedLine(long number, Link link, String error) {}
+
+    /**
+     * The links of a batch of valid lines and their URLs, in line order.
+     */
+    private record Batch(List<Link> links, List<String> urls) {}
+}
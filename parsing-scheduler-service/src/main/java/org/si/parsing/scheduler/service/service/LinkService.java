@@ -1,10 +1,45 @@
 package org.si.parsing.scheduler.service.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import org.si.parsing.scheduler.service.cache.LinkCache;
 import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.model.LinkPage;
+import org.si.parsing.scheduler.service.serialization.LinkBinaryCodec;
+import org.si.parsing.scheduler.service.serialization.LinkRedisSerializer;
+import org.si.parsing.scheduler.service.storage.KeyPage;
+import org.si.parsing.scheduler.service.storage.LinkKeyspace;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -12,48 +47,225 @@ import reactor.core.publisher.Mono;
 /**
  * Service for managing links stored in Redis.
  * Provides methods to add, update, delete, and retrieve links.
+ * <p>
+ * Besides the link values, the service maintains a sorted set (the due-time index) that scores every
+ * link URL by the epoch millisecond at which it has to be dispatched next, so the scheduler only reads
+ * the links that are actually due. The index is split into a fixed number of shards by URL hash, so that
+ * several scheduler instances can each dispatch their own slice of the links.
+ * <p>
+ * The keys of the links and of the index shards are laid out by the {@link LinkKeyspace}, which places a link
+ * and its index shard in the same Redis Cluster slot when the links are stored in a cluster. Batches are split
+ * by shard in that case, so every command and script only touches the keys of a single slot. The members of the
+ * index are link keys, which are the URLs themselves in a standalone deployment.
  */
 @RequiredArgsConstructor
 @Service
 public class LinkService {
 
+    /**
+     * Key prefix of the sorted sets indexing link URLs by their next due time in epoch milliseconds.
+     * The index of a shard is stored under this prefix followed by a colon and the shard number.
+     */
+    public static final String DUE_INDEX_KEY = "links:due";
+
+    private static final RedisScript<Link> UPDATE_LAST_CHECKED_SCRIPT =
+        linkScript("update-last-checked.lua", Link.class);
+    private static final RedisScript<Long> MARK_DISPATCHED_SCRIPT =
+        linkScript("mark-dispatched.lua", Long.class);
+    private static final RedisScript<Link> ADAPT_POLL_INTERVAL_SCRIPT =
+        linkScript("adapt-poll-interval.lua", Link.class);
+    private static final RedisScript<Long> UPSERT_LINKS_SCRIPT =
+        linkScript("upsert-links.lua", Long.class);
+    private static final RedisScript<Long> MIGRATE_LINKS_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/migrate-links.lua"), Long.class);
+    private static final RedisSerializationContext<String, byte[]> RAW_VALUE_CONTEXT =
+        RedisSerializationContext.<String, byte[]>newSerializationContext(new StringRedisSerializer())
+            .value(RedisSerializer.byteArray())
+            .build();
+    private static final RedisElementWriter<ByteBuffer> RAW_ARGS_WRITER = buffer -> buffer;
+    private static final RedisElementReader<Long> LONG_READER =
+        RedisElementReader.from(new GenericToStringSerializer<>(Long.class));
+    private static final Comparator<ZSetOperations.TypedTuple<String>> DUE_ORDER =
+        Comparator.comparing(ZSetOperations.TypedTuple::getScore);
+
     private final ReactiveRedisOperations<String, Link> reactiveRedisTemplate;
+    private final LinkRedisSerializer linkRedisSerializer;
+    private final LinkCache linkCache;
+    private final LinkKeyspace linkKeyspace;
+    private final Clock clock;
+
+    /**
+     * Polling interval used for links that do not define their own.
+     */
+    @Value("${scheduler.links.default-poll-interval}")
+    private Duration defaultPollInterval;
+
+    /**
+     * Number of link values read from Redis with a single MGET.
+     */
+    @Value("${scheduler.links.read-batch-size}")
+    private int readBatchSize;
+
+    /**
+     * Number of MGET batches that may be in flight at the same time during bulk reads.
+     */
+    @Value("${scheduler.links.read-concurrency}")
+    private int readConcurrency;
+
+    /**
+     * Number of shards the due-time index is split into. Changing it requires rebuilding the index.
+     */
+    @Value("${scheduler.sharding.shard-count}")
+    private int shardCount;
+
+    /**
+     * Lower bound of the adapted polling intervals.
+     */
+    @Value("${scheduler.adaptive.min-interval}")
+    private Duration minPollInterval;
+
+    /**
+     * Upper bound of the adapted polling intervals.
+     */
+    @Value("${scheduler.adaptive.max-interval}")
+    private Duration maxPollInterval;
+
+    /**
+     * Amount the polling interval grows by after a poll that found no new articles.
+     */
+    @Value("${scheduler.adaptive.increase-step}")
+    private Duration pollIntervalIncreaseStep;
+
+    /**
+     * Factor the polling interval is divided by after a poll that found new articles.
+     */
+    @Value("${scheduler.adaptive.decrease-factor}")
+    private double pollIntervalDecreaseFactor;
+
+    /**
+     * Whether rescheduled links are moved to their own phase within their interval, so links sharing an interval
+     * are dispatched evenly across it instead of all at once.
+     */
+    @Value("${scheduler.dispatch.smoothing}")
+    private boolean smoothing;
 
     /**
-     * Adds a new link to Redis with the current timestamp.
+     * Adds a new link to Redis with the current timestamp and the default polling interval.
      *
      * @param url The URL of the link to be added.
      * @return A {@link Mono} containing the added {@link Link}.
      */
     public Mono<Link> addLink(String url) {
-        Link link = new Link(url, LocalDateTime.now());
-        return reactiveRedisTemplate.opsForValue().set(url, link)
+        return addLink(url, null);
+    }
+
+    /**
+     * Adds a new link to Redis with the current timestamp and makes it due immediately.
+     *
+     * @param url The URL of the link to be added.
+     * @param pollInterval The polling interval of the link, or {@code null} to use the default one.
+     * @return A {@link Mono} containing the added {@link Link}.
+     */
+    public Mono<Link> addLink(String url, Duration pollInterval) {
+        Link link = new Link(url, now(), pollInterval);
+        String key = linkKey(url);
+        return reactiveRedisTemplate.opsForValue().set(key, link)
+            .then(dueIndex().add(dueIndexKey(url), key, clock.millis()))
+            .doFinally(signal -> linkCache.invalidate(url))
             .thenReturn(link);
     }
 
     /**
-     * Retrieves a link from Redis by its URL.
+     * Retrieves a link by its URL, from the near-cache when it holds it and from Redis otherwise.
      *
      * @param url The URL of the link to retrieve.
      * @return A {@link Mono} containing the {@link Link}, or empty if not found.
      */
     public Mono<Link> getLinkByUrl(String url) {
-        return reactiveRedisTemplate.opsForValue().get(url);
+        return linkCache.get(url, key -> reactiveRedisTemplate.opsForValue().get(linkKey(key))
+            .map(link -> link.withUrl(key)));
     }
 
     /**
-     * Updates the "lastParsedTime" timestamp of an existing link.
+     * Updates the "lastParsedTime" timestamp of an existing link and schedules its next dispatch
+     * one polling interval from now, moved to the link's phase when smoothing is enabled.
+     * <p>
+     * The update runs as a single server-side script, so it costs one round trip and never recreates
+     * a link that was deleted concurrently.
      *
      * @param url The URL of the link to update.
-     * @return A {@link Mono} containing the updated {@link Link}.
+     * @return A {@link Mono} containing the updated {@link Link}, or empty if not found.
      */
     public Mono<Link> updateLastChecked(String url) {
-        return getLinkByUrl(url)
-            .flatMap(existingLink -> {
-                Link updateLink = new Link(existingLink.url(), LocalDateTime.now());
-                return reactiveRedisTemplate.opsForValue().set(url, updateLink)
-                    .thenReturn(updateLink);
-            });
+        return reactiveRedisTemplate.execute(UPDATE_LAST_CHECKED_SCRIPT, List.of(dueIndexKey(url), linkKey(url)),
+                dispatchScriptArgs(clock.instant()), RAW_ARGS_WRITER,
+                reactiveRedisTemplate.getSerializationContext().getValueSerializationPair().getReader())
+            .next()
+            .map(link -> link.withUrl(url))
+            .doFinally(signal -> linkCache.invalidate(url));
+    }
+
+    /**
+     * Marks a batch of links as dispatched in a single round trip, or one per shard when the links are stored
+     * in a cluster: updates their "lastParsedTime" timestamp and schedules their next dispatch one polling
+     * interval from now. Links that no longer exist are skipped.
+     *
+     * @param urls The URLs of the dispatched links.
+     * @return A {@link Mono} containing the number of updated links.
+     */
+    public Mono<Long> markDispatched(Collection<String> urls) {
+        return markDispatched(urls, clock.instant());
+    }
+
+    /**
+     * Marks a batch of links as dispatched at a given instant, e.g. links dispatched while Redis was unavailable:
+     * sets their "lastParsedTime" timestamp to that instant and schedules their next dispatch one polling
+     * interval after it. Links that no longer exist are skipped.
+     *
+     * @param urls The URLs of the dispatched links.
+     * @param dispatchedAt The instant the links were dispatched at.
+     * @return A {@link Mono} containing the number of updated links.
+     */
+    public Mono<Long> markDispatched(Collection<String> urls, Instant dispatchedAt) {
+        if (urls.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<ByteBuffer> args = dispatchScriptArgs(dispatchedAt);
+        return Flux.fromIterable(slotGroups(linkKeys(urls)))
+            .flatMap(group -> {
+                List<String> keys = new ArrayList<>(group.size() * 2);
+                for (String key : group) {
+                    keys.add(dueIndexKey(shardOfKey(key)));
+                    keys.add(key);
+                }
+                return reactiveRedisTemplate.execute(MARK_DISPATCHED_SCRIPT, keys, args, RAW_ARGS_WRITER, LONG_READER)
+                    .next();
+            })
+            .reduce(0L, Long::sum)
+            .doFinally(signal -> linkCache.invalidateAll(urls));
+    }
+
+    /**
+     * Adapts the polling interval of a link to the number of new articles its last poll found (AIMD):
+     * the interval is divided by the decrease factor when new articles were found and grows by the
+     * increase step otherwise, within the configured bounds. The link is rescheduled one adapted
+     * interval from now.
+     *
+     * @param url The URL of the polled link.
+     * @param newArticles The number of new articles the poll found.
+     * @return A {@link Mono} containing the updated {@link Link}, or empty if not found.
+     */
+    public Mono<Link> adaptPollInterval(String url, long newArticles) {
+        List<ByteBuffer> args = List.of(asArg(newArticles), asArg(clock.millis()),
+            asArg(defaultPollInterval.toMillis()), asArg(minPollInterval.toMillis()),
+            asArg(maxPollInterval.toMillis()), asArg(pollIntervalIncreaseStep.toMillis()),
+            asArg(Double.toString(pollIntervalDecreaseFactor)), smoothingArg());
+        return reactiveRedisTemplate.execute(ADAPT_POLL_INTERVAL_SCRIPT, List.of(dueIndexKey(url), linkKey(url)), args,
+                RAW_ARGS_WRITER,
+                reactiveRedisTemplate.getSerializationContext().getValueSerializationPair().getReader())
+            .next()
+            .map(link -> link.withUrl(url))
+            .doFinally(signal -> linkCache.invalidate(url));
     }
 
     /**
@@ -63,19 +275,398 @@ public class LinkService {
      * @return A {@link Mono} containing {@code true} if the link was deleted, or {@code false} if not found.
      */
     public Mono<Boolean> deleteLink(String url) {
-        return reactiveRedisTemplate.opsForValue().get(url)
-            .flatMap(existing -> reactiveRedisTemplate.opsForValue().delete(url)
-                .thenReturn(true))
-            .switchIfEmpty(Mono.just(false));
+        String key = linkKey(url);
+        return reactiveRedisTemplate.opsForValue().delete(key)
+            .flatMap(deleted -> deleted
+                ? dueIndex().remove(dueIndexKey(url), key).thenReturn(true)
+                : Mono.just(false))
+            .doFinally(signal -> linkCache.invalidate(url));
+    }
+
+    /**
+     * Adds or replaces a batch of links with a single server-side script, or one per shard when the links are
+     * stored in a cluster. New links are due immediately, while links that are already indexed keep their due
+     * time, so re-importing a link set does not make all of them due at once. A replaced link without its own
+     * polling interval keeps the interval stored for it, e.g. one adapted to its feed. Links without a last
+     * parsed time get the current time.
+     *
+     * @param links The links to write.
+     * @return A {@link Mono} completing once all links are written.
+     */
+    public Mono<Void> upsertLinks(List<Link> links) {
+        if (links.isEmpty()) {
+            return Mono.empty();
+        }
+        LocalDateTime now = now();
+        ByteBuffer dueNow = asArg(clock.millis());
+        Map<String, Link> byKey = new LinkedHashMap<>();
+        List<String> urls = new ArrayList<>(links.size());
+        for (Link link : links) {
+            byKey.put(linkKey(link.url()), link.lastParsedTime() != null
+                ? link
+                : new Link(link.url(), now, link.pollInterval()));
+            urls.add(link.url());
+        }
+        return Flux.fromIterable(slotGroups(new ArrayList<>(byKey.keySet())))
+            .flatMap(group -> {
+                List<String> keys = new ArrayList<>(group.size() * 2);
+                List<ByteBuffer> args = new ArrayList<>(group.size() + 1);
+                args.add(dueNow);
+                for (String key : group) {
+                    keys.add(dueIndexKey(shardOfKey(key)));
+                    keys.add(key);
+                    args.add(ByteBuffer.wrap(linkRedisSerializer.serialize(byKey.get(key))));
+                }
+                return reactiveRedisTemplate.execute(UPSERT_LINKS_SCRIPT, keys, args, RAW_ARGS_WRITER, LONG_READER)
+                    .next();
+            })
+            .doFinally(signal -> linkCache.invalidateAll(urls))
+            .then();
+    }
+
+    /**
+     * Deletes a batch of links. The deletes are issued concurrently, so they are pipelined on the connection,
+     * and the deleted links are removed from the due-time index with one ZREM per shard.
+     *
+     * @param urls The URLs of the links to delete.
+     * @return A {@link Flux} with one element per URL, in order: {@code true} if the link was deleted,
+     *     {@code false} if not found.
+     */
+    public Flux<Boolean> deleteLinks(List<String> urls) {
+        List<String> keys = linkKeys(urls);
+        return Flux.fromIterable(keys)
+            .flatMapSequential(key -> reactiveRedisTemplate.opsForValue().delete(key))
+            .collectList()
+            .flatMapMany(deleted -> {
+                List<String> removed = new ArrayList<>();
+                for (int i = 0; i < keys.size(); i++) {
+                    if (deleted.get(i)) {
+                        removed.add(keys.get(i));
+                    }
+                }
+                return Flux.fromIterable(groupByShard(removed).entrySet())
+                    .flatMap(group -> dueIndex().remove(dueIndexKey(group.getKey()), group.getValue().toArray()))
+                    .thenMany(Flux.fromIterable(deleted));
+            })
+            .doFinally(signal -> linkCache.invalidateAll(urls));
+    }
+
+    /**
+     * Reads one page of links with a SCAN cursor of the {@link LinkKeyspace}. Paging through all links from
+     * cursor {@code "0"} until the next cursor is {@code "0"} again returns every link that exists for the whole
+     * duration at least once; links may be returned more than once, and pages may be empty.
+     *
+     * @param cursor The cursor to read from, {@code "0"} to start.
+     * @param count The number of keys to scan for the page.
+     * @return A {@link Mono} containing the page.
+     */
+    public Mono<LinkPage> getLinksPage(String cursor, int count) {
+        return linkKeyspace.scanLinkKeys(cursor, count)
+            .flatMap(page -> multiGet(page.keys()).collectList()
+                .map(links -> new LinkPage(cursor, page.nextCursor(), links)));
+    }
+
+    /**
+     * Streams all links page by page from a cursor, reading a page only once the previous one is consumed.
+     *
+     * @param cursor The cursor to start from, {@code "0"} to start from the beginning.
+     * @param count The number of keys to scan per page.
+     * @return A {@link Flux} of the pages, ending with the page whose next cursor is {@code "0"}.
+     */
+    public Flux<LinkPage> getLinkPages(String cursor, int count) {
+        return getLinksPage(cursor, count)
+            .expand(page -> KeyPage.FIRST_CURSOR.equals(page.nextCursor())
+                ? Mono.empty()
+                : getLinksPage(page.nextCursor(), count));
     }
 
     /**
      * Retrieves all links stored in Redis.
+     * <p>
+     * Keys are scanned in pages of {@code read-batch-size}, on all cluster nodes in parallel when the links are
+     * stored in a cluster, and every page is fetched with a single MGET per slot, with at most
+     * {@code read-concurrency} pages in flight, so the cost is one round trip per page instead of one per key.
      *
      * @return A {@link Flux} containing all {@link Link} objects.
      */
     public Flux<Link> getAllLinks() {
-        return reactiveRedisTemplate.scan()
-            .flatMap(key -> reactiveRedisTemplate.opsForValue().get(key));
+        return linkKeyspace.scanLinkKeys(readBatchSize)
+            .buffer(readBatchSize)
+            .flatMapSequential(this::multiGet, readConcurrency, readBatchSize);
+    }
+
+    /**
+     * Retrieves the links of the given shards. The due-time index of every shard is read with ZSCAN and every
+     * page of link keys is fetched with a single MGET per slot, with at most {@code read-concurrency} pages in
+     * flight, so only the keys of these shards are read instead of scanning the whole keyspace.
+     *
+     * @param shards The shards to read the links of.
+     * @return A {@link Flux} containing the {@link Link} objects of the shards.
+     */
+    public Flux<Link> getShardLinks(Collection<Integer> shards) {
+        ScanOptions options = ScanOptions.scanOptions().count(readBatchSize).build();
+        return Flux.fromIterable(shards)
+            .concatMap(shard -> dueIndex().scan(dueIndexKey(shard), options)
+                .map(ZSetOperations.TypedTuple::getValue)
+                .buffer(readBatchSize)
+                .flatMapSequential(this::multiGet, readConcurrency, readBatchSize));
+    }
+
+    /**
+     * Retrieves the links of all shards whose next due time is not later than the given instant.
+     *
+     * @param now The instant against which due times are compared.
+     * @param limit The maximum number of links to return.
+     * @return A {@link Flux} containing the due {@link Link} objects.
+     */
+    public Flux<Link> getDueLinks(Instant now, long limit) {
+        return getDueLinks(allShards(), now, limit);
+    }
+
+    /**
+     * Retrieves the links of the given shards whose next due time is not later than the given instant,
+     * most overdue first across all the shards, so a limit below the number of due links is shared by the shards
+     * according to how overdue their links are instead of being filled by the first shards. Every shard is read
+     * with a single ZRANGEBYSCORE of at most {@code limit} entries and only the link values kept are fetched.
+     * Index entries whose link value no longer exists are removed from the index.
+     *
+     * @param shards The shards to read due links from.
+     * @param now The instant against which due times are compared.
+     * @param limit The maximum number of links to return.
+     * @return A {@link Flux} containing the due {@link Link} objects.
+     */
+    public Flux<Link> getDueLinks(Collection<Integer> shards, Instant now, long limit) {
+        Range<Double> dueRange = Range.closed(Double.NEGATIVE_INFINITY, (double) now.toEpochMilli());
+        Limit shardLimit = Limit.limit().count(Math.toIntExact(limit));
+        return Flux.fromIterable(shards)
+            .flatMap(shard -> dueIndex().rangeByScoreWithScores(dueIndexKey(shard), dueRange, shardLimit))
+            .collectSortedList(DUE_ORDER)
+            .flatMapIterable(entries -> entries.subList(0, (int) Math.min(limit, entries.size())))
+            .map(ZSetOperations.TypedTuple::getValue)
+            .buffer(readBatchSize)
+            .concatMap(keys -> Flux.fromIterable(slotGroups(keys))
+                .concatMap(group -> reactiveRedisTemplate.opsForValue().multiGet(group)
+                    .flatMapMany(links -> pruneMissing(group, links))));
+    }
+
+    /**
+     * Adds every stored link that is missing from its due-time index shard, making it due immediately.
+     * This covers links written before the index existed or by other tools. The unsharded index used by
+     * earlier versions is dropped.
+     *
+     * @return A {@link Mono} containing the number of links added to the index.
+     */
+    public Mono<Long> rebuildDueIndex() {
+        double now = clock.millis();
+        return reactiveRedisTemplate.delete(DUE_INDEX_KEY)
+            .thenMany(linkKeyspace.scanLinkKeys(readBatchSize))
+            .buffer(readBatchSize)
+            .concatMap(keys -> Flux.fromIterable(groupByShard(keys).entrySet())
+                .concatMap(group -> indexMissing(group.getKey(), group.getValue(), now)))
+            .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Re-encodes every stored link that is not written with the configured codec, so a codec change
+     * applies to existing keys. Links are replaced atomically and only if they were not updated since
+     * they were read, so it is safe to run while links are dispatched.
+     *
+     * @return A {@link Mono} containing the number of migrated links.
+     */
+    public Mono<Long> migrateLinkEncoding() {
+        return linkKeyspace.scanLinkKeys(readBatchSize)
+            .buffer(readBatchSize)
+            .concatMap(keys -> Flux.fromIterable(slotGroups(keys)).concatMap(this::migrateBatch))
+            .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Returns the shard a link belongs to.
+     *
+     * @param url The URL of the link.
+     * @return The shard number, between zero (inclusive) and the shard count (exclusive).
+     */
+    public int shardOf(String url) {
+        return Math.floorMod(url.hashCode(), shardCount);
+    }
+
+    /**
+     * Returns the number of shards the due-time index is split into.
+     *
+     * @return The shard count.
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Resolves the polling interval of a link, falling back to the configured default.
+     *
+     * @param link The link whose polling interval is resolved.
+     * @return The effective polling interval.
+     */
+    public Duration pollIntervalOf(Link link) {
+        return link.pollInterval() != null ? link.pollInterval() : defaultPollInterval;
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.ofInstant(clock.instant(), ZoneId.systemDefault());
+    }
+
+    private List<ByteBuffer> dispatchScriptArgs(Instant dispatchedAt) {
+        LocalDateTime now = LocalDateTime.ofInstant(dispatchedAt, ZoneId.systemDefault());
+        ByteBuffer stamp = ByteBuffer.wrap(linkRedisSerializer.serializeJson(new Link(null, now)));
+        return List.of(stamp, asArg(dispatchedAt.toEpochMilli()), asArg(defaultPollInterval.toMillis()),
+            asArg(LinkBinaryCodec.encodeTime(now)), smoothingArg());
+    }
+
+    private ByteBuffer smoothingArg() {
+        return asArg(smoothing ? "1" : "0");
+    }
+
+    private Mono<Long> migrateBatch(List<String> batch) {
+        return reactiveRedisTemplate.opsForValue(RAW_VALUE_CONTEXT).multiGet(batch)
+            .flatMap(values -> {
+                List<String> keys = new ArrayList<>();
+                List<ByteBuffer> args = new ArrayList<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    byte[] value = values.get(i);
+                    if (value != null && !linkRedisSerializer.isCurrentEncoding(value)) {
+                        Link link = linkRedisSerializer.deserialize(value).withUrl(linkKeyspace.urlOf(batch.get(i)));
+                        keys.add(batch.get(i));
+                        args.add(ByteBuffer.wrap(value));
+                        args.add(ByteBuffer.wrap(linkRedisSerializer.serialize(link)));
+                    }
+                }
+                if (keys.isEmpty()) {
+                    return Mono.just(0L);
+                }
+                return reactiveRedisTemplate.execute(MIGRATE_LINKS_SCRIPT, keys, args, RAW_ARGS_WRITER, LONG_READER)
+                    .next()
+                    .defaultIfEmpty(0L);
+            });
+    }
+
+    private static ByteBuffer asArg(long value) {
+        return asArg(Long.toString(value));
+    }
+
+    private static ByteBuffer asArg(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String linkKey(String url) {
+        return linkKeyspace.linkKey(url, shardOf(url));
+    }
+
+    private List<String> linkKeys(Collection<String> urls) {
+        List<String> keys = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            keys.add(linkKey(url));
+        }
+        return keys;
+    }
+
+    private int shardOfKey(String key) {
+        return shardOf(linkKeyspace.urlOf(key));
+    }
+
+    /**
+     * Splits link keys into groups a single command or script may touch: one group per shard when the links
+     * are stored in a cluster, a single group otherwise.
+     */
+    private Collection<List<String>> slotGroups(List<String> keys) {
+        return linkKeyspace.isClustered() ? groupByShard(keys).values() : List.of(keys);
+    }
+
+    private Flux<Link> multiGet(List<String> keys) {
+        return Flux.fromIterable(slotGroups(keys))
+            .flatMapSequential(group -> reactiveRedisTemplate.opsForValue().multiGet(group)
+                .flatMapIterable(links -> {
+                    List<Link> present = new ArrayList<>(links.size());
+                    for (int i = 0; i < group.size(); i++) {
+                        if (links.get(i) != null) {
+                            present.add(links.get(i).withUrl(linkKeyspace.urlOf(group.get(i))));
+                        }
+                    }
+                    return present;
+                }));
+    }
+
+    private Mono<Long> indexMissing(int shard, List<String> keys, double score) {
+        return dueIndex().score(dueIndexKey(shard), keys.toArray())
+            .flatMap(scores -> {
+                List<ZSetOperations.TypedTuple<String>> missing = new ArrayList<>();
+                for (int i = 0; i < keys.size(); i++) {
+                    if (scores.get(i) == null) {
+                        missing.add(ZSetOperations.TypedTuple.of(keys.get(i), score));
+                    }
+                }
+                return missing.isEmpty() ? Mono.just(0L) : dueIndex().addAll(dueIndexKey(shard), missing);
+            });
+    }
+
+    /**
+     * Groups link keys by the due-time index shard of their links.
+     */
+    private Map<Integer, List<String>> groupByShard(List<String> keys) {
+        Map<Integer, List<String>> groups = new LinkedHashMap<>();
+        for (String key : keys) {
+            groups.computeIfAbsent(shardOfKey(key), shard -> new ArrayList<>()).add(key);
+        }
+        return groups;
+    }
+
+    private List<Integer> allShards() {
+        List<Integer> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    private String dueIndexKey(String url) {
+        return dueIndexKey(shardOf(url));
+    }
+
+    private String dueIndexKey(int shard) {
+        return linkKeyspace.dueIndexKey(shard);
+    }
+
+    private Flux<Link> pruneMissing(List<String> keys, List<Link> links) {
+        List<Link> present = new ArrayList<>(links.size());
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (links.get(i) != null) {
+                present.add(links.get(i).withUrl(linkKeyspace.urlOf(keys.get(i))));
+            } else {
+                missing.add(keys.get(i));
+            }
+        }
+        Flux<Link> found = Flux.fromIterable(present);
+        if (missing.isEmpty()) {
+            return found;
+        }
+        return Flux.fromIterable(groupByShard(missing).entrySet())
+            .concatMap(group -> dueIndex().remove(dueIndexKey(group.getKey()), group.getValue().toArray()))
+            .thenMany(found);
+    }
+
+    private static <T> RedisScript<T> linkScript(String name, Class<T> resultType) {
+        try {
+            return RedisScript.of(readScript("link-codec.lua") + readScript("link-schedule.lua") + readScript(name),
+                resultType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load script " + name, e);
+        }
+    }
+
+    private static String readScript(String name) throws IOException {
+        return StreamUtils.copyToString(new ClassPathResource("scripts/" + name).getInputStream(),
+            StandardCharsets.UTF_8);
+    }
+
+    private ReactiveZSetOperations<String, String> dueIndex() {
+        return reactiveRedisTemplate.opsForZSet(RedisSerializationContext.string());
     }
 }
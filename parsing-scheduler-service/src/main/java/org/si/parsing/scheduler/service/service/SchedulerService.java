@@ -1,12 +1,31 @@
 package org.si.parsing.scheduler.service.service;
 
+import jakarta.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.RequiredArgsConstructor;
+import org.si.parsing.scheduler.service.metrics.SchedulerMetrics;
+import org.si.parsing.scheduler.service.model.Link;
 import org.si.parsing.scheduler.service.producer.KafkaProducerService;
+import org.si.parsing.scheduler.service.snapshot.LinkSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.kafka.sender.SenderResult;
+import reactor.util.function.Tuple2;
 
 @RequiredArgsConstructor
 @Service
@@ -14,22 +33,296 @@ public class SchedulerService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SchedulerService.class);
 
+    /**
+     * The period at which paced dispatches release a slice of the due links.
+     */
+    private static final Duration PACING_SLICE = Duration.ofMillis(100);
+    private static final long MILLIS_PER_SECOND = 1000L;
+
     private final LinkService linkService;
     private final KafkaProducerService kafkaProducerService;
+    private final ShardLeaseService shardLeaseService;
+    private final SchedulerMetrics schedulerMetrics;
+    private final Clock clock;
+    private final LinkSnapshot linkSnapshot;
+
+    private final AtomicBoolean cycleInProgress = new AtomicBoolean();
+
+    /**
+     * The time the last paced cycle took after its last slice was due to be released, to send and mark it.
+     * The next paced cycle reads no more links than it can release before this time is left in the tick.
+     */
+    private final AtomicLong pacingTailMs = new AtomicLong(PACING_SLICE.toMillis());
+
+    /**
+     * The maximum number of due links dispatched within a single tick.
+     * Links that do not fit stay due and are picked up by the next tick.
+     */
+    @Value("${scheduler.links.max-per-tick}")
+    private long maxLinksPerTick;
+
+    /**
+     * The number of dispatched links marked in Redis with a single request.
+     */
+    @Value("${scheduler.links.write-batch-size}")
+    private int writeBatchSize;
+
+    /**
+     * The maximum number of links sent to Kafka and not yet acknowledged.
+     * The next window of due links is only sent once the previous one is acknowledged.
+     */
+    @Value("${scheduler.dispatch.max-in-flight}")
+    private int maxInFlight;
+
+    /**
+     * The maximum duration of a cycle. A cycle running longer is cancelled and its remaining links stay due.
+     * It is capped by the shard lease time-to-live, so a cycle never outlives the leases it started with.
+     */
+    @Value("${scheduler.dispatch.cycle-timeout}")
+    private Duration cycleTimeout;
 
     /**
-     * Scheduled method that processes links every minute.
-     * It sends the links to Kafka and updates their "lastParsedTime" timestamp in Redis.
+     * The interval between two ticks, in milliseconds.
+     */
+    @Value("${scheduler.tick-rate-ms}")
+    private long tickRateMs;
+
+    /**
+     * The maximum number of links dispatched per second, or zero for no limit. When set, every tick dispatches
+     * at most one tick worth of links, released in even slices across the tick instead of in a single burst.
+     */
+    @Value("${scheduler.dispatch.max-rate}")
+    private long maxDispatchRate;
+
+    /**
+     * Indexes links that are missing from the due-time index, e.g. links stored before the index existed.
+     */
+    @PostConstruct
+    public void initDueIndex() {
+        linkService.rebuildDueIndex()
+            .doOnNext(indexed -> LOGGER.info("Added {} links to the due-time index", indexed))
+            .doOnError(error -> LOGGER.error("Error rebuilding the due-time index: {}", error.getMessage()))
+            .subscribe();
+    }
+
+    /**
+     * Re-encodes the links that are not written with the configured codec, e.g. after the codec was changed.
+     */
+    @PostConstruct
+    public void initLinkEncoding() {
+        linkService.migrateLinkEncoding()
+            .filter(migrated -> migrated > 0)
+            .doOnNext(migrated -> LOGGER.info("Re-encoded {} links with the configured codec", migrated))
+            .doOnError(error -> LOGGER.error("Error re-encoding links: {}", error.getMessage()))
+            .subscribe();
+    }
+
+    /**
+     * Scheduled method that processes the links that are due on every tick.
+     * Only the shards this instance holds leases for are processed, so several instances can run side by side.
+     * At most one cycle runs at a time: a tick that fires while the previous cycle is still running is skipped
+     * and counted as an overrun, so a slow Redis or Kafka sheds work instead of piling up cycles.
+     * While Redis is unavailable, the shards owned last keep being dispatched from the local link snapshot, even
+     * after their leases expired and a peer may have taken them over, so links may be dispatched twice meanwhile.
      * This method is fully asynchronous, with non-blocking operations for Kafka and Redis interactions.
      */
-    @Scheduled(fixedRate = 60000)
+    @Scheduled(fixedRateString = "${scheduler.tick-rate-ms}")
     public void processLinks() {
-        linkService.getAllLinks()
-            .publishOn(Schedulers.boundedElastic())
-            .flatMap(link -> kafkaProducerService.sendLinkToKafka(link)
-                .then(linkService.updateLastChecked(link.url())))
-            .doOnNext(link -> LOGGER.info("Successfully processed link: {}", link.url()))
+        if (cycleInProgress.compareAndSet(false, true)) {
+            startCycle();
+        } else {
+            schedulerMetrics.recordOverrun();
+            LOGGER.warn("Previous scheduling cycle is still running, skipping tick");
+        }
+    }
+
+    private void startCycle() {
+        Set<Integer> owned = shardLeaseService.getOwnedShards();
+        boolean fromSnapshot = owned.isEmpty() && linkSnapshot.isFallbackActive();
+        Set<Integer> shards = fromSnapshot ? shardLeaseService.getLastOwnedShards() : owned;
+        if (shards.isEmpty()) {
+            LOGGER.debug("No shards owned by this instance, skipping tick");
+            cycleInProgress.set(false);
+            return;
+        }
+        if (!fromSnapshot) {
+            shardLeaseService.startDispatch(shards);
+        }
+        Duration timeout = cycleTimeout();
+        Instant start = clock.instant();
+        AtomicLong due = new AtomicLong();
+        AtomicLong dispatched = new AtomicLong();
+        AtomicLong lastRelease = new AtomicLong(-1L);
+        runCycle(shards, new AtomicBoolean(fromSnapshot), due, dispatched, lastRelease)
+            .timeout(timeout, Mono.fromRunnable(() ->
+                LOGGER.warn("Scheduling cycle exceeded {}, leaving remaining links for the next cycle", timeout)))
             .doOnError(error -> LOGGER.error("Error processing links: {}", error.getMessage()))
+            .onErrorResume(error -> Mono.empty())
+            .doFinally(signal -> {
+                long skipped = Math.max(0L, due.get() - dispatched.get());
+                schedulerMetrics.recordCycle(Duration.between(start, clock.instant()), dispatched.get(), skipped);
+                LOGGER.info("Successfully processed {} links, {} left for a later cycle", dispatched.get(), skipped);
+                if (lastRelease.get() >= 0) {
+                    pacingTailMs.set(Math.max(PACING_SLICE.toMillis(), clock.millis() - lastRelease.get()));
+                }
+                shardLeaseService.endDispatch();
+                cycleInProgress.set(false);
+            })
             .subscribe();
     }
+
+    /**
+     * Sends the due links to Kafka window by window, paced when a dispatch rate is set, updates their
+     * "lastParsedTime" timestamp in Redis and schedules their next dispatch according to their polling interval.
+     * Links that failed to be sent stay due and are retried by a later cycle. Unless the links are read from the
+     * snapshot, every window is only sent while this instance still holds the leases of the shards; otherwise the
+     * cycle stops and its remaining links are left to the new owner. Links already sent are still marked, so the
+     * new owner does not send them again.
+     *
+     * @param shards the shards to process
+     * @param fromSnapshot whether the links are read from and recorded in the local snapshot instead of Redis
+     * @param due counter of the due links read
+     * @param dispatched counter of the links dispatched
+     * @param lastRelease the time the last paced slice was due to be released, in epoch milliseconds
+     * @return a {@link Mono} completing when the cycle is done
+     */
+    private Mono<Void> runCycle(Set<Integer> shards, AtomicBoolean fromSnapshot, AtomicLong due,
+                                AtomicLong dispatched, AtomicLong lastRelease) {
+        Map<String, Link> cycleLinks = new ConcurrentHashMap<>();
+        Flux<Link> dueLinks = readDueLinks(shards, fromSnapshot, due)
+            .doOnNext(link -> {
+                cycleLinks.put(link.url(), link);
+                due.incrementAndGet();
+            });
+        return pace(dueLinks, lastRelease)
+            .takeWhile(window -> fromSnapshot.get() || holdsLeases(shards))
+            .concatMap(window -> kafkaProducerService.sendLinksToKafka(Flux.fromIterable(window)))
+            .publishOn(Schedulers.boundedElastic())
+            .filter(senderResult -> senderResult.exception() == null)
+            .doOnNext(senderResult -> schedulerMetrics.recordPartition(senderResult.recordMetadata().partition()))
+            .map(SenderResult::correlationMetadata)
+            .buffer(writeBatchSize)
+            .concatMap(urls -> markDispatched(urls, cycleLinks, fromSnapshot.get()))
+            .doOnNext(dispatched::addAndGet)
+            .then();
+    }
+
+    private boolean holdsLeases(Set<Integer> shards) {
+        boolean held = shardLeaseService.holdsLeases(shards);
+        if (!held) {
+            LOGGER.warn("Shard leases of the cycle are no longer held, leaving remaining links to their new owner");
+        }
+        return held;
+    }
+
+    /**
+     * Returns the cycle timeout, capped by the shard lease time-to-live.
+     */
+    private Duration cycleTimeout() {
+        Duration leaseTtl = shardLeaseService.getLeaseTtl();
+        return cycleTimeout.compareTo(leaseTtl) < 0 ? cycleTimeout : leaseTtl;
+    }
+
+    /**
+     * Reads the due links from Redis, once the dispatches recorded while it was unavailable are written back.
+     * If Redis fails before any link is read, the cycle switches to the local snapshot.
+     */
+    private Flux<Link> readDueLinks(Set<Integer> shards, AtomicBoolean fromSnapshot, AtomicLong due) {
+        if (fromSnapshot.get()) {
+            return linkSnapshot.getDueLinks(shards, clock.instant(), linksPerTick());
+        }
+        Flux<Link> fromRedis = linkSnapshot.reconcile()
+            .thenMany(Flux.defer(() -> linkService.getDueLinks(shards, clock.instant(), linksPerTick())))
+            .doOnComplete(linkSnapshot::deactivateFallback);
+        if (!linkSnapshot.isEnabled()) {
+            return fromRedis;
+        }
+        return fromRedis.onErrorResume(DataAccessException.class, error -> {
+            if (due.get() > 0) {
+                return Flux.error(error);
+            }
+            LOGGER.warn("Redis is unavailable, dispatching from the link snapshot: {}", error.getMessage());
+            fromSnapshot.set(true);
+            return linkSnapshot.getDueLinks(shards, clock.instant(), linksPerTick());
+        });
+    }
+
+    /**
+     * Marks a batch of dispatched links in Redis and in the local snapshot. When the links were read from the
+     * snapshot, or Redis fails to mark them, the dispatches are only recorded in the snapshot and written to
+     * Redis once it is available again.
+     */
+    private Mono<Long> markDispatched(List<String> urls, Map<String, Link> cycleLinks, boolean fromSnapshot) {
+        Instant dispatchedAt = clock.instant();
+        List<Link> links = urls.stream().map(cycleLinks::get).toList();
+        if (fromSnapshot) {
+            return linkSnapshot.recordDispatched(links, dispatchedAt, true);
+        }
+        Mono<Long> marked = linkService.markDispatched(urls, dispatchedAt)
+            .flatMap(updated -> linkSnapshot.recordDispatched(links, dispatchedAt, false).thenReturn(updated));
+        if (!linkSnapshot.isEnabled()) {
+            return marked;
+        }
+        return marked.onErrorResume(DataAccessException.class, error -> {
+            LOGGER.warn("Cannot mark {} dispatched links in Redis, keeping them in the link snapshot: {}",
+                urls.size(), error.getMessage());
+            return linkSnapshot.recordDispatched(links, dispatchedAt, true);
+        });
+    }
+
+    /**
+     * Returns the number of links a cycle may read. With a dispatch rate, it is the number of links released
+     * before the next tick, less the time the previous paced cycle needed to send and mark its last slice and
+     * one more slice, so the cycle ends before the next tick and the tick is not skipped as an overrun.
+     */
+    private long linksPerTick() {
+        if (maxDispatchRate <= 0) {
+            return maxLinksPerTick;
+        }
+        long slices = Math.max(1L, (tickRateMs - pacingTailMs.get()) / PACING_SLICE.toMillis() - 1);
+        long released = slices * PACING_SLICE.toMillis() * pacedRate() / MILLIS_PER_SECOND;
+        return Math.max(1L, Math.min(maxLinksPerTick, released));
+    }
+
+    /**
+     * Returns the dispatch rate, lowered so a {@link #PACING_SLICE} never releases more than {@code max-in-flight}
+     * links.
+     */
+    private long pacedRate() {
+        return Math.min(maxDispatchRate, maxInFlight * MILLIS_PER_SECOND / PACING_SLICE.toMillis());
+    }
+
+    /**
+     * Returns the slice in which the link at the given position of the cycle is released. Every slice adds
+     * {@code rate * slice} of credit and a link is released by the first slice whose accumulated credit covers
+     * it, so fractional credit carries over between slices: at 25 links per second slices release 2 and 3 links
+     * in turn, and below 10 links per second some slices release none.
+     */
+    private long sliceOf(long position) {
+        long creditPerSlice = pacedRate() * PACING_SLICE.toMillis();
+        return -Math.floorDiv(-(position + 1) * MILLIS_PER_SECOND, creditPerSlice) - 1;
+    }
+
+    /**
+     * Splits the due links into the windows sent to Kafka. Without a dispatch rate, windows hold up to
+     * {@code max-in-flight} links and are sent as fast as they are acknowledged. With a dispatch rate,
+     * windows are the links of a slice, released at the start of their slice counted from the beginning of the
+     * cycle, so a window sent late does not push back the following ones.
+     */
+    private Flux<List<Link>> pace(Flux<Link> dueLinks, AtomicLong lastRelease) {
+        if (maxDispatchRate <= 0) {
+            return dueLinks.buffer(maxInFlight);
+        }
+        return Flux.defer(() -> {
+            long start = clock.millis();
+            return dueLinks.index()
+                .bufferUntilChanged(indexed -> sliceOf(indexed.getT1()))
+                .concatMap(window -> {
+                    long releaseAt = start + sliceOf(window.get(0).getT1()) * PACING_SLICE.toMillis();
+                    List<Link> links = window.stream().map(Tuple2::getT2).toList();
+                    lastRelease.set(releaseAt);
+                    return Mono.delay(Duration.ofMillis(Math.max(0L, releaseAt - clock.millis()))).thenReturn(links);
+                });
+        });
+    }
 }
@@ -0,0 +1,312 @@
+package org.si.parsing.scheduler.service.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Coordinates several scheduler instances through shard leases stored in Redis.
+ * <p>
+ * The due-time index is split into shards (see {@link LinkService#shardOf(String)}). Every instance registers
+ * itself with a heartbeat and holds a lease with a time-to-live for each shard it dispatches. On every heartbeat
+ * the instance renews its leases, releases the shards above its fair share and acquires free shards up to it,
+ * so the shards of an instance that stopped heart-beating are taken over once its leases expire.
+ * While Redis is reachable, an instance only dispatches shards whose leases it is sure to hold, so two instances
+ * never dispatch the same shard: a shard above the fair share is only released once the cycle dispatching it
+ * ended (see {@link #startDispatch(Set)}), every window of a cycle is only sent while the leases of its shards are
+ * still valid (see {@link #holdsLeases(Collection)}), and a cycle never runs longer than a lease.
+ * While Redis is unavailable, the instance keeps dispatching the shards it owned
+ * last from its local snapshot, see {@link #getLastOwnedShards()}; under a network partition a peer that still
+ * reaches Redis takes these shards over once the leases expire, and both dispatch them until the partition heals.
+ * Delivery is therefore at-least-once, and parsers must tolerate a link dispatched twice.
+ */
+@RequiredArgsConstructor
+@Service
+public class ShardLeaseService {
+
+    /**
+     * Key prefix of the shard leases. The lease of a shard is stored under this prefix followed by
+     * {@link #LEASE_HASH_TAG}, a colon and the shard number.
+     */
+    public static final String LEASE_KEY_PREFIX = "scheduler:lease:";
+
+    /**
+     * Hash tag shared by all lease keys, so in a Redis Cluster they live in one slot and are read with one MGET.
+     */
+    private static final String LEASE_HASH_TAG = "{leases}";
+
+    /**
+     * Key of the sorted set registering live instances, scored by the epoch millisecond their registration expires.
+     */
+    public static final String INSTANCES_KEY = "scheduler:instances";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardLeaseService.class);
+
+    private static final RedisScript<Long> RENEW_LEASE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/renew-lease.lua"), Long.class);
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/release-lease.lua"), Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final LinkService linkService;
+    private final Clock clock;
+
+    private final AtomicBoolean heartbeatInProgress = new AtomicBoolean();
+
+    /**
+     * The identifier of this instance. A random one is generated when left blank.
+     */
+    @Value("${scheduler.sharding.instance-id}")
+    private String instanceId;
+
+    /**
+     * How long a lease and an instance registration stay valid without being renewed.
+     */
+    @Value("${scheduler.sharding.lease-ttl}")
+    private Duration leaseTtl;
+
+    private volatile Ownership ownership = new Ownership(Set.of(), Set.of(), 0L);
+
+    /**
+     * The shards of the running cycle, which are kept leased until the cycle ends.
+     */
+    private volatile Set<Integer> dispatching = Set.of();
+
+    /**
+     * Generates a random instance id if none is configured.
+     */
+    @PostConstruct
+    public void initInstanceId() {
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = UUID.randomUUID().toString();
+        }
+        LOGGER.info("Scheduler instance id: {}", instanceId);
+    }
+
+    /**
+     * Returns the shards this instance currently holds valid leases for.
+     * The set is empty if the leases could not be renewed before they expired.
+     *
+     * @return the owned shards
+     */
+    public Set<Integer> getOwnedShards() {
+        Ownership current = ownership;
+        return clock.millis() < current.validUntil() ? current.shards() : Set.of();
+    }
+
+    /**
+     * Returns whether this instance still holds valid leases for all the given shards, including the shards above
+     * its fair share that it only gives up once the running cycle ends.
+     *
+     * @param shards the shards to check
+     * @return {@code true} if all the leases are held and valid
+     */
+    public boolean holdsLeases(Collection<Integer> shards) {
+        Ownership current = ownership;
+        return clock.millis() < current.validUntil() && current.leased().containsAll(shards);
+    }
+
+    /**
+     * Registers the shards a cycle starts dispatching. Until {@link #endDispatch()}, heartbeats keep renewing
+     * their leases even when they are above the fair share of this instance, so a peer cannot acquire them while
+     * the cycle still sends and marks their links. They are no longer returned by {@link #getOwnedShards()}
+     * and are released by the first heartbeat after the cycle ended.
+     *
+     * @param shards the shards of the cycle
+     */
+    public void startDispatch(Set<Integer> shards) {
+        dispatching = Set.copyOf(shards);
+    }
+
+    /**
+     * Ends the cycle registered with {@link #startDispatch(Set)}.
+     */
+    public void endDispatch() {
+        dispatching = Set.of();
+    }
+
+    /**
+     * Returns how long a lease stays valid without being renewed.
+     *
+     * @return the lease time-to-live
+     */
+    public Duration getLeaseTtl() {
+        return leaseTtl;
+    }
+
+    /**
+     * Returns the shards this instance held leases for on its last successful heartbeat, whether or not the leases
+     * are still valid. They are the shards to keep dispatching from the local snapshot while Redis is unavailable.
+     * Once the leases expire, a peer that still reaches Redis may have acquired them, so the same links may then be
+     * dispatched by both instances until this instance reaches Redis again and gives the shards up.
+     *
+     * @return the shards owned on the last successful heartbeat
+     */
+    public Set<Integer> getLastOwnedShards() {
+        return ownership.shards();
+    }
+
+    /**
+     * Returns the identifier of this instance.
+     *
+     * @return the instance id
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Scheduled heartbeat that refreshes the instance registration and rebalances the shard leases.
+     * A heartbeat is skipped while the previous one is still running.
+     */
+    @Scheduled(fixedRateString = "${scheduler.sharding.heartbeat-interval-ms}")
+    public void heartbeat() {
+        if (!heartbeatInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        rebalance()
+            .doOnNext(shards -> LOGGER.debug("Instance {} owns shards {}", instanceId, shards))
+            .doOnError(error -> LOGGER.error("Error renewing shard leases: {}", error.getMessage()))
+            .doFinally(signal -> heartbeatInProgress.set(false))
+            .subscribe();
+    }
+
+    /**
+     * Releases all leases of this instance and removes its registration, so peers can take over immediately.
+     */
+    @PreDestroy
+    public void releaseAll() {
+        Set<Integer> shards = ownership.shards();
+        ownership = new Ownership(Set.of(), Set.of(), 0L);
+        release(shards)
+            .then(redisTemplate.opsForZSet().remove(INSTANCES_KEY, instanceId))
+            .doOnError(error -> LOGGER.error("Error releasing shard leases: {}", error.getMessage()))
+            .onErrorResume(error -> Mono.empty())
+            .block(leaseTtl);
+    }
+
+    /**
+     * Renews, releases and acquires shard leases so this instance owns its fair share of the shards.
+     * Shards above the fair share that the running cycle dispatches are renewed instead of released.
+     *
+     * @return a {@link Mono} containing the shards owned after rebalancing
+     */
+    Mono<Set<Integer>> rebalance() {
+        long validUntil = clock.millis() + leaseTtl.toMillis();
+        int shardCount = linkService.getShardCount();
+        List<String> leaseKeys = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            leaseKeys.add(leaseKey(shard));
+        }
+
+        return registerInstance()
+            .zipWith(redisTemplate.opsForValue().multiGet(leaseKeys))
+            .flatMap(state -> {
+                long liveInstances = Math.max(1L, state.getT1());
+                int fairShare = (int) ((shardCount + liveInstances - 1) / liveInstances);
+
+                List<Integer> owned = new ArrayList<>();
+                List<Integer> free = new ArrayList<>();
+                List<String> owners = state.getT2();
+                for (int shard = 0; shard < shardCount; shard++) {
+                    String owner = owners.get(shard);
+                    if (instanceId.equals(owner)) {
+                        owned.add(shard);
+                    } else if (owner == null) {
+                        free.add(shard);
+                    }
+                }
+                // Start from an instance-specific offset, so instances rarely race for the same free shard
+                if (!free.isEmpty()) {
+                    Collections.rotate(free, Math.floorMod(instanceId.hashCode(), free.size()));
+                }
+
+                List<Integer> kept = owned.subList(0, Math.min(owned.size(), fairShare));
+                Set<Integer> inUse = dispatching;
+                List<Integer> surplus = owned.subList(kept.size(), owned.size());
+                List<Integer> draining = surplus.stream().filter(inUse::contains).toList();
+                List<Integer> released = surplus.stream().filter(shard -> !inUse.contains(shard)).toList();
+                return renew(kept)
+                    .concatWith(acquire(free, fairShare - kept.size()))
+                    .collect(HashSet<Integer>::new, Set::add)
+                    .zipWith(renew(draining).collect(HashSet<Integer>::new, Set::add))
+                    .map(leases -> {
+                        Set<Integer> leased = new HashSet<>(leases.getT1());
+                        leased.addAll(leases.getT2());
+                        Ownership renewed = new Ownership(Set.copyOf(leases.getT1()), Set.copyOf(leased), validUntil);
+                        ownership = renewed;
+                        return renewed.shards();
+                    })
+                    .flatMap(shards -> release(released).thenReturn(shards));
+            });
+    }
+
+    private Mono<Long> registerInstance() {
+        long now = clock.millis();
+        return redisTemplate.opsForZSet().add(INSTANCES_KEY, instanceId, now + leaseTtl.toMillis())
+            .then(redisTemplate.opsForZSet().removeRangeByScore(INSTANCES_KEY,
+                Range.closed(Double.NEGATIVE_INFINITY, (double) now)))
+            .then(redisTemplate.opsForZSet().size(INSTANCES_KEY));
+    }
+
+    private Flux<Integer> renew(List<Integer> shards) {
+        String ttl = Long.toString(leaseTtl.toMillis());
+        return Flux.fromIterable(shards)
+            .flatMap(shard -> redisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(leaseKey(shard)),
+                    List.of(instanceId, ttl))
+                .next()
+                .filter(renewed -> renewed == 1L)
+                .map(renewed -> shard));
+    }
+
+    private Flux<Integer> acquire(List<Integer> freeShards, int count) {
+        if (count <= 0) {
+            return Flux.empty();
+        }
+        return Flux.fromIterable(freeShards)
+            .concatMap(shard -> redisTemplate.opsForValue().setIfAbsent(leaseKey(shard), instanceId, leaseTtl)
+                .filter(Boolean::booleanValue)
+                .doOnNext(acquired -> LOGGER.info("Instance {} acquired shard {}", instanceId, shard))
+                .map(acquired -> shard))
+            .take(count);
+    }
+
+    private Mono<Void> release(Collection<Integer> shards) {
+        return Flux.fromIterable(shards)
+            .flatMap(shard -> redisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(leaseKey(shard)),
+                    List.of(instanceId))
+                .doOnNext(released -> LOGGER.info("Instance {} released shard {}", instanceId, shard)))
+            .then();
+    }
+
+    private static String leaseKey(int shard) {
+        return LEASE_KEY_PREFIX + LEASE_HASH_TAG + ':' + shard;
+    }
+
+    /**
+     * The shards dispatched by this instance, the shards it holds leases for, which also include the shards it gives
+     * up once the running cycle ends, and the epoch millisecond until which the leases are guaranteed.
+     */
+    private record Ownership(Set<Integer> shards, Set<Integer> leased, long validUntil) {}
+}
@@ -0,0 +1,421 @@
+package org.si.parsing.scheduler.service.snapshot;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.service.LinkService;
+import org.si.parsing.scheduler.service.service.ShardLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Local copy of the links and their last dispatch times, kept in a memory-mapped file, so the scheduler keeps
+ * dispatching while Redis is unavailable.
+ * <p>
+ * The snapshot is refreshed incrementally with the links of every cycle and replaced by a read of the shards
+ * this instance owns every {@code refresh-interval-ms}. Updates are appended to the file as fixed-layout records;
+ * the file is compacted into a fresh one when it is full. File writes run on the bounded elastic scheduler, never
+ * on the Redis client threads. On startup the file is replayed, so the snapshot is available right away instead
+ * of after a read of Redis. The links are held in a map that is replaced as a whole when the file is replayed or
+ * the snapshot refreshed, so readers never see it partially loaded.
+ * <p>
+ * While Redis is unavailable, due links are read from the snapshot and their dispatches are recorded in it as
+ * pending. Once Redis is back, the pending dispatches are written to Redis with their original dispatch time
+ * before any link is read from Redis again.
+ */
+@Component
+public class LinkSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LinkSnapshot.class);
+
+    /**
+     * Type of a record holding the state of a link. A zero type marks the end of the records.
+     */
+    private static final byte LINK_RECORD = 1;
+
+    /**
+     * Size of a link record without its URL: type, URL length, three timestamps and the pending flag.
+     */
+    private static final int RECORD_OVERHEAD = Byte.BYTES + Integer.BYTES + 3 * Long.BYTES + Byte.BYTES;
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final LinkService linkService;
+    private final ShardLeaseService shardLeaseService;
+
+    /**
+     * Whether the snapshot is kept and used while Redis is unavailable.
+     */
+    @Value("${scheduler.snapshot.enabled}")
+    private boolean enabled;
+
+    /**
+     * The file the snapshot is stored in.
+     */
+    @Value("${scheduler.snapshot.path}")
+    private Path path;
+
+    /**
+     * The minimum size of the snapshot file. The file grows when the compacted records need more space.
+     */
+    @Value("${scheduler.snapshot.initial-size}")
+    private DataSize initialSize;
+
+    private volatile Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean fallbackActive;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    /**
+     * Creates the snapshot.
+     *
+     * @param linkService the service the snapshot is refreshed from and reconciled with
+     * @param shardLeaseService the service telling which shards the snapshot is refreshed with
+     */
+    public LinkSnapshot(LinkService linkService, ShardLeaseService shardLeaseService) {
+        this.linkService = linkService;
+        this.shardLeaseService = shardLeaseService;
+    }
+
+    /**
+     * Opens the snapshot file and loads the links it holds.
+     */
+    @PostConstruct
+    public synchronized void load() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.deleteIfExists(temporaryPath());
+            map(path, Math.max(initialSize.toBytes(), Files.exists(path) ? Files.size(path) : 0L));
+            replay();
+            LOGGER.info("Loaded {} links from the snapshot {}", entries.size(), path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the link snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Flushes the snapshot file to disk and closes it.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Cannot close the link snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the links of the shards this instance owns. Links with pending dispatches keep
+     * their local state.
+     */
+    @Scheduled(fixedRateString = "${scheduler.snapshot.refresh-interval-ms}")
+    public void refresh() {
+        refreshOwnedShards()
+            .doOnError(error -> LOGGER.warn("Cannot refresh the link snapshot: {}", error.getMessage()))
+            .onErrorResume(error -> Mono.empty())
+            .subscribe();
+    }
+
+    Mono<Void> refreshOwnedShards() {
+        Set<Integer> shards = shardLeaseService.getOwnedShards();
+        if (!enabled || fallbackActive || shards.isEmpty()) {
+            return Mono.empty();
+        }
+        return linkService.getShardLinks(shards)
+            .collectList()
+            .publishOn(Schedulers.boundedElastic())
+            .doOnNext(this::replaceAll)
+            .then();
+    }
+
+    /**
+     * Tells whether the snapshot is kept.
+     *
+     * @return {@code true} if the snapshot is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Tells whether links are dispatched from the snapshot because Redis was found unavailable.
+     *
+     * @return {@code true} while Redis is considered unavailable
+     */
+    public boolean isFallbackActive() {
+        return fallbackActive;
+    }
+
+    /**
+     * Marks Redis as available again, ending the fallback to the snapshot.
+     */
+    public void deactivateFallback() {
+        if (fallbackActive) {
+            LOGGER.info("Redis is available again, no longer dispatching from the link snapshot");
+        }
+        fallbackActive = false;
+    }
+
+    /**
+     * Returns the links of the given shards that are due according to the snapshot, most overdue first,
+     * and marks Redis as unavailable.
+     *
+     * @param shards the shards to read due links from
+     * @param now the instant against which due times are compared
+     * @param limit the maximum number of links to return
+     * @return a {@link Flux} containing the due links
+     */
+    public Flux<Link> getDueLinks(Collection<Integer> shards, Instant now, long limit) {
+        fallbackActive = true;
+        long nowMillis = now.toEpochMilli();
+        return Flux.defer(() -> Flux.fromStream(entries.entrySet().stream()
+            .filter(entry -> entry.getValue().due() <= nowMillis)
+            .filter(entry -> shards.contains(linkService.shardOf(entry.getKey())))
+            .sorted(Comparator.comparingLong(entry -> entry.getValue().due()))
+            .limit(limit)
+            .map(entry -> entry.getValue().toLink(entry.getKey()))));
+    }
+
+    /**
+     * Records dispatched links, scheduling their next dispatch one polling interval later. The links are written
+     * to the file on the bounded elastic scheduler.
+     *
+     * @param links the dispatched links
+     * @param dispatchedAt the instant the links were dispatched at
+     * @param pending {@code true} if the dispatch could not be written to Redis and has to be reconciled later
+     * @return a {@link Mono} containing the number of recorded links
+     */
+    public Mono<Long> recordDispatched(Collection<Link> links, Instant dispatchedAt, boolean pending) {
+        if (!enabled) {
+            return Mono.just((long) links.size());
+        }
+        return Mono.fromCallable(() -> append(links, dispatchedAt, pending))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private synchronized long append(Collection<Link> links, Instant dispatchedAt, boolean pending) {
+        long dispatched = dispatchedAt.toEpochMilli();
+        for (Link link : links) {
+            long interval = link.pollInterval() != null ? link.pollInterval().toMillis() : 0L;
+            long due = dispatched + linkService.pollIntervalOf(link).toMillis();
+            put(link.url(), new Entry(dispatched, interval, due, pending));
+        }
+        return links.size();
+    }
+
+    /**
+     * Writes the dispatches recorded while Redis was unavailable to Redis, with their original dispatch time,
+     * and clears them once written.
+     *
+     * @return a {@link Mono} completing once all pending dispatches are reconciled
+     */
+    public Mono<Void> reconcile() {
+        Map<Long, List<String>> pending = new TreeMap<>();
+        entries.forEach((url, entry) -> {
+            if (entry.pending()) {
+                pending.computeIfAbsent(entry.lastParsed(), time -> new ArrayList<>()).add(url);
+            }
+        });
+        if (pending.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(pending.entrySet())
+            .concatMap(group -> linkService.markDispatched(group.getValue(), Instant.ofEpochMilli(group.getKey()))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(updated -> clearPending(group.getValue(), group.getKey())))
+            .reduce(0L, Long::sum)
+            .doOnNext(reconciled -> LOGGER.info("Reconciled {} links dispatched while Redis was unavailable",
+                reconciled))
+            .then();
+    }
+
+    /**
+     * Returns the number of links in the snapshot.
+     *
+     * @return the number of links
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void clearPending(List<String> urls, long dispatched) {
+        for (String url : urls) {
+            Entry entry = entries.get(url);
+            if (entry != null && entry.pending() && entry.lastParsed() == dispatched) {
+                put(url, new Entry(entry.lastParsed(), entry.interval(), entry.due(), false));
+            }
+        }
+    }
+
+    private synchronized void replaceAll(List<Link> links) {
+        Map<String, Entry> current = entries;
+        Map<String, Entry> fresh = new ConcurrentHashMap<>(links.size());
+        current.forEach((url, entry) -> {
+            if (entry.pending()) {
+                fresh.put(url, entry);
+            }
+        });
+        for (Link link : links) {
+            Entry previous = current.get(link.url());
+            if (previous == null || !previous.pending()) {
+                long lastParsed = link.lastParsedTime() != null ? toEpochMilli(link.lastParsedTime()) : 0L;
+                long interval = link.pollInterval() != null ? link.pollInterval().toMillis() : 0L;
+                long due = previous != null
+                    ? previous.due()
+                    : lastParsed + linkService.pollIntervalOf(link).toMillis();
+                fresh.put(link.url(), new Entry(lastParsed, interval, due, false));
+            }
+        }
+        entries = fresh;
+        compact(0);
+        LOGGER.debug("Refreshed the link snapshot with {} links", links.size());
+    }
+
+    /**
+     * Stores the state of a link and appends it to the file, compacting the file first if it is full.
+     */
+    private void put(String url, Entry entry) {
+        entries.put(url, entry);
+        byte[] key = url.getBytes(StandardCharsets.UTF_8);
+        // One spare byte always stays zero and marks the end of the records
+        if (buffer.remaining() < RECORD_OVERHEAD + key.length + 1) {
+            compact(RECORD_OVERHEAD + key.length);
+        } else {
+            write(buffer, key, entry);
+        }
+    }
+
+    /**
+     * Rewrites the current links into a fresh file and swaps it in, so superseded records are dropped.
+     */
+    private void compact(long extra) {
+        try {
+            Map<byte[], Entry> records = new HashMap<>(entries.size());
+            long size = extra + 1;
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                records.put(key, entry.getValue());
+                size += RECORD_OVERHEAD + key.length;
+            }
+            Path temporary = temporaryPath();
+            Files.deleteIfExists(temporary);
+            try (FileChannel compacted = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer target = compacted.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(initialSize.toBytes(), 2 * size));
+                records.forEach((key, entry) -> write(target, key, entry));
+                target.force();
+            }
+            channel.close();
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            map(path, Files.size(path));
+            replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact the link snapshot " + path, e);
+        }
+    }
+
+    private void map(Path file, long size) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Reads the records of the file into a new map, swapped in once complete, and positions the buffer after the
+     * last complete record.
+     */
+    private void replay() {
+        Map<String, Entry> replayed = new ConcurrentHashMap<>();
+        buffer.position(0);
+        while (buffer.remaining() >= RECORD_OVERHEAD && buffer.get(buffer.position()) == LINK_RECORD) {
+            int start = buffer.position();
+            buffer.get();
+            int length = buffer.getInt();
+            if (length < 0 || buffer.remaining() < length + RECORD_OVERHEAD - Byte.BYTES - Integer.BYTES) {
+                buffer.position(start);
+                break;
+            }
+            byte[] key = new byte[length];
+            buffer.get(key);
+            replayed.put(new String(key, StandardCharsets.UTF_8),
+                new Entry(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.get() != 0));
+        }
+        entries = replayed;
+    }
+
+    private static void write(MappedByteBuffer target, byte[] key, Entry entry) {
+        target.put(LINK_RECORD)
+            .putInt(key.length)
+            .put(key)
+            .putLong(entry.lastParsed())
+            .putLong(entry.interval())
+            .putLong(entry.due())
+            .put((byte) (entry.pending() ? 1 : 0));
+    }
+
+    private Path temporaryPath() {
+        return path.resolveSibling(path.getFileName() + TEMPORARY_SUFFIX);
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * The state of a link in the snapshot.
+     *
+     * @param lastParsed the epoch millisecond the link was last dispatched at
+     * @param interval the polling interval of the link in milliseconds, zero for the default one
+     * @param due the epoch millisecond the link is due next
+     * @param pending whether the last dispatch still has to be written to Redis
+     */
+    private record Entry(long lastParsed, long interval, long due, boolean pending) {
+
+        Link toLink(String url) {
+            return new Link(url, LocalDateTime.ofInstant(Instant.ofEpochMilli(lastParsed), ZoneId.systemDefault()),
+                interval > 0 ? Duration.ofMillis(interval) : null);
+        }
+    }
+}
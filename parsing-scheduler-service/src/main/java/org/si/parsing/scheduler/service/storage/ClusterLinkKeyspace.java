@@ -0,0 +1,124 @@
+package org.si.parsing.scheduler.service.storage;
+
+import io.lettuce.core.KeyScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import org.si.parsing.scheduler.service.service.LinkService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stores the links in a Redis Cluster. Every link key is hash-tagged with the due-time index shard of the link,
+ * {@code link:{<shard>}:<url>}, and the index shards are stored under {@code links:due:{<shard>}}, so a link and
+ * its index shard live in the same slot and every update stays a single atomic script. The shards are spread
+ * over the cluster by their slot, so the shard count bounds the number of nodes the links are spread over.
+ * <p>
+ * Link keys are enumerated by scanning all primary nodes in parallel. A page cursor is the position of the
+ * node in the cluster, ordered by node id, followed by the SCAN cursor of that node; it stays valid as long as
+ * the cluster topology does not change.
+ */
+public class ClusterLinkKeyspace implements LinkKeyspace {
+
+    private static final String LINK_KEY_PREFIX = "link:{";
+    private static final String TAG_END = "}";
+    private static final String URL_SEPARATOR = TAG_END + ':';
+    private static final String CURSOR_SEPARATOR = ":";
+    private static final String STRING_TYPE = "string";
+    private static final String LINK_KEY_PATTERN = LINK_KEY_PREFIX + '*';
+
+    private final Supplier<List<RedisNodeScanner>> nodes;
+
+    /**
+     * Creates the layout scanning the given primary nodes.
+     *
+     * @param nodes supplies a scanner for every primary node, always in the same order
+     */
+    public ClusterLinkKeyspace(Supplier<List<RedisNodeScanner>> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * Creates the layout scanning the primary nodes of the cluster the connection is connected to,
+     * as known from its current view of the topology.
+     *
+     * @param connection the cluster connection
+     * @return the layout
+     */
+    public static ClusterLinkKeyspace of(StatefulRedisClusterConnection<String, String> connection) {
+        return new ClusterLinkKeyspace(() -> connection.getPartitions().stream()
+            .filter(node -> node.is(RedisClusterNode.NodeFlag.UPSTREAM))
+            .sorted(Comparator.comparing(RedisClusterNode::getNodeId))
+            .map(node -> nodeScanner(connection, node.getNodeId()))
+            .toList());
+    }
+
+    @Override
+    public String linkKey(String url, int shard) {
+        return LINK_KEY_PREFIX + shard + URL_SEPARATOR + url;
+    }
+
+    @Override
+    public String linkKeyPattern() {
+        return LINK_KEY_PATTERN;
+    }
+
+    @Override
+    public String urlOf(String key) {
+        return key.substring(key.indexOf(URL_SEPARATOR) + URL_SEPARATOR.length());
+    }
+
+    @Override
+    public String dueIndexKey(int shard) {
+        return LinkService.DUE_INDEX_KEY + ":{" + shard + TAG_END;
+    }
+
+    @Override
+    public boolean isClustered() {
+        return true;
+    }
+
+    @Override
+    public Flux<String> scanLinkKeys(int count) {
+        List<RedisNodeScanner> scanners = nodes.get();
+        return Flux.fromIterable(scanners)
+            .flatMap(node -> node.scanAll(count), Math.max(1, scanners.size()))
+            .filter(ClusterLinkKeyspace::isLinkKey);
+    }
+
+    @Override
+    public Mono<KeyPage> scanLinkKeys(String cursor, int count) {
+        List<RedisNodeScanner> scanners = nodes.get();
+        int separator = cursor.indexOf(CURSOR_SEPARATOR);
+        int node = separator < 0 ? 0 : Integer.parseInt(cursor.substring(0, separator));
+        String nodeCursor = separator < 0 ? cursor : cursor.substring(separator + 1);
+        if (node >= scanners.size()) {
+            return Mono.just(new KeyPage(KeyPage.FIRST_CURSOR, List.of()));
+        }
+        return scanners.get(node).scan(nodeCursor, count)
+            .map(page -> new KeyPage(nextCursor(node, page, scanners.size()), page.keys().stream()
+                .filter(ClusterLinkKeyspace::isLinkKey)
+                .toList()));
+    }
+
+    private static String nextCursor(int node, KeyPage page, int nodeCount) {
+        if (!page.isLast()) {
+            return node + CURSOR_SEPARATOR + page.nextCursor();
+        }
+        return node + 1 < nodeCount ? (node + 1) + CURSOR_SEPARATOR + KeyPage.FIRST_CURSOR : KeyPage.FIRST_CURSOR;
+    }
+
+    private static boolean isLinkKey(String key) {
+        return key.startsWith(LINK_KEY_PREFIX);
+    }
+
+    private static RedisNodeScanner nodeScanner(StatefulRedisClusterConnection<String, String> connection,
+                                                String nodeId) {
+        return (cursor, count) -> Mono.defer(() -> connection.reactive().getConnection(nodeId)
+                .scan(ScanCursor.of(cursor), KeyScanArgs.Builder.limit(count).type(STRING_TYPE)))
+            .map(page -> new KeyPage(page.isFinished() ? KeyPage.FIRST_CURSOR : page.getCursor(), page.getKeys()));
+    }
+}
@@ -0,0 +1,26 @@
+package org.si.parsing.scheduler.service.storage;
+
+import java.util.List;
+
+/**
+ * A page of keys read with a SCAN cursor.
+ *
+ * @param nextCursor the cursor of the next page, {@link #FIRST_CURSOR} once all keys have been read
+ * @param keys the keys of the page
+ */
+public record KeyPage(String nextCursor, List<String> keys) {
+
+    /**
+     * The cursor a scan starts from and ends with.
+     */
+    public static final String FIRST_CURSOR = "0";
+
+    /**
+     * Tells whether the scan is complete after this page.
+     *
+     * @return {@code true} if there is no next page
+     */
+    public boolean isLast() {
+        return FIRST_CURSOR.equals(nextCursor);
+    }
+}
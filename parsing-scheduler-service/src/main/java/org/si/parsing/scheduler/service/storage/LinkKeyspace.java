@@ -0,0 +1,75 @@
+package org.si.parsing.scheduler.service.storage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Layout of the links in Redis: the key of every link, the keys of the due-time index shards, and how the
+ * link keys are enumerated.
+ * <p>
+ * The layout is selected with {@code scheduler.storage.mode}: {@code standalone} (the default, see
+ * {@link StandaloneLinkKeyspace}) stores every link under its URL on a single node; {@code cluster} (see
+ * {@link ClusterLinkKeyspace}) hash-tags the link keys with their shard, so a link and its due-time index
+ * shard always live in the same Redis Cluster slot.
+ */
+public interface LinkKeyspace {
+
+    /**
+     * Returns the key a link is stored under.
+     *
+     * @param url the URL of the link
+     * @param shard the due-time index shard of the link
+     * @return the link key
+     */
+    String linkKey(String url, int shard);
+
+    /**
+     * Returns the URL of the link stored under a key.
+     *
+     * @param key the link key
+     * @return the URL of the link
+     */
+    String urlOf(String key);
+
+    /**
+     * Returns a Redis glob pattern matching the link keys, and possibly a few other keys the layout filters out
+     * when scanning. Keys that do not match it never hold links.
+     *
+     * @return the pattern
+     */
+    String linkKeyPattern();
+
+    /**
+     * Returns the key of a due-time index shard.
+     *
+     * @param shard the shard number
+     * @return the key of the sorted set indexing the links of the shard
+     */
+    String dueIndexKey(int shard);
+
+    /**
+     * Tells whether the keys are spread over the nodes of a Redis Cluster. A command or script may then only
+     * touch the keys of a single shard.
+     *
+     * @return {@code true} for a clustered layout
+     */
+    boolean isClustered();
+
+    /**
+     * Scans the keys of all links.
+     *
+     * @param count the number of keys to scan per page
+     * @return a {@link Flux} of the link keys; a key may be emitted more than once
+     */
+    Flux<String> scanLinkKeys(int count);
+
+    /**
+     * Reads one page of link keys. Paging from {@link KeyPage#FIRST_CURSOR} until the next cursor is
+     * {@link KeyPage#FIRST_CURSOR} again returns every link key that exists for the whole duration.
+     *
+     * @param cursor the cursor to read from
+     * @param count the number of keys to scan for the page
+     * @return a {@link Mono} containing the page; it may hold no keys
+     */
+    Mono<KeyPage> scanLinkKeys(String cursor, int count);
+}
@@ -0,0 +1,32 @@
+package org.si.parsing.scheduler.service.storage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Scans the string keys of a single Redis node page by page with a SCAN cursor.
+ */
+@FunctionalInterface
+public interface RedisNodeScanner {
+
+    /**
+     * Reads one page of keys.
+     *
+     * @param cursor the cursor to read from, {@link KeyPage#FIRST_CURSOR} to start
+     * @param count the number of keys to scan for the page (the SCAN COUNT hint)
+     * @return a {@link Mono} containing the page
+     */
+    Mono<KeyPage> scan(String cursor, int count);
+
+    /**
+     * Scans all keys of the node, reading a page only once the previous one is consumed.
+     *
+     * @param count the number of keys to scan per page
+     * @return a {@link Flux} of the keys in scan order
+     */
+    default Flux<String> scanAll(int count) {
+        return scan(KeyPage.FIRST_CURSOR, count)
+            .expand(page -> page.isLast() ? Mono.empty() : scan(page.nextCursor(), count))
+            .concatMapIterable(KeyPage::keys);
+    }
+}
@@ -0,0 +1,117 @@
+package org.si.parsing.scheduler.service.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.si.parsing.scheduler.service.service.LinkService;
+import org.si.parsing.scheduler.service.service.ShardLeaseService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stores every link under its URL on a single Redis node, with the due-time index shards under
+ * {@code links:due:<shard>}. This is the layout of standalone, sentinel and replicated deployments.
+ * <p>
+ * Every string key except the shard leases is a link, whatever the scheme of its URL, so the database must be
+ * dedicated to the scheduler; the parsers keep their state in a database of their own.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.storage.mode", havingValue = "standalone", matchIfMissing = true)
+public class StandaloneLinkKeyspace implements LinkKeyspace {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCAN_LINKS_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/scan-links.lua"), List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisElementReader<List> SCAN_RESULT_READER =
+        buffer -> List.of(StandardCharsets.UTF_8.decode(buffer).toString());
+    private static final RedisElementWriter<String> ARGS_WRITER = RedisElementWriter.from(RedisSerializer.string());
+    private static final String LINK_KEY_PATTERN = "*";
+
+    private final RedisNodeScanner scanner;
+
+    /**
+     * Creates the layout scanning the node the template is connected to.
+     *
+     * @param redisTemplate the template of the node
+     */
+    public StandaloneLinkKeyspace(ReactiveStringRedisTemplate redisTemplate) {
+        this.scanner = (cursor, count) -> redisTemplate.execute(SCAN_LINKS_SCRIPT, List.of(),
+                List.of(cursor, Integer.toString(count), LINK_KEY_PATTERN), ARGS_WRITER, SCAN_RESULT_READER)
+            .collectList()
+            .map(StandaloneLinkKeyspace::toPage);
+    }
+
+    @Override
+    public String linkKey(String url, int shard) {
+        return url;
+    }
+
+    @Override
+    public String urlOf(String key) {
+        return key;
+    }
+
+    @Override
+    public String linkKeyPattern() {
+        return LINK_KEY_PATTERN;
+    }
+
+    @Override
+    public String dueIndexKey(int shard) {
+        return LinkService.DUE_INDEX_KEY + ':' + shard;
+    }
+
+    @Override
+    public boolean isClustered() {
+        return false;
+    }
+
+    @Override
+    public Flux<String> scanLinkKeys(int count) {
+        return scanner.scanAll(count)
+            .filter(StandaloneLinkKeyspace::isLinkKey);
+    }
+
+    @Override
+    public Mono<KeyPage> scanLinkKeys(String cursor, int count) {
+        return scanner.scan(cursor, count)
+            .map(page -> new KeyPage(page.nextCursor(), page.keys().stream()
+                .filter(StandaloneLinkKeyspace::isLinkKey)
+                .toList()));
+    }
+
+    /**
+     * Tells whether a string key holds a link rather than scheduler state, i.e. a shard lease.
+     */
+    private static boolean isLinkKey(String key) {
+        return !key.startsWith(ShardLeaseService.LEASE_KEY_PREFIX);
+    }
+
+    /**
+     * Reads the result of the scan script: the next cursor followed by the keys of the page.
+     */
+    private static KeyPage toPage(List<?> result) {
+        List<String> values = new ArrayList<>();
+        flatten(result, values);
+        return new KeyPage(values.get(0), List.copyOf(values.subList(1, values.size())));
+    }
+
+    private static void flatten(Object value, List<String> values) {
+        if (value instanceof List<?> list) {
+            for (Object element : list) {
+                flatten(element, values);
+            }
+        } else {
+            values.add(String.valueOf(value));
+        }
+    }
+}
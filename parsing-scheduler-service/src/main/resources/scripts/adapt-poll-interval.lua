@@ -0,0 +1,40 @@
+-- Atomically adapts the polling interval of a single link to the number of new articles its last poll found
+-- (AIMD): the interval is divided by the decrease factor when new articles were found and grows by the
+-- increase step otherwise, bounded by the minimum and maximum intervals. A link that is still indexed is
+-- rescheduled one adapted interval from now. A link that does not exist is left untouched.
+-- Loaded after link-codec.lua and link-schedule.lua.
+--
+-- KEYS[1]: the due-time index shard of the link
+-- KEYS[2]: the link key
+-- ARGV[1]: the number of new articles found by the last poll
+-- ARGV[2]: the current time in epoch milliseconds
+-- ARGV[3]: the default polling interval in milliseconds
+-- ARGV[4]: the minimum polling interval in milliseconds
+-- ARGV[5]: the maximum polling interval in milliseconds
+-- ARGV[6]: the increase step in milliseconds
+-- ARGV[7]: the decrease factor
+-- ARGV[8]: '1' to spread due times across the interval, see next_due
+--
+-- Returns the updated link, or nil if the link does not exist.
+local raw = redis.call('GET', KEYS[2])
+if not raw then
+    return nil
+end
+
+local link = decode_link(raw)
+local interval = link.interval or tonumber(ARGV[3])
+
+if tonumber(ARGV[1]) > 0 then
+    interval = interval / tonumber(ARGV[7])
+else
+    interval = interval + tonumber(ARGV[6])
+end
+interval = math.floor(math.max(tonumber(ARGV[4]), math.min(tonumber(ARGV[5]), interval)))
+link.interval = interval
+
+local updated = encode_link(link)
+redis.call('SET', KEYS[2], updated)
+if redis.call('ZSCORE', KEYS[1], KEYS[2]) then
+    redis.call('ZADD', KEYS[1], next_due(KEYS[2], tonumber(ARGV[2]), interval, ARGV[8]), KEYS[2])
+end
+return updated
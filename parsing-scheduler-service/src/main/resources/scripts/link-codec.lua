@@ -0,0 +1,74 @@
+-- Link value codec shared by the scripts that update links. It is prepended to those scripts when they are
+-- loaded, so they handle JSON and binary values alike and keep every value in the encoding it is stored in.
+--
+-- Binary values are a version byte followed by unsigned LEB128 varints: the last parsed time in epoch
+-- milliseconds and the polling interval in milliseconds, zero encoding a missing value.
+local BINARY_V1 = 1
+
+local function read_varint(raw, pos)
+    local value = 0
+    local scale = 1
+    while true do
+        local byte = string.byte(raw, pos)
+        pos = pos + 1
+        value = value + (byte % 128) * scale
+        if byte < 128 then
+            return value, pos
+        end
+        scale = scale * 128
+    end
+end
+
+local function write_varint(value)
+    local bytes = {}
+    repeat
+        local byte = value % 128
+        value = (value - byte) / 128
+        if value > 0 then
+            byte = byte + 128
+        end
+        bytes[#bytes + 1] = string.char(byte)
+    until value == 0
+    return table.concat(bytes)
+end
+
+-- Decodes a stored link into a table holding its polling interval in milliseconds, nil for the default.
+local function decode_link(raw)
+    if string.byte(raw, 1) == BINARY_V1 then
+        local time, pos = read_varint(raw, 2)
+        local interval = read_varint(raw, pos)
+        if interval == 0 then
+            interval = nil
+        end
+        return { binary = true, time = time, interval = interval }
+    end
+
+    local json = cjson.decode(raw)
+    local interval = nil
+    if type(json.pollInterval) == 'number' then
+        interval = json.pollInterval * 1000
+    end
+    return { json = json, interval = interval }
+end
+
+-- Sets the last parsed time of a link: JSON links copy it from a JSON encoded link,
+-- binary links take it in epoch milliseconds.
+local function set_last_parsed_time(link, json_stamp, binary_time)
+    if link.binary then
+        link.time = tonumber(binary_time)
+    else
+        link.json.lastParsedTime = cjson.decode(json_stamp).lastParsedTime
+    end
+end
+
+-- Encodes a link decoded by decode_link back into its original encoding.
+local function encode_link(link)
+    if link.binary then
+        return string.char(BINARY_V1) .. write_varint(link.time) .. write_varint(link.interval or 0)
+    end
+    if link.interval then
+        link.json.pollInterval = link.interval / 1000
+    end
+    return cjson.encode(link.json)
+end
+
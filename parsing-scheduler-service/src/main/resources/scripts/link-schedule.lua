@@ -0,0 +1,23 @@
+-- Due-time helper shared by the scripts that reschedule links. It is prepended to those scripts when they
+-- are loaded.
+local PHASE_RANGE = 4294967296
+
+-- Returns the epoch millisecond a link is due next, one interval from now. With smoothing, the due time is
+-- moved by at most half an interval to the link's own phase within its interval, derived from a hash of its
+-- key, so links sharing an interval are spread evenly across it instead of being dispatched together.
+local function next_due(key, now, interval, smoothing)
+    local due = now + interval
+    if smoothing ~= '1' or interval <= 0 then
+        return due
+    end
+
+    local phase = tonumber(string.sub(redis.sha1hex(key), 1, 8), 16) / PHASE_RANGE * interval
+    local aligned = due - (due % interval) + phase
+    if aligned < due - interval / 2 then
+        aligned = aligned + interval
+    elseif aligned > due + interval / 2 then
+        aligned = aligned - interval
+    end
+    return math.floor(aligned)
+end
+
@@ -0,0 +1,30 @@
+-- Atomically marks a batch of links as dispatched: updates their lastParsedTime and reschedules them
+-- in the due-time index one polling interval ahead. Links that do not exist are skipped, so a concurrent
+-- delete is never undone. Loaded after link-codec.lua and link-schedule.lua.
+--
+-- KEYS: pairs of the due-time index shard of a link followed by the link key
+-- ARGV[1]: a JSON encoded link carrying the new lastParsedTime
+-- ARGV[2]: the current time in epoch milliseconds
+-- ARGV[3]: the default polling interval in milliseconds
+-- ARGV[4]: the new lastParsedTime in epoch milliseconds, for binary links
+-- ARGV[5]: '1' to spread due times across the interval, see next_due
+--
+-- Returns the number of updated links.
+local now = tonumber(ARGV[2])
+local defaultInterval = tonumber(ARGV[3])
+local updated = 0
+
+for i = 1, #KEYS, 2 do
+    local raw = redis.call('GET', KEYS[i + 1])
+    if raw then
+        local link = decode_link(raw)
+        set_last_parsed_time(link, ARGV[1], ARGV[4])
+        local interval = link.interval or defaultInterval
+
+        redis.call('SET', KEYS[i + 1], encode_link(link))
+        redis.call('ZADD', KEYS[i], next_due(KEYS[i + 1], now, interval, ARGV[5]), KEYS[i + 1])
+        updated = updated + 1
+    end
+end
+
+return updated
@@ -0,0 +1,17 @@
+-- Atomically re-encodes a batch of links with another codec. A link is only replaced if it still holds
+-- the value it was re-encoded from, so updates made concurrently are never overwritten.
+--
+-- KEYS: the link keys
+-- ARGV: pairs of the value a link was read with followed by its re-encoded value, one pair per key
+--
+-- Returns the number of migrated links.
+local migrated = 0
+
+for i = 1, #KEYS do
+    if redis.call('GET', KEYS[i]) == ARGV[2 * i - 1] then
+        redis.call('SET', KEYS[i], ARGV[2 * i])
+        migrated = migrated + 1
+    end
+end
+
+return migrated
@@ -0,0 +1,10 @@
+-- Releases a shard lease if it is still held by the calling instance.
+--
+-- KEYS[1]: the lease key
+-- ARGV[1]: the instance id
+--
+-- Returns 1 if the lease was released, 0 otherwise.
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
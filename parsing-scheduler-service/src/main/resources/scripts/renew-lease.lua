@@ -0,0 +1,11 @@
+-- Extends a shard lease if it is still held by the calling instance.
+--
+-- KEYS[1]: the lease key
+-- ARGV[1]: the instance id
+-- ARGV[2]: the lease time-to-live in milliseconds
+--
+-- Returns 1 if the lease was extended, 0 if it is held by another instance or has expired.
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
@@ -0,0 +1,13 @@
+-- Reads one page of string keys with a SCAN cursor, so a client can page through the links and resume later.
+--
+-- ARGV[1]: the cursor to scan from, "0" to start
+-- ARGV[2]: the number of keys to scan in the page (the SCAN COUNT hint)
+-- ARGV[3]: the glob pattern the keys must match (the SCAN MATCH pattern)
+--
+-- Returns the next cursor followed by the keys of the page.
+local page = redis.call('SCAN', ARGV[1], 'MATCH', ARGV[3], 'COUNT', ARGV[2], 'TYPE', 'string')
+local result = { page[1] }
+for i = 1, #page[2] do
+    result[i + 1] = page[2][i]
+end
+return result
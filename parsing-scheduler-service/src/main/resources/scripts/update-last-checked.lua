@@ -0,0 +1,26 @@
+-- Atomically updates lastParsedTime of a single link and reschedules it in the due-time index.
+-- A link that does not exist is left untouched, so a concurrent delete is never undone.
+-- Loaded after link-codec.lua and link-schedule.lua.
+--
+-- KEYS[1]: the due-time index shard of the link
+-- KEYS[2]: the link key
+-- ARGV[1]: a JSON encoded link carrying the new lastParsedTime
+-- ARGV[2]: the current time in epoch milliseconds
+-- ARGV[3]: the default polling interval in milliseconds
+-- ARGV[4]: the new lastParsedTime in epoch milliseconds, for binary links
+-- ARGV[5]: '1' to spread due times across the interval, see next_due
+--
+-- Returns the updated link, or nil if the link does not exist.
+local raw = redis.call('GET', KEYS[2])
+if not raw then
+    return nil
+end
+
+local link = decode_link(raw)
+set_last_parsed_time(link, ARGV[1], ARGV[4])
+local interval = link.interval or tonumber(ARGV[3])
+
+local updated = encode_link(link)
+redis.call('SET', KEYS[2], updated)
+redis.call('ZADD', KEYS[1], next_due(KEYS[2], tonumber(ARGV[2]), interval, ARGV[5]), KEYS[2])
+return updated
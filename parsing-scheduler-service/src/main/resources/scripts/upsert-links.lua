@@ -0,0 +1,31 @@
+-- Atomically adds or replaces a batch of links. New links are due immediately, while links that are already
+-- indexed keep their due time, so re-importing a link set does not make every link due at once. A replaced
+-- link without its own polling interval keeps the interval stored for it, e.g. one adapted to its feed.
+-- Loaded after link-codec.lua and link-schedule.lua.
+--
+-- KEYS: pairs of the due-time index shard of a link followed by the link key
+-- ARGV[1]: the current time in epoch milliseconds
+-- ARGV[2..]: the encoded links, one per pair of keys
+--
+-- Returns the number of written links.
+local now = tonumber(ARGV[1])
+local written = 0
+
+for i = 1, #KEYS, 2 do
+    local value = ARGV[(i + 1) / 2 + 1]
+    local stored = redis.call('GET', KEYS[i + 1])
+    if stored then
+        local link = decode_link(value)
+        local previous = decode_link(stored)
+        if not link.interval and previous.interval then
+            link.interval = previous.interval
+            value = encode_link(link)
+        end
+    end
+
+    redis.call('SET', KEYS[i + 1], value)
+    redis.call('ZADD', KEYS[i], 'NX', now, KEYS[i + 1])
+    written = written + 1
+end
+
+return written
@@ -0,0 +1,109 @@
+package org.si.parsing.scheduler.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.storage.LinkKeyspace;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveServerCommands;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LinkCacheTest {
+
+    private static final String URL = "https://example.com/news";
+
+    private ReactiveServerCommands serverCommands;
+    private LinkCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ReactiveRedisConnectionFactory connectionFactory = Mockito.mock(ReactiveRedisConnectionFactory.class);
+        ReactiveRedisConnection connection = Mockito.mock(ReactiveRedisConnection.class);
+        serverCommands = Mockito.mock(ReactiveServerCommands.class);
+        Mockito.when(connectionFactory.getReactiveConnection()).thenReturn(connection);
+        Mockito.when(connection.serverCommands()).thenReturn(serverCommands);
+        Mockito.when(connection.closeLater()).thenReturn(Mono.empty());
+
+        LinkKeyspace linkKeyspace = Mockito.mock(LinkKeyspace.class);
+        Mockito.when(linkKeyspace.linkKeyPattern()).thenReturn("http*");
+
+        cache = new LinkCache(connectionFactory, new SimpleMeterRegistry(), linkKeyspace);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.destroy();
+    }
+
+    @Test
+    void testUnreadableConfigKeepsCacheBypassed() {
+        // CONFIG запрещен, как у многих управляемых Redis: нельзя убедиться, что уведомления публикуются
+        Mockito.when(serverCommands.getConfig(ArgumentMatchers.anyString()))
+            .thenReturn(Mono.error(new RedisSystemException("unknown command 'CONFIG'", null)));
+        ReflectionTestUtils.setField(cache, "configureKeyspaceEvents", true);
+        cache.init();
+
+        assertEquals(2, loadTwice());
+    }
+
+    @Test
+    void testMissingEventsAreNotAddedWhenConfigurationIsManagedElsewhere() {
+        // Уведомления выключены, а менять конфигурацию сервера запрещено: кэш не используется
+        Mockito.when(serverCommands.getConfig(ArgumentMatchers.anyString()))
+            .thenReturn(Mono.just(config("")));
+        ReflectionTestUtils.setField(cache, "configureKeyspaceEvents", false);
+        cache.init();
+
+        assertEquals(2, loadTwice());
+        Mockito.verify(serverCommands, Mockito.timeout(1000)).getConfig("notify-keyspace-events");
+        Mockito.verify(serverCommands, Mockito.never())
+            .setConfig(ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+    }
+
+    @Test
+    void testMissingEventsAreAdded() {
+        Mockito.when(serverCommands.getConfig(ArgumentMatchers.anyString()))
+            .thenReturn(Mono.just(config("Ex")));
+        Mockito.when(serverCommands.setConfig(ArgumentMatchers.anyString(), ArgumentMatchers.anyString()))
+            .thenReturn(Mono.just("OK"));
+        ReflectionTestUtils.setField(cache, "configureKeyspaceEvents", true);
+        cache.init();
+
+        // Добавляются только недостающие классы событий
+        Mockito.verify(serverCommands, Mockito.timeout(1000)).setConfig("notify-keyspace-events", "ExK$g");
+    }
+
+    private int loadTwice() {
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            cache.get(URL, url -> {
+                loads.incrementAndGet();
+                return Mono.just(new Link(url, LocalDateTime.now()));
+            }).block();
+        }
+        return loads.get();
+    }
+
+    private static Properties config(String events) {
+        Properties config = new Properties();
+        config.setProperty("notify-keyspace-events", events);
+        return config;
+    }
+}
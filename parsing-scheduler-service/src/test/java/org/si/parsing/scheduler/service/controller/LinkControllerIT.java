@@ -3,18 +3,23 @@ package org.si.parsing.scheduler.service.controller;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.si.parsing.scheduler.service.IntegrationTest;
+import org.si.parsing.scheduler.service.model.BulkLinkResult;
+import org.si.parsing.scheduler.service.model.ExportedLink;
 import org.si.parsing.scheduler.service.model.Link;
 import org.si.parsing.scheduler.service.service.LinkService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @AutoConfigureWebTestClient
@@ -104,4 +109,47 @@ public class LinkControllerIT extends IntegrationTest {
             .expectNextCount(0)
             .verifyComplete();
     }
+
+    @Test
+    public void testBulkUpsertAndDelete() {
+        String lines = """
+            {"url":"http://bulk1.com","pollInterval":"PT30S"}
+            not json
+            {"url":"http://bulk2.com"}
+            """;
+
+        // Проверяем, что каждая строка получает свой результат, а ошибочная строка не мешает остальным
+        webTestClient.post().uri("/api/v1/links/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue(lines)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(BulkLinkResult.class)
+            .value(results -> assertEquals(List.of(BulkLinkResult.Status.UPSERTED, BulkLinkResult.Status.FAILED,
+                BulkLinkResult.Status.UPSERTED), results.stream().map(BulkLinkResult::status).toList()));
+
+        // Удаляем одну существующую и одну несуществующую ссылку
+        webTestClient.post().uri("/api/v1/links/bulk-delete")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue("{\"url\":\"http://bulk1.com\"}\n{\"url\":\"http://missing.com\"}\n")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(BulkLinkResult.class)
+            .value(results -> assertEquals(List.of(BulkLinkResult.Status.DELETED, BulkLinkResult.Status.NOT_FOUND),
+                results.stream().map(BulkLinkResult::status).toList()));
+
+        linkService.deleteLink("http://bulk2.com").block();
+    }
+
+    @Test
+    public void testExportLinks() {
+        // Проверяем, что экспорт возвращает ссылки построчно вместе с курсором
+        webTestClient.get().uri("/api/v1/links/export?count=10")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(ExportedLink.class)
+            .value(exported -> assertTrue(exported.stream()
+                .anyMatch(line -> line.url().equals(link.url()) && line.cursor() != null)));
+    }
 }
@@ -0,0 +1,49 @@
+package org.si.parsing.scheduler.service.producer;
+
+import org.junit.jupiter.api.Test;
+import org.si.parsing.scheduler.service.model.Link;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HostPartitioningStrategyTest {
+
+    @Test
+    void testLinksOfAHostShareAKey() {
+        HostPartitioningStrategy strategy = new HostPartitioningStrategy();
+        ReflectionTestUtils.setField(strategy, "hostSpread", 1);
+
+        // Ссылки одного сайта получают один ключ независимо от пути и префикса www
+        String key = strategy.keyOf(new Link("https://www.RBC.ru/news/1", LocalDateTime.now()));
+        assertEquals("rbc.ru", key);
+        assertEquals(key, strategy.keyOf(new Link("https://rbc.ru/economics/2", LocalDateTime.now())));
+        assertNotEquals(key, strategy.keyOf(new Link("https://tradingview.com/news", LocalDateTime.now())));
+    }
+
+    @Test
+    void testHostSpread() {
+        HostPartitioningStrategy strategy = new HostPartitioningStrategy();
+        ReflectionTestUtils.setField(strategy, "hostSpread", 4);
+
+        // Ссылки одного сайта распределяются не более чем по четырем стабильным ключам
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Link link = new Link("https://rbc.ru/news/" + i, LocalDateTime.now());
+            String key = strategy.keyOf(link);
+            assertTrue(key.startsWith("rbc.ru#"));
+            assertEquals(key, strategy.keyOf(link));
+            keys.add(key);
+        }
+        assertEquals(4, keys.size());
+    }
+
+    @Test
+    void testUnparsableUrl() {
+        // Ссылки без хоста используются как ключ целиком
+        assertEquals("not a url", HostPartitioningStrategy.hostOf("not a url"));
+    }
+}
@@ -15,6 +15,7 @@ import org.springframework.kafka.listener.KafkaMessageListenerContainer;
 import org.springframework.kafka.listener.MessageListener;
 import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.test.utils.ContainerTestUtils;
+import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
@@ -72,4 +73,17 @@ public class KafkaProducerServiceIT extends IntegrationTest {
             .expectComplete()      // Ожидаем завершение операции (успешная отправка)
             .verify();            // Проверка завершения
     }
+
+    @Test
+    public void testSendLinksToKafka() {
+        // Подготовка нескольких ссылок для пакетной отправки
+        Flux<Link> links = Flux.range(0, 100)
+            .map(i -> new Link("https://test.com/" + i, LocalDateTime.now()));
+
+        // Отправка ссылок одним потоком и проверка результатов по каждой записи
+        StepVerifier.create(kafkaProducerService.sendLinksToKafka(links))
+            .thenConsumeWhile(result -> result.exception() == null
+                && result.correlationMetadata().startsWith("https://test.com/"))
+            .verifyComplete();
+    }
 }
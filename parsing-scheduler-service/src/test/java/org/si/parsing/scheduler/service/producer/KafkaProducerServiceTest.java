@@ -0,0 +1,24 @@
+package org.si.parsing.scheduler.service.producer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KafkaProducerServiceTest {
+
+    @Test
+    void testEscapeProducesValidJson() throws Exception {
+        // Кавычки, обратные слэши и управляющие символы в URL не ломают JSON сообщения
+        String url = "https://example.com/a\"b\\c\td\ne\u0001f";
+        String json = "{\"url\":\"" + KafkaProducerService.escape(url) + "\"}";
+
+        assertEquals(url, new ObjectMapper().readTree(json).get("url").asText());
+    }
+
+    @Test
+    void testPlainUrlIsUnchanged() {
+        String url = "https://example.com/news/1?page=2";
+        assertEquals(url, KafkaProducerService.escape(url));
+    }
+}
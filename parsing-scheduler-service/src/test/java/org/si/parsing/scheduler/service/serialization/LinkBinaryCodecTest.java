@@ -0,0 +1,55 @@
+package org.si.parsing.scheduler.service.serialization;
+
+import org.junit.jupiter.api.Test;
+import org.si.parsing.scheduler.service.model.Link;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LinkBinaryCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        Link link = new Link("http://example.com", LocalDateTime.of(2024, 10, 1, 12, 30, 15, 123_000_000),
+            Duration.ofSeconds(90));
+
+        // Кодируем и декодируем ссылку
+        byte[] encoded = LinkBinaryCodec.encode(link);
+        Link decoded = LinkBinaryCodec.decode(encoded);
+
+        // URL не хранится в значении, остальные поля восстанавливаются
+        assertTrue(LinkBinaryCodec.isBinary(encoded));
+        assertNull(decoded.url());
+        assertEquals(link, decoded.withUrl(link.url()));
+        assertTrue(encoded.length < link.url().length());
+    }
+
+    @Test
+    void testMissingValues() {
+        Link decoded = LinkBinaryCodec.decode(LinkBinaryCodec.encode(new Link("http://example.com", null)));
+
+        // Отсутствующие время и интервал кодируются нулем и декодируются как null
+        assertNull(decoded.lastParsedTime());
+        assertNull(decoded.pollInterval());
+    }
+
+    @Test
+    void testSerializerReadsBothEncodings() {
+        Link link = new Link("http://example.com", LocalDateTime.of(2024, 10, 1, 12, 30), Duration.ofMinutes(1));
+        LinkRedisSerializer jsonSerializer = new LinkRedisSerializer(LinkCodec.JSON);
+        LinkRedisSerializer binarySerializer = new LinkRedisSerializer(LinkCodec.BINARY);
+
+        byte[] json = jsonSerializer.serialize(link);
+        byte[] binary = binarySerializer.serialize(link);
+
+        // Каждый сериализатор читает оба формата и определяет, нужна ли миграция
+        assertTrue(new String(json, StandardCharsets.UTF_8).startsWith("{"));
+        assertEquals(link, binarySerializer.deserialize(json));
+        assertEquals(link, jsonSerializer.deserialize(binary).withUrl(link.url()));
+        assertFalse(binarySerializer.isCurrentEncoding(json));
+        assertTrue(binarySerializer.isCurrentEncoding(binary));
+    }
+}
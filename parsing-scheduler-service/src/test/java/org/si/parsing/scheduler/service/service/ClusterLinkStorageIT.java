@@ -0,0 +1,179 @@
+package org.si.parsing.scheduler.service.service;
+
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.internal.HostAndPort;
+import io.lettuce.core.resource.DnsResolvers;
+import io.lettuce.core.resource.MappingSocketAddressResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.si.parsing.scheduler.service.IntegrationTest;
+import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.storage.LinkKeyspace;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Import(ClusterLinkStorageIT.ClusterAddressMapping.class)
+public class ClusterLinkStorageIT extends IntegrationTest {
+
+    private static final List<Integer> NODE_PORTS = List.of(7000, 7001, 7002);
+    private static final String NODE_HOST = "127.0.0.1";
+
+    /**
+     * Три ведущих узла Redis Cluster в одном контейнере. Узлы объявляют адреса 127.0.0.1:700x,
+     * которые клиент переводит в порты, проброшенные на хост.
+     */
+    public static final GenericContainer<?> REDIS_CLUSTER_CONTAINER;
+
+    static {
+        String nodes = NODE_PORTS.stream().map(port -> NODE_HOST + ":" + port).collect(Collectors.joining(" "));
+        REDIS_CLUSTER_CONTAINER = new GenericContainer<>(DockerImageName.parse("redis:latest"))
+            .withExposedPorts(NODE_PORTS.toArray(Integer[]::new))
+            .withCommand("sh", "-c", "for port in " + NODE_PORTS.stream().map(String::valueOf)
+                .collect(Collectors.joining(" ")) + "; do redis-server --port $port --cluster-enabled yes"
+                + " --cluster-config-file nodes-$port.conf --save '' --appendonly no --daemonize yes; done;"
+                + " sleep 1; redis-cli --cluster create " + nodes + " --cluster-replicas 0 --cluster-yes;"
+                + " tail -f /dev/null")
+            .waitingFor(Wait.forLogMessage(".*All 16384 slots covered.*", 1));
+        REDIS_CLUSTER_CONTAINER.start();
+    }
+
+    @DynamicPropertySource
+    static void registerClusterProperties(DynamicPropertyRegistry registry) {
+        registry.add("scheduler.storage.mode", () -> "cluster");
+        registry.add("spring.data.redis.cluster.nodes",
+            () -> REDIS_CLUSTER_CONTAINER.getHost() + ":" + REDIS_CLUSTER_CONTAINER.getMappedPort(NODE_PORTS.get(0)));
+        registry.add("scheduler.snapshot.path", () -> "target/links-cluster.snapshot");
+        // Планировщик не должен отправлять ссылки теста между шагами проверки
+        registry.add("scheduler.tick-rate-ms", () -> Long.toString(Duration.ofHours(1).toMillis()));
+    }
+
+    /**
+     * Переводит адреса, объявленные узлами кластера внутри контейнера, в адреса, доступные с хоста.
+     */
+    @TestConfiguration
+    static class ClusterAddressMapping {
+
+        @Bean
+        ClientResourcesBuilderCustomizer clusterAddressMapping() {
+            return builder -> builder.socketAddressResolver(MappingSocketAddressResolver.create(
+                DnsResolvers.JVM_DEFAULT,
+                address -> NODE_HOST.equals(address.getHostText()) && NODE_PORTS.contains(address.getPort())
+                    ? HostAndPort.of(REDIS_CLUSTER_CONTAINER.getHost(),
+                        REDIS_CLUSTER_CONTAINER.getMappedPort(address.getPort()))
+                    : address));
+        }
+    }
+
+    @Autowired
+    private LinkService linkService;
+
+    @Autowired
+    private ShardLeaseService shardLeaseService;
+
+    @Autowired
+    private LinkKeyspace linkKeyspace;
+
+    private final List<String> urls = IntStream.range(0, 50)
+        .mapToObj(i -> "https://site" + i + ".example.com/news")
+        .toList();
+
+    @AfterEach
+    public void tearDown() {
+        linkService.deleteLinks(urls).blockLast();
+    }
+
+    @Test
+    public void testLinkAndDueIndexShareASlot() {
+        assertTrue(linkKeyspace.isClustered());
+
+        // Ссылка и шард индекса сроков в одном слоте, поэтому скрипты обновляют их атомарно
+        for (String url : urls) {
+            int shard = linkService.shardOf(url);
+            assertEquals(SlotHash.getSlot(linkKeyspace.dueIndexKey(shard)),
+                SlotHash.getSlot(linkKeyspace.linkKey(url, shard)));
+        }
+
+        // Ссылки распределены по нескольким узлам кластера
+        Set<Integer> slots = urls.stream()
+            .map(url -> SlotHash.getSlot(linkKeyspace.linkKey(url, linkService.shardOf(url))))
+            .collect(Collectors.toSet());
+        assertTrue(slots.size() > 1);
+    }
+
+    @Test
+    public void testLinksAreWrittenAndReadAcrossNodes() {
+        // Пакетная запись разбивается по шардам и не получает CROSSSLOT
+        StepVerifier.create(linkService.upsertLinks(urls.stream().map(url -> new Link(url, null)).toList()))
+            .verifyComplete();
+
+        // Чтение по одной ссылке, обход всех узлов и выборка просроченных ссылок видят все ссылки
+        StepVerifier.create(linkService.getLinkByUrl(urls.get(0)))
+            .expectNextMatches(link -> link.url().equals(urls.get(0)))
+            .verifyComplete();
+        StepVerifier.create(linkService.getAllLinks().map(Link::url).collect(Collectors.toSet()))
+            .expectNextMatches(all -> all.containsAll(urls))
+            .verifyComplete();
+        StepVerifier.create(linkService.getDueLinks(Instant.now().plusSeconds(1), urls.size())
+                .map(Link::url)
+                .collect(Collectors.toSet()))
+            .expectNext(Set.copyOf(urls))
+            .verifyComplete();
+        StepVerifier.create(linkService.rebuildDueIndex())
+            .expectNextMatches(indexed -> indexed >= urls.size())
+            .verifyComplete();
+    }
+
+    @Test
+    public void testScriptsUpdateLinksOfEveryShard() {
+        linkService.upsertLinks(urls.stream().map(url -> new Link(url, null)).toList()).block();
+
+        // Скрипты получают ключи с хеш-тегом шарда и выполняются на узле этого шарда
+        StepVerifier.create(linkService.markDispatched(urls))
+            .expectNext((long) urls.size())
+            .verifyComplete();
+        StepVerifier.create(linkService.getDueLinks(Instant.now(), urls.size()))
+            .verifyComplete();
+        StepVerifier.create(linkService.adaptPollInterval(urls.get(0), 0))
+            .expectNextMatches(link -> link.pollInterval() != null)
+            .verifyComplete();
+        StepVerifier.create(linkService.updateLastChecked(urls.get(1)))
+            .expectNextMatches(link -> link.url().equals(urls.get(1)))
+            .verifyComplete();
+        StepVerifier.create(linkService.deleteLink(urls.get(2)))
+            .expectNext(true)
+            .verifyComplete();
+    }
+
+    @Test
+    public void testShardLeasesInCluster() {
+        // Аренды читаются одним MGET: все ключи аренд в одном слоте
+        StepVerifier.create(shardLeaseService.rebalance())
+            .expectNextMatches(shards -> shards.size() == linkService.getShardCount())
+            .verifyComplete();
+        assertTrue(shardLeaseService.holdsLeases(shardLeaseService.getOwnedShards()));
+        StepVerifier.create(shardLeaseService.rebalance())
+            .expectNextMatches(shards -> shards.equals(shardLeaseService.getOwnedShards()))
+            .expectComplete()
+            .verify(Duration.ofSeconds(10));
+    }
+}
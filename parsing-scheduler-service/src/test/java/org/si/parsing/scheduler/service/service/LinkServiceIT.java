@@ -7,10 +7,14 @@ import org.si.parsing.scheduler.service.model.Link;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @SpringBootTest
 public class LinkServiceIT extends IntegrationTest {
@@ -78,6 +82,87 @@ public class LinkServiceIT extends IntegrationTest {
             .verifyComplete();
     }
 
+    @Test
+    public void testAdaptPollInterval() {
+        String url = "http://example.com/adaptive";
+        linkService.addLink(url, Duration.ofMinutes(2)).block();
+
+        // Новые статьи найдены: интервал уменьшается мультипликативно
+        StepVerifier.create(linkService.adaptPollInterval(url, 3))
+            .expectNextMatches(link -> link.pollInterval().equals(Duration.ofMinutes(1)))
+            .verifyComplete();
+
+        // Новых статей нет: интервал увеличивается аддитивно
+        StepVerifier.create(linkService.adaptPollInterval(url, 0))
+            .expectNextMatches(link -> link.pollInterval().equals(Duration.ofSeconds(90)))
+            .verifyComplete();
+
+        // Для несуществующей ссылки ничего не происходит
+        StepVerifier.create(linkService.adaptPollInterval("http://example.com/missing", 1))
+            .verifyComplete();
+    }
+
+    @Test
+    public void testUpsertKeepsScheduleOfExistingLinks() {
+        String url = "http://example.com/reimported";
+        linkService.addLink(url, Duration.ofMinutes(2)).block();
+        Link adapted = linkService.adaptPollInterval(url, 0).block();
+        Mono<Double> score = reactiveRedisTemplate.opsForZSet(RedisSerializationContext.string())
+            .score(LinkService.DUE_INDEX_KEY + ':' + linkService.shardOf(url), url);
+        Double due = score.block();
+
+        // Повторный импорт без интервала не делает ссылку просроченной и не сбрасывает адаптированный интервал
+        linkService.upsertLinks(List.of(new Link(url, null))).block();
+
+        StepVerifier.create(score)
+            .expectNext(due)
+            .verifyComplete();
+        StepVerifier.create(linkService.getLinkByUrl(url))
+            .expectNextMatches(link -> link.pollInterval().equals(adapted.pollInterval()))
+            .verifyComplete();
+    }
+
+    @Test
+    public void testSmoothedReschedule() {
+        String url = "http://example.com/smoothed";
+        Duration interval = Duration.ofMinutes(2);
+        linkService.addLink(url, interval).block();
+
+        // Обновляем ссылку: следующий запуск сдвигается к фазе ссылки внутри интервала
+        long now = Instant.now().toEpochMilli();
+        linkService.updateLastChecked(url).block();
+
+        // Проверяем, что сдвиг не превышает половины интервала
+        Mono<Double> score = reactiveRedisTemplate.opsForZSet(RedisSerializationContext.string())
+            .score(LinkService.DUE_INDEX_KEY + ':' + linkService.shardOf(url), url);
+        StepVerifier.create(score)
+            .expectNextMatches(due -> Math.abs(due - (now + interval.toMillis())) <= interval.toMillis() / 2 + 1000)
+            .verifyComplete();
+    }
+
+    @Test
+    public void testNearCacheInvalidation() {
+        String url = "http://example.com/cached";
+        linkService.addLink(url).block();
+
+        // Первое чтение кэширует ссылку
+        StepVerifier.create(linkService.getLinkByUrl(url))
+            .expectNextMatches(link -> link.pollInterval() == null)
+            .verifyComplete();
+
+        // Изменяем ссылку в обход сервиса, как это сделал бы другой экземпляр
+        reactiveRedisTemplate.opsForValue().set(url, new Link(url, LocalDateTime.now(), Duration.ofMinutes(5))).block();
+
+        // Проверяем, что уведомление Redis вытесняет устаревшую запись из кэша
+        Mono<Link> refreshed = Mono.defer(() -> linkService.getLinkByUrl(url))
+            .filter(link -> Duration.ofMinutes(5).equals(link.pollInterval()))
+            .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(100)))
+            .timeout(Duration.ofSeconds(5));
+        StepVerifier.create(refreshed)
+            .expectNextCount(1)
+            .verifyComplete();
+    }
+
     @Test
     public void testDeleteLink() {
         String url = "http://example.com";
@@ -116,4 +201,73 @@ public class LinkServiceIT extends IntegrationTest {
         StepVerifier.create(result)
             .verifyComplete();
     }
+
+    @Test
+    public void testGetDueLinks() {
+        // Ссылка, только что отправленная в Kafka, не должна считаться просроченной
+        linkService.addLink("http://example1.com").block();
+        linkService.updateLastChecked("http://example1.com").block();
+        linkService.addLink("http://example2.com").block();
+
+        // Тестирование метода getDueLinks
+        Mono<List<String>> result = linkService.getDueLinks(Instant.now(), 1000)
+            .map(Link::url)
+            .collectList();
+
+        // Проверяем, что возвращается только просроченная ссылка
+        StepVerifier.create(result)
+            .expectNextMatches(urls -> urls.contains("http://example2.com") && !urls.contains("http://example1.com"))
+            .verifyComplete();
+    }
+
+    @Test
+    public void testGetDueLinksAcrossShards() {
+        // Две ссылки в одном шарде и более просроченная ссылка в шарде с большим номером
+        String first = null;
+        String second = null;
+        String other = null;
+        for (int i = 0; second == null || other == null; i++) {
+            String url = "http://example.com/fair/" + i;
+            int shard = linkService.shardOf(url);
+            if (first == null) {
+                first = shard < linkService.getShardCount() - 1 ? url : null;
+            } else if (second == null && shard == linkService.shardOf(first)) {
+                second = url;
+            } else if (other == null && shard > linkService.shardOf(first)) {
+                other = url;
+            }
+        }
+        linkService.upsertLinks(List.of(new Link(first, null), new Link(second, null), new Link(other, null))).block();
+        setDue(first, 3000);
+        setDue(second, 2000);
+        setDue(other, 1000);
+
+        // Лимит делится между шардами по просроченности, а не заполняется первым шардом
+        StepVerifier.create(linkService.getDueLinks(Instant.now(), 2).map(Link::url).collectList())
+            .expectNext(List.of(other, second))
+            .verifyComplete();
+    }
+
+    private void setDue(String url, long due) {
+        reactiveRedisTemplate.opsForZSet(RedisSerializationContext.string())
+            .add(LinkService.DUE_INDEX_KEY + ':' + linkService.shardOf(url), url, due)
+            .block();
+    }
+
+    @Test
+    public void testMarkDispatched() {
+        linkService.addLink("http://example1.com").block();
+        linkService.addLink("http://example2.com").block();
+
+        // Отсутствующая ссылка не должна быть создана заново
+        Mono<Long> result = linkService.markDispatched(List.of("http://example1.com", "http://example2.com",
+            "http://missing.example.com"));
+
+        // Проверяем, что обновлены только существующие ссылки
+        StepVerifier.create(result)
+            .expectNext(2L)
+            .verifyComplete();
+        StepVerifier.create(linkService.getLinkByUrl("http://missing.example.com"))
+            .verifyComplete();
+    }
 }
@@ -1,5 +1,6 @@
 package org.si.parsing.scheduler.service.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.si.parsing.scheduler.service.IntegrationTest;
 import org.si.parsing.scheduler.service.model.Link;
@@ -11,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @SpringBootTest
@@ -27,6 +29,9 @@ public class SchedulerServiceIT extends IntegrationTest {
     @Autowired
     private KafkaProducerService kafkaProducerService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     public void testProcessLinks() {
         // Создаем объект Link
@@ -46,4 +51,28 @@ public class SchedulerServiceIT extends IntegrationTest {
             .expectNextMatches(linkResult -> linkResult.url().equals(link.url()))
             .verifyComplete();
     }
+
+    @Test
+    public void testCyclesDoNotOverlap() {
+        linkService.addLink("http://example.com/overlap").block();
+        long cyclesBefore = meterRegistry.get("scheduler.cycle.duration").timer().count();
+        double overrunsBefore = meterRegistry.get("scheduler.cycle.overruns").counter().count();
+
+        // Запускаем два тика подряд: второй либо пропускается, либо стартует после завершения первого
+        schedulerService.processLinks();
+        schedulerService.processLinks();
+
+        // Ожидаем, пока оба тика будут учтены
+        Mono<Long> ticks = Mono.fromCallable(() ->
+                meterRegistry.get("scheduler.cycle.duration").timer().count() - cyclesBefore
+                    + (long) (meterRegistry.get("scheduler.cycle.overruns").counter().count() - overrunsBefore))
+            .filter(count -> count >= 2)
+            .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(100)))
+            .timeout(Duration.ofSeconds(10));
+
+        // Проверяем, что каждый тик либо выполнил цикл, либо учтен как пропущенный, но не оба сразу
+        StepVerifier.create(ticks)
+            .expectNext(2L)
+            .verifyComplete();
+    }
 }
@@ -0,0 +1,67 @@
+package org.si.parsing.scheduler.service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.si.parsing.scheduler.service.IntegrationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.test.StepVerifier;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ShardLeaseServiceIT extends IntegrationTest {
+
+    private static final String PEER = "peer-instance";
+
+    @Autowired
+    private ShardLeaseService shardLeaseService;
+
+    @Autowired
+    private LinkService linkService;
+
+    @Autowired
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        shardLeaseService.endDispatch();
+        redisTemplate.opsForZSet().remove(ShardLeaseService.INSTANCES_KEY, PEER).block();
+    }
+
+    @Test
+    public void testSingleInstanceOwnsAllShards() {
+        // Единственный экземпляр должен получить аренду на все шарды
+        StepVerifier.create(shardLeaseService.rebalance())
+            .expectNextMatches(shards -> shards.size() == linkService.getShardCount())
+            .verifyComplete();
+
+        // Повторный heartbeat продлевает те же аренды
+        StepVerifier.create(shardLeaseService.rebalance())
+            .expectNextMatches(shards -> shards.equals(shardLeaseService.getOwnedShards()))
+            .verifyComplete();
+    }
+
+    @Test
+    public void testSurplusShardsAreKeptUntilTheCycleEnds() {
+        Set<Integer> all = shardLeaseService.rebalance().block();
+        shardLeaseService.startDispatch(all);
+
+        // Появился второй экземпляр: доля этого экземпляра уменьшается вдвое
+        redisTemplate.opsForZSet().add(ShardLeaseService.INSTANCES_KEY, PEER, Double.MAX_VALUE).block();
+        Set<Integer> owned = shardLeaseService.rebalance().block();
+
+        // Лишние шарды не выдаются следующему циклу, но остаются арендованными, пока идет текущий цикл
+        assertEquals(linkService.getShardCount() / 2, owned.size());
+        assertTrue(shardLeaseService.holdsLeases(all));
+
+        // После окончания цикла следующий heartbeat освобождает лишние шарды
+        shardLeaseService.endDispatch();
+        shardLeaseService.rebalance().block();
+        assertFalse(shardLeaseService.holdsLeases(all));
+        assertTrue(shardLeaseService.holdsLeases(owned));
+    }
+}
@@ -0,0 +1,65 @@
+package org.si.parsing.scheduler.service.simulation;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.producer.KafkaProducerService;
+import org.si.parsing.scheduler.service.producer.LinkPartitioningStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.SenderResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Продюсер в памяти вместо Kafka для симуляции планировщика: подтверждает каждое окно ссылок
+ * через заданную задержку в виртуальном времени и выбирает партицию по ключу, как это делает Kafka.
+ */
+public class InMemoryKafkaProducerService extends KafkaProducerService {
+
+    private static final String TOPIC = "news_links";
+
+    private final LinkPartitioningStrategy partitioningStrategy;
+    private final int partitions;
+    private final Duration latency;
+    private final AtomicLong sent = new AtomicLong();
+
+    public InMemoryKafkaProducerService(LinkPartitioningStrategy partitioningStrategy, int partitions,
+                                        Duration latency) {
+        super(null, partitioningStrategy);
+        this.partitioningStrategy = partitioningStrategy;
+        this.partitions = partitions;
+        this.latency = latency;
+    }
+
+    @Override
+    public Flux<SenderResult<String>> sendLinksToKafka(Flux<Link> links) {
+        return links.collectList()
+            .delayUntil(window -> Mono.delay(latency))
+            .flatMapIterable(window -> window.stream().map(this::acknowledge).toList());
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    private SenderResult<String> acknowledge(Link link) {
+        byte[] key = partitioningStrategy.keyOf(link).getBytes(StandardCharsets.UTF_8);
+        int partition = Utils.toPositive(Utils.murmur2(key)) % partitions;
+        long offset = sent.getAndIncrement();
+        return new Acknowledgement(new RecordMetadata(new TopicPartition(TOPIC, partition), offset, 0, 0L, 0, 0),
+            link.url());
+    }
+
+    private record Acknowledgement(RecordMetadata recordMetadata, String correlationMetadata)
+        implements SenderResult<String> {
+
+        @Override
+        public Exception exception() {
+            return null;
+        }
+    }
+}
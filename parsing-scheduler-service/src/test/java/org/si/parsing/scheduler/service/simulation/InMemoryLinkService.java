@@ -0,0 +1,162 @@
+package org.si.parsing.scheduler.service.simulation;
+
+import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.service.LinkService;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Хранилище ссылок в памяти вместо Redis для симуляции планировщика.
+ * <p>
+ * Повторяет поведение индекса времени следующей отправки из {@link LinkService}: сегменты по хешу URL,
+ * выборку просроченных ссылок с лимитом и перепланирование через интервал опроса, в том числе со сглаживанием
+ * по фазе ссылки, как в {@code link-schedule.lua}. Каждый запрос к хранилищу задерживается на заданную
+ * задержку Redis в виртуальном времени.
+ */
+public class InMemoryLinkService extends LinkService {
+
+    private static final double PHASE_RANGE = 4294967296.0;
+    private static final int PHASE_HEX_DIGITS = 8;
+    private static final String LAST_URL = "\uffff";
+
+    private static final Comparator<DueEntry> DUE_ORDER =
+        Comparator.comparingLong(DueEntry::due).thenComparing(DueEntry::url);
+
+    private final Clock clock;
+    private final Duration latency;
+    private final boolean smoothing;
+    private final Map<String, Link> links = new HashMap<>();
+    private final Map<String, Long> dueTimes = new HashMap<>();
+    private final List<NavigableSet<DueEntry>> dueIndex = new ArrayList<>();
+
+    public InMemoryLinkService(Clock clock, int shardCount, Duration defaultPollInterval, boolean smoothing,
+                               Duration latency) {
+        super(null, null, null, null, clock);
+        ReflectionTestUtils.setField(this, "shardCount", shardCount);
+        ReflectionTestUtils.setField(this, "defaultPollInterval", defaultPollInterval);
+        this.clock = clock;
+        this.latency = latency;
+        this.smoothing = smoothing;
+        for (int shard = 0; shard < shardCount; shard++) {
+            dueIndex.add(new TreeSet<>(DUE_ORDER));
+        }
+    }
+
+    /**
+     * Добавляет ссылку, которая станет просроченной в указанный момент.
+     */
+    public synchronized void put(Link link, Instant due) {
+        links.put(link.url(), link);
+        reschedule(link.url(), due.toEpochMilli());
+    }
+
+    /**
+     * Возвращает количество ссылок, время отправки которых уже наступило.
+     */
+    public synchronized long countDue(Instant now) {
+        long count = 0;
+        DueEntry bound = new DueEntry(now.toEpochMilli(), LAST_URL);
+        for (NavigableSet<DueEntry> shard : dueIndex) {
+            count += shard.headSet(bound, true).size();
+        }
+        return count;
+    }
+
+    public synchronized int size() {
+        return links.size();
+    }
+
+    @Override
+    public Flux<Link> getDueLinks(Collection<Integer> shards, Instant now, long limit) {
+        return Mono.delay(latency)
+            .flatMapMany(tick -> Flux.fromIterable(readDue(shards, now.toEpochMilli(), limit)));
+    }
+
+    @Override
+    public Mono<Long> markDispatched(Collection<String> urls, Instant dispatchedAt) {
+        return Mono.delay(latency).map(tick -> update(urls, dispatchedAt));
+    }
+
+    private synchronized List<Link> readDue(Collection<Integer> shards, long now, long limit) {
+        List<Link> due = new ArrayList<>();
+        DueEntry bound = new DueEntry(now, LAST_URL);
+        for (int shard : shards) {
+            for (DueEntry entry : dueIndex.get(shard).headSet(bound, true)) {
+                if (due.size() >= limit) {
+                    return due;
+                }
+                due.add(links.get(entry.url()));
+            }
+        }
+        return due;
+    }
+
+    private synchronized long update(Collection<String> urls, Instant now) {
+        long updated = 0;
+        for (String url : urls) {
+            Link link = links.get(url);
+            if (link != null) {
+                links.put(url, new Link(url, LocalDateTime.ofInstant(now, clock.getZone()), link.pollInterval()));
+                reschedule(url, nextDue(url, now.toEpochMilli(), pollIntervalOf(link).toMillis()));
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    private void reschedule(String url, long due) {
+        NavigableSet<DueEntry> shard = dueIndex.get(shardOf(url));
+        Long previous = dueTimes.put(url, due);
+        if (previous != null) {
+            shard.remove(new DueEntry(previous, url));
+        }
+        shard.add(new DueEntry(due, url));
+    }
+
+    /**
+     * Повторяет {@code next_due} из {@code link-schedule.lua}.
+     */
+    private long nextDue(String url, long now, long interval) {
+        long due = now + interval;
+        if (!smoothing || interval <= 0) {
+            return due;
+        }
+        double phase = Long.parseLong(sha1Hex(url).substring(0, PHASE_HEX_DIGITS), 16) / PHASE_RANGE * interval;
+        double aligned = due - (due % interval) + phase;
+        if (aligned < due - interval / 2.0) {
+            aligned += interval;
+        } else if (aligned > due + interval / 2.0) {
+            aligned -= interval;
+        }
+        return (long) Math.floor(aligned);
+    }
+
+    private static String sha1Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record DueEntry(long due, String url) {}
+}
@@ -0,0 +1,217 @@
+package org.si.parsing.scheduler.service.simulation;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Builder;
+import org.mockito.Mockito;
+import org.si.parsing.scheduler.service.metrics.SchedulerMetrics;
+import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.producer.HostPartitioningStrategy;
+import org.si.parsing.scheduler.service.service.SchedulerService;
+import org.si.parsing.scheduler.service.service.ShardLeaseService;
+import org.si.parsing.scheduler.service.snapshot.LinkSnapshot;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Симуляция работы {@link SchedulerService} без Redis и Kafka.
+ * <p>
+ * Настоящий сервис планировщика работает с хранилищем ссылок и продюсером в памяти, а время идет по
+ * {@link VirtualTimeScheduler}, поэтому часы работы планировщика со ста тысячами ссылок прогоняются за секунды.
+ * Задержки Redis и Kafka задаются в параметрах и тоже отсчитываются в виртуальном времени.
+ * Параметры по умолчанию читаются из системных свойств {@code simulation.*}.
+ */
+public final class SchedulerSimulation {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final Duration STATISTICS_EXPIRY = Duration.ofDays(365);
+
+    private SchedulerSimulation() {
+    }
+
+    /**
+     * Параметры симуляции.
+     *
+     * @param links количество ссылок
+     * @param hosts количество сайтов, по которым распределены ссылки
+     * @param duration продолжительность симулированного времени
+     * @param tickRate интервал между тиками планировщика
+     * @param pollInterval интервал опроса ссылок
+     * @param shardCount количество сегментов индекса
+     * @param maxPerTick максимальное количество ссылок за тик
+     * @param maxInFlight максимальное количество неподтвержденных ссылок в Kafka
+     * @param writeBatchSize размер пакета обновления ссылок
+     * @param maxRate ограничение скорости отправки в секунду, ноль без ограничения
+     * @param smoothing сглаживание отправки по фазе ссылки
+     * @param coldStart все ссылки просрочены в начале прогона, иначе равномерно распределены по интервалу опроса
+     * @param cycleTimeout максимальная длительность цикла
+     * @param redisLatency задержка одного запроса к Redis
+     * @param kafkaLatency задержка подтверждения одного окна ссылок в Kafka
+     * @param partitions количество партиций топика ссылок
+     */
+    @Builder(toBuilder = true)
+    public record Settings(int links, int hosts, Duration duration, Duration tickRate, Duration pollInterval,
+                           int shardCount, long maxPerTick, int maxInFlight, int writeBatchSize, long maxRate,
+                           boolean smoothing, boolean coldStart, Duration cycleTimeout, Duration redisLatency,
+                           Duration kafkaLatency, int partitions) {
+
+        /**
+         * Параметры из системных свойств {@code simulation.*} со значениями по умолчанию из конфигурации сервиса.
+         *
+         * @param defaultLinks количество ссылок, если свойство {@code simulation.links} не задано
+         */
+        public static Settings fromSystemProperties(int defaultLinks) {
+            return Settings.builder()
+                .links(Integer.getInteger("simulation.links", defaultLinks))
+                .hosts(Integer.getInteger("simulation.hosts", 1_000))
+                .duration(duration("simulation.duration", "PT5M"))
+                .tickRate(duration("simulation.tick-rate", "PT5S"))
+                .pollInterval(duration("simulation.poll-interval", "PT1M"))
+                .shardCount(Integer.getInteger("simulation.shard-count", 16))
+                .maxPerTick(Long.getLong("simulation.max-per-tick", 10_000L))
+                .maxInFlight(Integer.getInteger("simulation.max-in-flight", 1_000))
+                .writeBatchSize(Integer.getInteger("simulation.write-batch-size", 500))
+                .maxRate(Long.getLong("simulation.max-rate", 0L))
+                .smoothing(Boolean.parseBoolean(System.getProperty("simulation.smoothing", "true")))
+                .coldStart(Boolean.parseBoolean(System.getProperty("simulation.cold-start", "false")))
+                .cycleTimeout(duration("simulation.cycle-timeout", "PT10S"))
+                .redisLatency(duration("simulation.redis-latency", "PT0.001S"))
+                .kafkaLatency(duration("simulation.kafka-latency", "PT0.005S"))
+                .partitions(Integer.getInteger("simulation.partitions", 12))
+                .build();
+        }
+
+        private static Duration duration(String property, String defaultValue) {
+            return Duration.parse(System.getProperty(property, defaultValue));
+        }
+    }
+
+    /**
+     * Прогоняет симуляцию и возвращает ее итоги.
+     */
+    public static SimulationReport run(Settings settings) {
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.getOrSet();
+        try {
+            return run(settings, scheduler);
+        } finally {
+            VirtualTimeScheduler.reset();
+        }
+    }
+
+    private static SimulationReport run(Settings settings, VirtualTimeScheduler scheduler) {
+        VirtualClock clock = new VirtualClock(scheduler);
+
+        long heapBefore = settledHeap();
+        InMemoryLinkService linkService = new InMemoryLinkService(clock, settings.shardCount(),
+            settings.pollInterval(), settings.smoothing(), settings.redisLatency());
+        Instant start = clock.instant();
+        long spreadMillis = settings.pollInterval().toMillis();
+        for (int i = 0; i < settings.links(); i++) {
+            String url = "https://site" + (i % settings.hosts()) + ".example/news/" + i;
+            long offset = settings.coldStart() ? 0L : spreadMillis * i / settings.links();
+            linkService.put(new Link(url, LocalDateTime.ofInstant(start, clock.getZone())), start.plusMillis(offset));
+        }
+        long storeBytes = Math.max(0L, settledHeap() - heapBefore);
+
+        InMemoryKafkaProducerService producer = new InMemoryKafkaProducerService(new HostPartitioningStrategy(),
+            settings.partitions(), settings.kafkaLatency());
+
+        Set<Integer> shards = new HashSet<>();
+        for (int shard = 0; shard < settings.shardCount(); shard++) {
+            shards.add(shard);
+        }
+        ShardLeaseService shardLeaseService = Mockito.mock(ShardLeaseService.class);
+        Mockito.when(shardLeaseService.getOwnedShards()).thenReturn(shards);
+        Mockito.when(shardLeaseService.holdsLeases(Mockito.any())).thenReturn(true);
+        Mockito.when(shardLeaseService.getLeaseTtl()).thenReturn(settings.cycleTimeout());
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        meterRegistry.config().meterFilter(percentiles());
+        SchedulerMetrics metrics = new SchedulerMetrics(meterRegistry);
+
+        SchedulerService schedulerService = new SchedulerService(linkService, producer, shardLeaseService, metrics,
+            clock, new LinkSnapshot(linkService, shardLeaseService));
+        ReflectionTestUtils.setField(schedulerService, "maxLinksPerTick", settings.maxPerTick());
+        ReflectionTestUtils.setField(schedulerService, "writeBatchSize", settings.writeBatchSize());
+        ReflectionTestUtils.setField(schedulerService, "maxInFlight", settings.maxInFlight());
+        ReflectionTestUtils.setField(schedulerService, "cycleTimeout", settings.cycleTimeout());
+        ReflectionTestUtils.setField(schedulerService, "tickRateMs", settings.tickRate().toMillis());
+        ReflectionTestUtils.setField(schedulerService, "maxDispatchRate", settings.maxRate());
+
+        long ticks = settings.duration().toMillis() / settings.tickRate().toMillis();
+        long maxQueueDepth = 0;
+        long totalQueueDepth = 0;
+        long queueDepth = 0;
+        long peakHeap = 0;
+        for (long tick = 0; tick < ticks; tick++) {
+            queueDepth = linkService.countDue(clock.instant());
+            maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+            totalQueueDepth += queueDepth;
+
+            schedulerService.processLinks();
+            scheduler.advanceTimeBy(settings.tickRate());
+            peakHeap = Math.max(peakHeap, usedHeap());
+        }
+
+        Timer cycles = meterRegistry.get("scheduler.cycle.duration").timer();
+        Map<Double, Duration> cyclePercentiles = new HashMap<>();
+        for (ValueAtPercentile value : cycles.takeSnapshot().percentileValues()) {
+            cyclePercentiles.put(value.percentile(), Duration.ofNanos((long) value.value(TimeUnit.NANOSECONDS)));
+        }
+        long dispatched = (long) meterRegistry.get("scheduler.links.dispatched").counter().count();
+        Map<Integer, Long> partitionLoad = metrics.getPartitionLoad();
+        double meanLoad = partitionLoad.values().stream().mapToLong(Long::longValue).average().orElse(0);
+        long maxLoad = partitionLoad.values().stream().mapToLong(Long::longValue).max().orElse(0);
+
+        return new SimulationReport(settings.links(), settings.duration(), dispatched,
+            dispatched * 1000.0 / settings.duration().toMillis(), cycles.count(),
+            (long) meterRegistry.get("scheduler.cycle.overruns").counter().count(),
+            (long) meterRegistry.get("scheduler.links.skipped").counter().count(),
+            cyclePercentiles.getOrDefault(PERCENTILES[0], Duration.ZERO),
+            cyclePercentiles.getOrDefault(PERCENTILES[1], Duration.ZERO),
+            cyclePercentiles.getOrDefault(PERCENTILES[2], Duration.ZERO),
+            Duration.ofNanos((long) cycles.max(TimeUnit.NANOSECONDS)),
+            maxQueueDepth, ticks == 0 ? 0 : (double) totalQueueDepth / ticks, queueDepth,
+            storeBytes, peakHeap, meanLoad == 0 ? 0 : maxLoad / meanLoad);
+    }
+
+    /**
+     * Включает перцентили длительности цикла и хранит статистику весь прогон, а не скользящим окном.
+     */
+    private static MeterFilter percentiles() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                    .percentiles(PERCENTILES)
+                    .expiry(STATISTICS_EXPIRY)
+                    .bufferLength(1)
+                    .build()
+                    .merge(config);
+            }
+        };
+    }
+
+    private static long settledHeap() {
+        System.gc();
+        return usedHeap();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,15 @@
+package org.si.parsing.scheduler.service.simulation;
+
+/**
+ * Прогон симуляции полного размера, сто тысяч ссылок, с теми же проверками, что и {@link SchedulerSimulationTest}.
+ * Выполняется вместе с остальными интеграционными тестами.
+ */
+public class SchedulerSimulationIT extends SchedulerSimulationTest {
+
+    private static final int DEFAULT_LINKS = 100_000;
+
+    @Override
+    protected SchedulerSimulation.Settings settings() {
+        return SchedulerSimulation.Settings.fromSystemProperties(DEFAULT_LINKS);
+    }
+}
@@ -0,0 +1,108 @@
+package org.si.parsing.scheduler.service.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Прогоняет планировщик в виртуальном времени. Параметры задаются системными свойствами {@code simulation.*},
+ * например {@code -Dsimulation.links=1000000 -Dsimulation.duration=PT6H}, что позволяет оценить нагрузку
+ * перед развертыванием. В модульных тестах по умолчанию используется небольшое количество ссылок,
+ * прогон полного размера выполняет {@link SchedulerSimulationIT}.
+ */
+public class SchedulerSimulationTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchedulerSimulationTest.class);
+
+    private static final int DEFAULT_LINKS = 10_000;
+
+    /**
+     * Параметры прогона из системных свойств.
+     */
+    protected SchedulerSimulation.Settings settings() {
+        return SchedulerSimulation.Settings.fromSystemProperties(DEFAULT_LINKS);
+    }
+
+    /**
+     * Количество ссылок, становящихся просроченными за один тик в установившемся режиме.
+     */
+    private static long duePerTick(SchedulerSimulation.Settings settings) {
+        return settings.links() * settings.tickRate().toMillis() / settings.pollInterval().toMillis();
+    }
+
+    @Test
+    void testSteadyStateDispatchRate() {
+        SchedulerSimulation.Settings settings = settings();
+
+        SimulationReport report = SchedulerSimulation.run(settings);
+        LOGGER.info("{}", report);
+
+        // Каждая ссылка отправляется раз в интервал опроса, без пропущенных тиков
+        double expectedRate = settings.links() * 1000.0 / settings.pollInterval().toMillis();
+        assertEquals(expectedRate, report.dispatchRate(), expectedRate * 0.05);
+        assertEquals(0, report.overruns());
+        assertTrue(report.p99().compareTo(settings.tickRate()) < 0);
+
+        // Очередь просроченных ссылок не растет сверх одного-двух тиков работы
+        assertTrue(report.maxQueueDepth() <= 2 * duePerTick(settings),
+            "Queue depth " + report.maxQueueDepth() + " exceeds two ticks of links");
+    }
+
+    @Test
+    void testColdStartBacklogDrains() {
+        SchedulerSimulation.Settings settings = settings().toBuilder()
+            .coldStart(true)
+            .build();
+
+        SimulationReport report = SchedulerSimulation.run(settings);
+        LOGGER.info("{}", report);
+
+        // Все ссылки просрочены при старте, но к концу прогона очередь возвращается к установившемуся уровню
+        assertEquals(settings.links(), report.maxQueueDepth());
+        assertTrue(report.finalQueueDepth() <= 2 * duePerTick(settings),
+            "Backlog of " + report.finalQueueDepth() + " links was not drained");
+    }
+
+    @Test
+    void testMaxRateIsReached() {
+        // Ограничение вдвое ниже скорости, с которой ссылки становятся просроченными
+        SchedulerSimulation.Settings base = settings();
+        SchedulerSimulation.Settings settings = base.toBuilder()
+            .coldStart(true)
+            .maxRate(base.links() * 1000L / base.pollInterval().toMillis() / 2)
+            .redisLatency(Duration.ofMillis(50))
+            .kafkaLatency(Duration.ofMillis(100))
+            .build();
+
+        SimulationReport report = SchedulerSimulation.run(settings);
+        LOGGER.info("{}", report);
+
+        // Просроченных ссылок больше, чем можно отправить: скорость упирается в ограничение, но не проседает
+        // из-за пропущенных тиков
+        assertTrue(report.dispatchRate() <= settings.maxRate(), "Rate " + report.dispatchRate() + " exceeds limit");
+        assertTrue(report.dispatchRate() >= settings.maxRate() * 0.9,
+            "Rate " + report.dispatchRate() + " is far below the limit");
+        assertEquals(0, report.overruns());
+    }
+
+    @Test
+    void testLowMaxRateIsNotExceeded() {
+        SchedulerSimulation.Settings settings = settings().toBuilder()
+            .coldStart(true)
+            .maxRate(5L)
+            .build();
+
+        SimulationReport report = SchedulerSimulation.run(settings);
+        LOGGER.info("{}", report);
+
+        // Ограничение ниже десяти ссылок в секунду соблюдается, а не округляется до одной ссылки на срез
+        assertTrue(report.dispatchRate() <= settings.maxRate(), "Rate " + report.dispatchRate() + " exceeds limit");
+        assertTrue(report.dispatchRate() >= settings.maxRate() * 0.9,
+            "Rate " + report.dispatchRate() + " is far below the limit");
+        assertEquals(0, report.overruns());
+    }
+}
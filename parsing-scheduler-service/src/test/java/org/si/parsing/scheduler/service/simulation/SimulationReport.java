@@ -0,0 +1,48 @@
+package org.si.parsing.scheduler.service.simulation;
+
+import java.time.Duration;
+
+/**
+ * Итоги прогона симуляции планировщика.
+ *
+ * @param links количество ссылок
+ * @param simulated продолжительность симулированного времени
+ * @param dispatched количество отправленных ссылок
+ * @param dispatchRate средняя скорость отправки, ссылок в секунду
+ * @param cycles количество выполненных циклов
+ * @param overruns количество пропущенных тиков, пока выполнялся предыдущий цикл
+ * @param skipped количество просроченных ссылок, отложенных на следующие циклы
+ * @param p50 медиана длительности цикла
+ * @param p95 95-й перцентиль длительности цикла
+ * @param p99 99-й перцентиль длительности цикла
+ * @param maxCycle максимальная длительность цикла
+ * @param maxQueueDepth максимальное число просроченных ссылок в начале тика
+ * @param meanQueueDepth среднее число просроченных ссылок в начале тика
+ * @param finalQueueDepth число просроченных ссылок в начале последнего тика
+ * @param storeBytes память, занятая хранилищем ссылок
+ * @param peakHeapBytes пиковое использование кучи во время прогона
+ * @param partitionSkew отношение нагрузки самой загруженной партиции к средней
+ */
+public record SimulationReport(int links, Duration simulated, long dispatched, double dispatchRate, long cycles,
+                               long overruns, long skipped, Duration p50, Duration p95, Duration p99,
+                               Duration maxCycle, long maxQueueDepth, double meanQueueDepth, long finalQueueDepth,
+                               long storeBytes, long peakHeapBytes, double partitionSkew) {
+
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    @Override
+    public String toString() {
+        return String.format("""
+                Scheduler simulation: %d links over %s
+                  dispatched:   %d (%.1f links/s), skipped %d
+                  cycles:       %d, overruns %d
+                  cycle time:   p50 %d ms, p95 %d ms, p99 %d ms, max %d ms
+                  queue depth:  max %d, mean %.1f, final %d
+                  memory:       store %.1f MB, peak heap %.1f MB
+                  partitions:   max/mean load %.2f""",
+            links, simulated, dispatched, dispatchRate, skipped, cycles, overruns,
+            p50.toMillis(), p95.toMillis(), p99.toMillis(), maxCycle.toMillis(),
+            maxQueueDepth, meanQueueDepth, finalQueueDepth,
+            storeBytes / MEGABYTE, peakHeapBytes / MEGABYTE, partitionSkew);
+    }
+}
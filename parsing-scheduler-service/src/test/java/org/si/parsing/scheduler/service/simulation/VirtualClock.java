@@ -0,0 +1,35 @@
+package org.si.parsing.scheduler.service.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+/**
+ * Часы, показывающие виртуальное время планировщика Reactor, чтобы симуляция и сервис видели одно и то же время.
+ */
+public class VirtualClock extends Clock {
+
+    private final VirtualTimeScheduler scheduler;
+
+    public VirtualClock(VirtualTimeScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(scheduler.now(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,185 @@
+package org.si.parsing.scheduler.service.snapshot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.service.LinkService;
+import org.si.parsing.scheduler.service.service.ShardLeaseService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LinkSnapshotTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+    private static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(60);
+
+    @TempDir
+    private Path directory;
+
+    private LinkService linkService;
+    private ShardLeaseService shardLeaseService;
+
+    @BeforeEach
+    void setUp() {
+        linkService = Mockito.mock(LinkService.class);
+        shardLeaseService = Mockito.mock(ShardLeaseService.class);
+        Mockito.when(shardLeaseService.getOwnedShards()).thenReturn(Set.of(0, 1));
+        Mockito.when(linkService.shardOf(ArgumentMatchers.anyString()))
+            .thenAnswer(invocation -> invocation.getArgument(0, String.class).length() % 2);
+        Mockito.when(linkService.pollIntervalOf(ArgumentMatchers.any(Link.class)))
+            .thenAnswer(invocation -> {
+                Link link = invocation.getArgument(0, Link.class);
+                return link.pollInterval() != null ? link.pollInterval() : DEFAULT_INTERVAL;
+            });
+    }
+
+    private LinkSnapshot snapshot(DataSize initialSize) {
+        LinkSnapshot snapshot = new LinkSnapshot(linkService, shardLeaseService);
+        ReflectionTestUtils.setField(snapshot, "enabled", true);
+        ReflectionTestUtils.setField(snapshot, "path", directory.resolve("links.snapshot"));
+        ReflectionTestUtils.setField(snapshot, "initialSize", initialSize);
+        snapshot.load();
+        return snapshot;
+    }
+
+    private static List<Link> links(String prefix, int count) {
+        List<Link> links = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            links.add(new Link("https://" + prefix + i + ".com/news", null, Duration.ofSeconds(10 + i)));
+        }
+        return links;
+    }
+
+    @Test
+    void testSnapshotSurvivesRestart() {
+        LinkSnapshot snapshot = snapshot(DataSize.ofKilobytes(64));
+        snapshot.recordDispatched(links("site", 3), NOW, false).block();
+        snapshot.recordDispatched(links("site", 1), NOW.plusSeconds(5), true).block();
+        snapshot.close();
+
+        // После перезапуска снимок восстанавливается из файла вместе с последней записью каждой ссылки
+        LinkSnapshot restored = snapshot(DataSize.ofKilobytes(64));
+        assertEquals(3, restored.size());
+        StepVerifier.create(restored.getDueLinks(Set.of(0, 1), NOW.plusSeconds(15), 10).collectList())
+            .assertNext(links -> {
+                assertEquals(List.of("https://site1.com/news", "https://site2.com/news", "https://site0.com/news"),
+                    links.stream().map(Link::url).toList());
+                assertEquals(Duration.ofSeconds(10), links.get(2).pollInterval());
+                assertEquals(LocalDateTime.ofInstant(NOW.plusSeconds(5), ZoneId.systemDefault()),
+                    links.get(2).lastParsedTime());
+            })
+            .verifyComplete();
+        restored.close();
+    }
+
+    @Test
+    void testFullLogIsCompacted() throws Exception {
+        // Файл вмещает лишь несколько записей, поэтому повторные обновления вынуждают его уплотнять
+        LinkSnapshot snapshot = snapshot(DataSize.ofBytes(512));
+        for (int round = 0; round < 50; round++) {
+            snapshot.recordDispatched(links("site", 5), NOW.plusSeconds(round), false).block();
+        }
+        snapshot.close();
+
+        Path file = directory.resolve("links.snapshot");
+        assertTrue(Files.size(file) < 4096);
+        assertFalse(Files.exists(directory.resolve("links.snapshot.tmp")));
+
+        LinkSnapshot restored = snapshot(DataSize.ofBytes(512));
+        assertEquals(5, restored.size());
+        StepVerifier.create(restored.getDueLinks(Set.of(0, 1), NOW.plusSeconds(49 + 10), 10).count())
+            .expectNext(1L)
+            .verifyComplete();
+        restored.close();
+    }
+
+    @Test
+    void testDueLinksAreFilteredByShardAndLimited() {
+        LinkSnapshot snapshot = snapshot(DataSize.ofKilobytes(64));
+        List<Link> links = List.of(
+            new Link("https://a.com", null, Duration.ofSeconds(30)),
+            new Link("https://bb.com", null, Duration.ofSeconds(10)),
+            new Link("https://ccc.com", null, Duration.ofSeconds(20)),
+            new Link("https://dddd.com", null, null));
+        snapshot.recordDispatched(links, NOW, false).block();
+        assertFalse(snapshot.isFallbackActive());
+
+        // Из снимка выдаются только просроченные ссылки запрошенных сегментов, начиная с самых старых
+        StepVerifier.create(snapshot.getDueLinks(Set.of(1), NOW.plusSeconds(30), 10).map(Link::url))
+            .expectNext("https://ccc.com", "https://a.com")
+            .verifyComplete();
+        StepVerifier.create(snapshot.getDueLinks(Set.of(0, 1), NOW.plusSeconds(60), 2).map(Link::url))
+            .expectNext("https://bb.com", "https://ccc.com")
+            .verifyComplete();
+        assertTrue(snapshot.isFallbackActive());
+        snapshot.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPendingDispatchesAreReconciled() {
+        LinkSnapshot snapshot = snapshot(DataSize.ofKilobytes(64));
+        snapshot.recordDispatched(links("site", 2), NOW, false).block();
+        snapshot.recordDispatched(links("site", 2), NOW.plusSeconds(20), true).block();
+        snapshot.recordDispatched(links("other", 1), NOW.plusSeconds(30), true).block();
+
+        List<Collection<String>> written = new ArrayList<>();
+        List<Instant> times = new ArrayList<>();
+        Mockito.when(linkService.markDispatched(ArgumentMatchers.anyCollection(), ArgumentMatchers.any()))
+            .thenAnswer(invocation -> {
+                Collection<String> urls = invocation.getArgument(0, Collection.class);
+                written.add(List.copyOf(urls));
+                times.add(invocation.getArgument(1, Instant.class));
+                return Mono.just((long) urls.size());
+            });
+
+        // Отложенные отправки записываются в Redis с исходным временем отправки, сгруппированные по нему
+        StepVerifier.create(snapshot.reconcile()).verifyComplete();
+        assertEquals(List.of(NOW.plusSeconds(20), NOW.plusSeconds(30)), times);
+        assertEquals(Set.of("https://site0.com/news", "https://site1.com/news"), Set.copyOf(written.get(0)));
+        assertEquals(List.of("https://other0.com/news"), written.get(1));
+
+        // После сверки отложенных отправок не остается
+        StepVerifier.create(snapshot.reconcile()).verifyComplete();
+        assertEquals(2, written.size());
+        snapshot.close();
+    }
+
+    @Test
+    void testRefreshKeepsPendingDispatches() {
+        LinkSnapshot snapshot = snapshot(DataSize.ofKilobytes(64));
+        snapshot.recordDispatched(links("site", 1), NOW, true).block();
+        LocalDateTime stored = LocalDateTime.ofInstant(NOW.minusSeconds(100), ZoneId.systemDefault());
+        Mockito.when(linkService.getShardLinks(Set.of(0, 1))).thenReturn(Flux.just(
+            new Link("https://site0.com/news", stored, Duration.ofSeconds(10)),
+            new Link("https://new.com/news", stored, null)));
+
+        // Обновление берет из Redis ссылки сегментов этого экземпляра, но не затирает отложенные отправки
+        StepVerifier.create(snapshot.refreshOwnedShards()).verifyComplete();
+        Mockito.verify(linkService, Mockito.never()).getAllLinks();
+        assertEquals(2, snapshot.size());
+        StepVerifier.create(snapshot.getDueLinks(Set.of(0, 1), NOW, 10).map(Link::url))
+            .expectNext("https://new.com/news")
+            .verifyComplete();
+        snapshot.close();
+    }
+}
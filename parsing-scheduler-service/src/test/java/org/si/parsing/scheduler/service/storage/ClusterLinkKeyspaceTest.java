@@ -0,0 +1,122 @@
+package org.si.parsing.scheduler.service.storage;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterLinkKeyspaceTest {
+
+    private static final Duration PAGE_LATENCY = Duration.ofSeconds(1);
+
+    /**
+     * Локальная замена узла Redis Cluster: хранит ключи в памяти и отдает их страницами, как SCAN.
+     */
+    private static RedisNodeScanner node(List<String> keys, Duration latency) {
+        return (cursor, count) -> {
+            int from = Integer.parseInt(cursor);
+            int to = Math.min(keys.size(), from + count);
+            KeyPage page = new KeyPage(to == keys.size() ? KeyPage.FIRST_CURSOR : Integer.toString(to),
+                keys.subList(from, to));
+            return latency.isZero() ? Mono.just(page) : Mono.delay(latency).thenReturn(page);
+        };
+    }
+
+    private static List<List<String>> clusterKeys(ClusterLinkKeyspace keyspace) {
+        List<List<String>> nodes = new ArrayList<>();
+        for (int node = 0; node < 3; node++) {
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                keys.add(keyspace.linkKey("https://site" + node + ".com/news/" + i, node * 5 + i));
+            }
+            // Ключи, не являющиеся ссылками, не должны попадать в результат сканирования
+            keys.add("scheduler:lease:{leases}:" + node);
+            nodes.add(keys);
+        }
+        return nodes;
+    }
+
+    private static ClusterLinkKeyspace keyspace(List<List<String>> nodes, Duration latency) {
+        List<RedisNodeScanner> scanners = nodes.stream().map(keys -> node(keys, latency)).toList();
+        return new ClusterLinkKeyspace(() -> scanners);
+    }
+
+    private static Set<String> linkKeys(List<List<String>> nodes) {
+        Set<String> keys = new HashSet<>();
+        for (List<String> node : nodes) {
+            node.stream().filter(key -> key.startsWith("link:")).forEach(keys::add);
+        }
+        return keys;
+    }
+
+    @Test
+    void testLinkSharesTheSlotOfItsIndexShard() {
+        ClusterLinkKeyspace keyspace = new ClusterLinkKeyspace(List::of);
+        String url = "https://rbc.ru/news?q={a}:b";
+
+        // Ссылка и ее сегмент индекса попадают в один слот, а URL восстанавливается из ключа
+        String key = keyspace.linkKey(url, 7);
+        assertEquals(SlotHash.getSlot(keyspace.dueIndexKey(7)), SlotHash.getSlot(key));
+        assertNotEquals(SlotHash.getSlot(keyspace.dueIndexKey(7)), SlotHash.getSlot(keyspace.dueIndexKey(8)));
+        assertEquals(url, keyspace.urlOf(key));
+        assertTrue(keyspace.isClustered());
+    }
+
+    @Test
+    void testScanMergesAllNodes() {
+        ClusterLinkKeyspace keyspace = keyspace(List.of(), Duration.ZERO);
+        List<List<String>> nodes = clusterKeys(keyspace);
+
+        // Ключи всех узлов объединяются в один поток
+        StepVerifier.create(keyspace(nodes, Duration.ZERO).scanLinkKeys(2).collect(HashSet<String>::new, Set::add))
+            .assertNext(keys -> assertEquals(linkKeys(nodes), keys))
+            .verifyComplete();
+    }
+
+    @Test
+    void testNodesAreScannedInParallel() {
+        List<List<String>> nodes = clusterKeys(keyspace(List.of(), Duration.ZERO));
+
+        // Каждый узел отдает свои 6 ключей за 3 страницы; при параллельном сканировании
+        // все узлы прочитаны за время сканирования одного узла
+        StepVerifier.withVirtualTime(() -> keyspace(nodes, PAGE_LATENCY).scanLinkKeys(2).collectList())
+            .thenAwait(PAGE_LATENCY.multipliedBy(3))
+            .assertNext(keys -> assertEquals(linkKeys(nodes).size(), keys.size()))
+            .verifyComplete();
+    }
+
+    @Test
+    void testPagedScanResumesAcrossNodes() {
+        List<List<String>> nodes = clusterKeys(keyspace(List.of(), Duration.ZERO));
+        ClusterLinkKeyspace keyspace = keyspace(nodes, Duration.ZERO);
+
+        // Постраничное чтение проходит все узлы по очереди и заканчивается курсором "0"
+        Set<String> keys = new HashSet<>();
+        String cursor = KeyPage.FIRST_CURSOR;
+        int pages = 0;
+        do {
+            KeyPage page = keyspace.scanLinkKeys(cursor, 4).block();
+            assertNotNull(page);
+            keys.addAll(page.keys());
+            cursor = page.nextCursor();
+            pages++;
+        } while (!KeyPage.FIRST_CURSOR.equals(cursor));
+
+        assertEquals(linkKeys(nodes), keys);
+        assertEquals(6, pages);
+
+        // Курсор из середины позволяет продолжить чтение со следующего узла
+        KeyPage resumed = keyspace.scanLinkKeys("1:4", 4).block();
+        assertNotNull(resumed);
+        assertEquals("2:0", resumed.nextCursor());
+        assertEquals(List.of(nodes.get(1).get(4)), resumed.keys());
+    }
+}
@@ -0,0 +1,72 @@
+package org.si.parsing.scheduler.service.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.si.parsing.scheduler.service.IntegrationTest;
+import org.si.parsing.scheduler.service.model.Link;
+import org.si.parsing.scheduler.service.model.LinkPage;
+import org.si.parsing.scheduler.service.service.LinkService;
+import org.si.parsing.scheduler.service.service.ShardLeaseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class StandaloneLinkKeyspaceIT extends IntegrationTest {
+
+    private static final String URL = "https://example.com/keyspace";
+    private static final String URL_WITHOUT_SCHEME = "example.com/keyspace/feed";
+    private static final String LEASE_KEY = ShardLeaseService.LEASE_KEY_PREFIX + "keyspace";
+
+    @Autowired
+    private LinkService linkService;
+
+    @Autowired
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        // Аренда шарда хранится строкой в той же базе, что и ссылки
+        redisTemplate.opsForValue().set(LEASE_KEY, "instance-1").block();
+        linkService.addLink(URL).block();
+        linkService.addLink(URL_WITHOUT_SCHEME).block();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.delete(LEASE_KEY).block();
+        linkService.deleteLink(URL).block();
+        linkService.deleteLink(URL_WITHOUT_SCHEME).block();
+    }
+
+    @Test
+    public void testScansSkipLeasesOnly() {
+        // Обход видит ссылки с любой схемой URL, но не аренды шардов
+        List<String> urls = linkService.getAllLinks().map(Link::url).collectList().block();
+        assertNotNull(urls);
+        assertTrue(urls.containsAll(List.of(URL, URL_WITHOUT_SCHEME)));
+        assertFalse(urls.contains(LEASE_KEY));
+
+        // Перестроение индекса и миграция кодировки не падают на арендах
+        StepVerifier.create(linkService.rebuildDueIndex())
+            .expectNextCount(1)
+            .verifyComplete();
+        StepVerifier.create(linkService.migrateLinkEncoding())
+            .expectNextCount(1)
+            .verifyComplete();
+
+        // Постраничный обход тоже пропускает аренды
+        StepVerifier.create(linkService.getLinkPages(KeyPage.FIRST_CURSOR, 10)
+                .concatMapIterable(LinkPage::links)
+                .map(Link::url)
+                .collectList())
+            .expectNextMatches(pageUrls -> pageUrls.contains(URL_WITHOUT_SCHEME) && !pageUrls.contains(LEASE_KEY))
+            .verifyComplete();
+    }
+}